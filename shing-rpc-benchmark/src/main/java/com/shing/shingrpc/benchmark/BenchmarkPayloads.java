@@ -0,0 +1,115 @@
+package com.shing.shingrpc.benchmark;
+
+import com.shing.shingrpc.constant.RpcConstant;
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试用的 RPC 请求和响应（模拟下单接口），按订单明细条数分为小、中、大三档
+ *
+ * @author shing
+ */
+public class BenchmarkPayloads {
+
+    /**
+     * 消息大小：订单明细条数
+     */
+    public enum Size {
+        SMALL(1), MEDIUM(20), LARGE(500);
+
+        private final int items;
+
+        Size(int items) {
+            this.items = items;
+        }
+    }
+
+    public enum OrderStatus {
+        CREATED, PAID, SHIPPED
+    }
+
+    @Data
+    public static class OrderItem implements Serializable {
+        private long skuId;
+        private String name;
+        private int quantity;
+        private double price;
+    }
+
+    @Data
+    public static class Order implements Serializable {
+        private Long id;
+        private String orderNo;
+        private long userId;
+        private OrderStatus status;
+        private double amount;
+        private Date createTime;
+        private String remark;
+        private List<OrderItem> items;
+        private Map<String, String> attributes;
+    }
+
+    public interface OrderService {
+        Order submit(Order order, String operator);
+    }
+
+    /**
+     * 构造订单
+     *
+     * @param size 消息大小
+     * @return 订单
+     */
+    public static Order order(Size size) {
+        Order order = new Order();
+        order.setId(1024L);
+        order.setOrderNo("SO20240101000000001");
+        order.setUserId(10001L);
+        order.setStatus(OrderStatus.CREATED);
+        order.setCreateTime(new Date(1704067200000L));
+        order.setRemark("请尽快发货");
+        List<OrderItem> items = new ArrayList<>();
+        double amount = 0;
+        for (int i = 0; i < size.items; i++) {
+            OrderItem item = new OrderItem();
+            item.setSkuId(100000L + i);
+            item.setName("商品-" + i);
+            item.setQuantity(i % 5 + 1);
+            item.setPrice(9.9 + i);
+            items.add(item);
+            amount += item.getQuantity() * item.getPrice();
+        }
+        order.setItems(items);
+        order.setAmount(amount);
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("channel", "app");
+        attributes.put("coupon", "NEWUSER");
+        order.setAttributes(attributes);
+        return order;
+    }
+
+    public static RpcRequest request(Size size) {
+        return RpcRequest.builder()
+                .serviceName(OrderService.class.getName())
+                .methodName("submit")
+                .serviceVersion(RpcConstant.DEFAULT_SERVICE_VERSION)
+                .parameterTypes(new Class[]{Order.class, String.class})
+                .args(new Object[]{order(size), "shing"})
+                .build();
+    }
+
+    public static RpcResponse response(Size size) {
+        return RpcResponse.builder()
+                .data(order(size))
+                .dataType(Order.class)
+                .message("ok")
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.shing.shingrpc.benchmark;
+
+import com.shing.shingrpc.registry.LocalRegistry;
+import com.shing.shingrpc.registry.LocalService;
+import com.shing.shingrpc.registry.ServiceMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端方法调用基准测试：对比反射调用与注册时生成的直接调用器。
+ * <ul>
+ *     <li>reflectLookup：原实现，每次 getMethod + newInstance + Method#invoke</li>
+ *     <li>reflectCached：缓存 Method 和实例，仅 Method#invoke</li>
+ *     <li>serviceMethod：ServiceMethod 直接调用器（MethodHandle）</li>
+ *     <li>localService：LocalService 完整调用路径（查表 + 单例实例 + 调用器）</li>
+ *     <li>direct：直接方法调用（基线）</li>
+ * </ul>
+ *
+ * @author shing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvokerBenchmark {
+
+    public static class GreetingService {
+        public String greet(String name, int times) {
+            return times > 1 ? name + times : name;
+        }
+    }
+
+    private static final String SERVICE_NAME = GreetingService.class.getName();
+
+    private static final Class<?>[] PARAMETER_TYPES = new Class[]{String.class, int.class};
+
+    private final Object[] args = new Object[]{"shing", 2};
+
+    private GreetingService instance;
+
+    private Method method;
+
+    private LocalService localService;
+
+    private ServiceMethod serviceMethod;
+
+    @Setup
+    public void setup() throws Exception {
+        LocalRegistry.register(SERVICE_NAME, GreetingService.class);
+        instance = new GreetingService();
+        method = GreetingService.class.getMethod("greet", PARAMETER_TYPES);
+        localService = LocalRegistry.getLocalService(SERVICE_NAME);
+        serviceMethod = localService.getMethod("greet", PARAMETER_TYPES);
+    }
+
+    @Benchmark
+    public Object reflectLookup() throws Exception {
+        Class<?> implClass = LocalRegistry.getService(SERVICE_NAME);
+        Method lookupMethod = implClass.getMethod("greet", PARAMETER_TYPES);
+        return lookupMethod.invoke(implClass.getDeclaredConstructor().newInstance(), args);
+    }
+
+    @Benchmark
+    public Object reflectCached() throws Exception {
+        return method.invoke(instance, args);
+    }
+
+    @Benchmark
+    public Object serviceMethod() throws Throwable {
+        return serviceMethod.invoke(instance, args);
+    }
+
+    @Benchmark
+    public Object localService() throws Exception {
+        ServiceMethod lookupMethod = LocalRegistry.getLocalService(SERVICE_NAME).getMethod("greet", PARAMETER_TYPES);
+        return localService.invoke(lookupMethod, args);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return instance.greet((String) args[0], (Integer) args[1]);
+    }
+}
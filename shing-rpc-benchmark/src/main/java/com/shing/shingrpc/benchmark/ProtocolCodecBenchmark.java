@@ -0,0 +1,107 @@
+package com.shing.shingrpc.benchmark;
+
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import com.shing.shingrpc.protocol.ProtocolConstant;
+import com.shing.shingrpc.protocol.ProtocolMessage;
+import com.shing.shingrpc.protocol.ProtocolMessageDecoder;
+import com.shing.shingrpc.protocol.ProtocolMessageEncoder;
+import com.shing.shingrpc.protocol.ProtocolMessageSerializerEnum;
+import com.shing.shingrpc.protocol.ProtocolMessageStatusEnum;
+import com.shing.shingrpc.protocol.ProtocolMessageTypeEnum;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 协议编解码基准测试：ProtocolMessageEncoder / ProtocolMessageDecoder 完整路径（消息头 + 序列化消息体）。
+ * encode 为堆内存 Buffer，encodePooled 为客户端和服务端实际使用的池化直接内存（测试中立即释放）。
+ * <pre>
+ * java -jar target/benchmarks.jar ProtocolCodecBenchmark -prof gc
+ * </pre>
+ *
+ * @author shing
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtocolCodecBenchmark {
+
+    @Param({"jdk", "hessian", "hessian2", "fastjson", "jackson", "kryo", "compact"})
+    public String serializer;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public BenchmarkPayloads.Size size;
+
+    private ProtocolMessage<RpcRequest> requestMessage;
+
+    private ProtocolMessage<RpcResponse> responseMessage;
+
+    private Buffer requestBuffer;
+
+    private Buffer responseBuffer;
+
+    @Setup
+    public void setup() throws Exception {
+        requestMessage = new ProtocolMessage<>(header(ProtocolMessageTypeEnum.REQUEST), BenchmarkPayloads.request(size));
+        responseMessage = new ProtocolMessage<>(header(ProtocolMessageTypeEnum.RESPONSE), BenchmarkPayloads.response(size));
+        requestBuffer = ProtocolMessageEncoder.encode(requestMessage);
+        responseBuffer = ProtocolMessageEncoder.encode(responseMessage);
+    }
+
+    private ProtocolMessage.Header header(ProtocolMessageTypeEnum type) {
+        ProtocolMessage.Header header = new ProtocolMessage.Header();
+        header.setMagic(ProtocolConstant.PROTOCOL_MAGIC);
+        header.setVersion(ProtocolConstant.PROTOCOL_VERSION);
+        header.setSerializer((byte) ProtocolMessageSerializerEnum.getEnumByValue(serializer).getKey());
+        header.setType((byte) type.getKey());
+        header.setStatus((byte) ProtocolMessageStatusEnum.OK.getValue());
+        header.setRequestId(1L);
+        return header;
+    }
+
+    @Benchmark
+    public Buffer encodeRequest() throws Exception {
+        return ProtocolMessageEncoder.encode(requestMessage);
+    }
+
+    @Benchmark
+    public int encodePooledRequest() throws Exception {
+        ByteBuf byteBuf = ProtocolMessageEncoder.encodePooled(requestMessage);
+        try {
+            return byteBuf.readableBytes();
+        } finally {
+            byteBuf.release();
+        }
+    }
+
+    @Benchmark
+    public ProtocolMessage<?> decodeRequest() throws Exception {
+        return ProtocolMessageDecoder.decode(requestBuffer);
+    }
+
+    @Benchmark
+    public Buffer encodeResponse() throws Exception {
+        return ProtocolMessageEncoder.encode(responseMessage);
+    }
+
+    @Benchmark
+    public ProtocolMessage<?> decodeResponse() throws Exception {
+        return ProtocolMessageDecoder.decode(responseBuffer);
+    }
+}
@@ -0,0 +1,86 @@
+package com.shing.shingrpc.benchmark;
+
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import com.shing.shingrpc.serializer.Serializer;
+import com.shing.shingrpc.serializer.SerializerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化器基准测试：各序列化器对不同大小的 RpcRequest / RpcResponse 的序列化和反序列化。
+ * 同时输出吞吐量（ops/us）和采样延迟（us/op），加 -prof gc 输出每次操作的分配量 gc.alloc.rate.norm：
+ * <pre>
+ * java -jar target/benchmarks.jar SerializerBenchmark -prof gc
+ * java -jar target/benchmarks.jar SerializerBenchmark -p serializer=kryo,compact -p size=LARGE -prof gc
+ * </pre>
+ * 启动时会打印各组合的序列化后字节数。
+ *
+ * @author shing
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+
+    @Param({"jdk", "hessian", "hessian2", "fastjson", "jackson", "kryo", "compact"})
+    public String serializer;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public BenchmarkPayloads.Size size;
+
+    private Serializer serializerInstance;
+
+    private RpcRequest rpcRequest;
+
+    private RpcResponse rpcResponse;
+
+    private byte[] requestBytes;
+
+    private byte[] responseBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        serializerInstance = SerializerFactory.getInstance(serializer);
+        rpcRequest = BenchmarkPayloads.request(size);
+        rpcResponse = BenchmarkPayloads.response(size);
+        requestBytes = serializerInstance.serialize(rpcRequest);
+        responseBytes = serializerInstance.serialize(rpcResponse);
+        System.out.printf("%n%s %s: request %d bytes, response %d bytes%n",
+                serializer, size, requestBytes.length, responseBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws Exception {
+        return serializerInstance.serialize(rpcRequest);
+    }
+
+    @Benchmark
+    public RpcRequest deserializeRequest() throws Exception {
+        return serializerInstance.deserialize(requestBytes, RpcRequest.class);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return serializerInstance.serialize(rpcResponse);
+    }
+
+    @Benchmark
+    public RpcResponse deserializeResponse() throws Exception {
+        return serializerInstance.deserialize(responseBytes, RpcResponse.class);
+    }
+}
@@ -0,0 +1,264 @@
+package com.shing.shingrpc.benchmark.loopback;
+
+import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.benchmark.BenchmarkPayloads;
+import com.shing.shingrpc.config.RpcConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import com.shing.shingrpc.proxy.ServiceProxyFactory;
+import com.shing.shingrpc.registry.LocalRegistry;
+import com.shing.shingrpc.registry.RegistryFactory;
+import com.shing.shingrpc.registry.RegistryKeys;
+import com.shing.shingrpc.server.tcp.VertxTcpClient;
+import com.shing.shingrpc.server.tcp.VertxTcpServer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 端到端回环基准测试：在同一个 JVM 中启动提供者和消费者，经本机回环地址走完整调用链路
+ * （ServiceProxy → VertxTcpClient → VertxTcpServer → TcpServerHandler → 返回），不依赖 etcd。
+ * <p>
+ * 采用开环发压：按目标速率预先排定每个请求的计划发送时间，发送不等待响应；
+ * 延迟从计划发送时间算起（修正协调遗漏，发压跟不上时排队时间也计入），同时输出从实际发送算起的服务时间作对比。
+ * <pre>
+ * java -cp target/benchmarks.jar com.shing.shingrpc.benchmark.loopback.LoopbackBenchmark \
+ *     serializer=kryo rate=20000 concurrency=4 payload=MEDIUM mix=echo:1,submit:3 warmup=10 duration=30
+ * </pre>
+ * 参数（均可省略）：
+ * <ul>
+ *     <li>serializer：序列化器键名，默认 kryo</li>
+ *     <li>rate：目标总速率（请求/秒），默认 10000</li>
+ *     <li>concurrency：发压线程数，速率在线程间均分，默认 4</li>
+ *     <li>payload：submit 请求的订单大小 SMALL / MEDIUM / LARGE，默认 SMALL</li>
+ *     <li>mix：调用比例 方法:权重，逗号分隔，默认 echo:1,submit:1</li>
+ *     <li>warmup / duration：预热和测量时长（秒），默认 10 / 30</li>
+ *     <li>port：服务端端口，默认 18090</li>
+ * </ul>
+ *
+ * @author shing
+ */
+public class LoopbackBenchmark {
+
+    private final String serializer;
+
+    private final double rate;
+
+    private final int concurrency;
+
+    private final BenchmarkPayloads.Size payload;
+
+    private final String mix;
+
+    private final int warmupSeconds;
+
+    private final int durationSeconds;
+
+    private final int port;
+
+    private LoopbackBenchmark(Map<String, String> options) {
+        this.serializer = options.getOrDefault("serializer", "kryo");
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "10000"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "4"));
+        this.payload = BenchmarkPayloads.Size.valueOf(options.getOrDefault("payload", "SMALL").toUpperCase());
+        this.mix = options.getOrDefault("mix", "echo:1,submit:1");
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        this.port = Integer.parseInt(options.getOrDefault("port", "18090"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value：" + arg);
+            }
+            options.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        new LoopbackBenchmark(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        // 提供者
+        RpcConfig rpcConfig = new RpcConfig();
+        rpcConfig.setSerializer(serializer);
+        rpcConfig.setServerHost("127.0.0.1");
+        rpcConfig.setServerPort(port);
+        rpcConfig.getRegistryConfig().setRegistry(RegistryKeys.MEMORY);
+        RpcApplication.init(rpcConfig);
+        String serviceName = LoopbackService.class.getName();
+        LocalRegistry.register(serviceName, LoopbackServiceImpl.class);
+        ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
+        serviceMetaInfo.setServiceName(serviceName);
+        serviceMetaInfo.setServiceHost(rpcConfig.getServerHost());
+        serviceMetaInfo.setServicePort(port);
+        RegistryFactory.getInstance(RegistryKeys.MEMORY).register(serviceMetaInfo);
+        new VertxTcpServer().doStart(port);
+
+        // 消费者
+        LoopbackService loopbackService = ServiceProxyFactory.getProxy(LoopbackService.class);
+        List<Supplier<CompletableFuture<?>>> calls = parseMix(loopbackService);
+
+        System.out.printf("serializer=%s rate=%.0f/s concurrency=%d payload=%s mix=%s%n",
+                serializer, rate, concurrency, payload, mix);
+        runPhase("warmup", warmupSeconds, calls);
+        runPhase("measure", durationSeconds, calls);
+        VertxTcpClient.destroy();
+    }
+
+    /**
+     * 按权重展开调用序列，发压线程依次循环使用
+     *
+     * @param loopbackService 服务代理
+     * @return 调用序列
+     */
+    private List<Supplier<CompletableFuture<?>>> parseMix(LoopbackService loopbackService) {
+        BenchmarkPayloads.Order order = BenchmarkPayloads.order(payload);
+        List<Supplier<CompletableFuture<?>>> calls = new ArrayList<>();
+        for (String item : mix.split(",")) {
+            String[] parts = item.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            Supplier<CompletableFuture<?>> call;
+            switch (parts[0].trim()) {
+                case "echo":
+                    call = () -> loopbackService.echo("ping");
+                    break;
+                case "submit":
+                    call = () -> loopbackService.submit(order, "shing");
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的调用：" + parts[0]);
+            }
+            for (int i = 0; i < weight; i++) {
+                calls.add(call);
+            }
+        }
+        if (calls.isEmpty()) {
+            throw new IllegalArgumentException("调用比例为空：" + mix);
+        }
+        return calls;
+    }
+
+    /**
+     * 执行一个阶段（预热或测量），每秒输出一次区间结果，结束后输出汇总
+     *
+     * @param phase   阶段名称
+     * @param seconds 时长
+     * @param calls   调用序列
+     */
+    private void runPhase(String phase, int seconds, List<Supplier<CompletableFuture<?>>> calls) throws InterruptedException {
+        if (seconds <= 0) {
+            return;
+        }
+        Recorder latencyRecorder = new Recorder(3);
+        Recorder serviceTimeRecorder = new Recorder(3);
+        AtomicLong sent = new AtomicLong();
+        AtomicLong finished = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> generators = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            // 各线程错开相位，合起来按总速率均匀发送
+            long firstIntended = start + intervalNanos * t / concurrency;
+            int callOffset = t;
+            Thread generator = new Thread(() -> {
+                for (long i = 0; ; i++) {
+                    long intended = firstIntended + i * intervalNanos;
+                    if (intended >= end) {
+                        break;
+                    }
+                    long now;
+                    while ((now = System.nanoTime()) < intended) {
+                        LockSupport.parkNanos(intended - now);
+                    }
+                    sent.incrementAndGet();
+                    CompletableFuture<?> future;
+                    try {
+                        future = calls.get((int) ((i * concurrency + callOffset) % calls.size())).get();
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                        finished.incrementAndGet();
+                        continue;
+                    }
+                    long sendTime = now;
+                    future.whenComplete((result, e) -> {
+                        long completeTime = System.nanoTime();
+                        if (e != null) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencyRecorder.recordValue(completeTime - intended);
+                            serviceTimeRecorder.recordValue(completeTime - sendTime);
+                        }
+                        finished.incrementAndGet();
+                    });
+                }
+            }, "loopback-generator-" + t);
+            generator.setDaemon(true);
+            generators.add(generator);
+            generator.start();
+        }
+
+        Histogram latency = new Histogram(3);
+        Histogram serviceTime = new Histogram(3);
+        Histogram interval = null;
+        long reportTime = start;
+        for (int second = 1; second <= seconds; second++) {
+            reportTime += TimeUnit.SECONDS.toNanos(1);
+            sleepUntil(reportTime);
+            interval = latencyRecorder.getIntervalHistogram(interval);
+            latency.add(interval);
+            serviceTime.add(serviceTimeRecorder.getIntervalHistogram());
+            System.out.printf("[%s %3ds] %8d req/s  p50=%8.1fus  p99=%8.1fus  max=%8.1fus  errors=%d%n",
+                    phase, second, interval.getTotalCount(),
+                    micros(interval.getValueAtPercentile(50)), micros(interval.getValueAtPercentile(99)),
+                    micros(interval.getMaxValue()), errors.get());
+        }
+        for (Thread generator : generators) {
+            generator.join();
+        }
+        // 等待在途请求完成（最多等一个调用超时时间）
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RpcApplication.getRpcConfig().getTimeout() + 1000);
+        while (finished.get() < sent.get() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        latency.add(latencyRecorder.getIntervalHistogram());
+        serviceTime.add(serviceTimeRecorder.getIntervalHistogram());
+
+        System.out.printf("%n== %s: %d s, sent %d, completed %d, errors %d, throughput %.1f req/s%n",
+                phase, seconds, sent.get(), latency.getTotalCount(), errors.get(), (double) latency.getTotalCount() / seconds);
+        printPercentiles("latency (from intended start, CO-corrected)", latency);
+        printPercentiles("service time (from actual send)", serviceTime);
+        System.out.println();
+    }
+
+    private static void printPercentiles(String title, Histogram histogram) {
+        System.out.printf("%-46s p50=%.1fus  p90=%.1fus  p99=%.1fus  p99.9=%.1fus  max=%.1fus%n", title,
+                micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(90)),
+                micros(histogram.getValueAtPercentile(99)), micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getMaxValue()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            TimeUnit.NANOSECONDS.sleep(deadline - now);
+        }
+    }
+}
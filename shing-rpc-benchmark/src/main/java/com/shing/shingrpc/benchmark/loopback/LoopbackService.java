@@ -0,0 +1,23 @@
+package com.shing.shingrpc.benchmark.loopback;
+
+import com.shing.shingrpc.benchmark.BenchmarkPayloads;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 端到端基准测试服务，方法均为异步，便于开环发压（发送不等待响应）
+ *
+ * @author shing
+ */
+public interface LoopbackService {
+
+    /**
+     * 回显短字符串（最小消息）
+     */
+    CompletableFuture<String> echo(String message);
+
+    /**
+     * 提交订单，返回同样大小的订单
+     */
+    CompletableFuture<BenchmarkPayloads.Order> submit(BenchmarkPayloads.Order order, String operator);
+}
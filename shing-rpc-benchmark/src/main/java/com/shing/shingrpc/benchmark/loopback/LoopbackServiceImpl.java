@@ -0,0 +1,24 @@
+package com.shing.shingrpc.benchmark.loopback;
+
+import com.shing.shingrpc.benchmark.BenchmarkPayloads;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 端到端基准测试服务实现，不做额外计算
+ *
+ * @author shing
+ */
+public class LoopbackServiceImpl implements LoopbackService {
+
+    @Override
+    public CompletableFuture<String> echo(String message) {
+        return CompletableFuture.completedFuture(message);
+    }
+
+    @Override
+    public CompletableFuture<BenchmarkPayloads.Order> submit(BenchmarkPayloads.Order order, String operator) {
+        order.setRemark(operator);
+        return CompletableFuture.completedFuture(order);
+    }
+}
@@ -2,12 +2,18 @@ package com.shing.shingrpc;
 
 import com.shing.shingrpc.config.RegistryConfig;
 import com.shing.shingrpc.config.RpcConfig;
+import com.shing.shingrpc.config.TcpServerConfig;
 import com.shing.shingrpc.constant.RpcConstant;
 import com.shing.shingrpc.registry.Registry;
 import com.shing.shingrpc.registry.RegistryFactory;
+import com.shing.shingrpc.serializer.KryoSerializer;
+import com.shing.shingrpc.server.dispatcher.DispatcherFactory;
 import com.shing.shingrpc.utils.ConfigUtils;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * RPC 框架应用
  * 相当于 holder，存放了项目全局用到的变量。双检锁单例模式实现
@@ -34,6 +40,9 @@ public class RpcApplication {
         rpcConfig = newRpcConfig;
         log.info("rpc init,config={}", newRpcConfig.toString());
 
+        // 序列化器配置
+        KryoSerializer.setRegistrations(rpcConfig.getKryoRegistrations());
+
         // 注册中心初始化
         RegistryConfig registryConfig = rpcConfig.getRegistryConfig();
         Registry registry = RegistryFactory.getInstance(registryConfig.getRegistry());
@@ -47,6 +56,7 @@ public class RpcApplication {
 
     /**
      * 初始化框架，尝试从配置文件加载配置，失败则使用默认配置
+     * 配置文件加载成功但内容有误（如超时时间不是数字）时直接抛出异常，不会退回默认配置
      */
     public static void init() {
         RpcConfig newRpcConfig;
@@ -57,9 +67,40 @@ public class RpcApplication {
             // 配置加载失败,使用默认值
             newRpcConfig = new RpcConfig();
         }
+        normalizeServiceConfig(newRpcConfig);
         init(newRpcConfig);
     }
 
+    /**
+     * 规整按服务 / 方法配置的 Map：配置文件中服务名含有 "."，加载后是嵌套 Map 且值为字符串，需展开并转换类型
+     *
+     * @param rpcConfig 从配置文件加载的配置
+     * @throws RuntimeException 配置的值不合法
+     */
+    static void normalizeServiceConfig(RpcConfig rpcConfig) {
+        Map<String, Long> serviceTimeouts = new HashMap<>();
+        ConfigUtils.flattenMap(rpcConfig.getServiceTimeouts()).forEach((key, value) -> {
+            try {
+                serviceTimeouts.put(key, Long.valueOf(value.trim()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("超时时间配置错误 serviceTimeouts." + key + "=" + value, e);
+            }
+        });
+        rpcConfig.setServiceTimeouts(serviceTimeouts);
+        TcpServerConfig tcpServerConfig = rpcConfig.getTcpServerConfig();
+        tcpServerConfig.setServiceDispatchers(new HashMap<>(ConfigUtils.flattenMap(tcpServerConfig.getServiceDispatchers())));
+        // 派发器键名写错时启动即失败，而不是等到请求到来时才在事件循环上报错
+        checkDispatcher("tcpServerConfig.dispatcher", tcpServerConfig.getDispatcher());
+        tcpServerConfig.getServiceDispatchers().forEach((key, value) ->
+                checkDispatcher("tcpServerConfig.serviceDispatchers." + key, value));
+    }
+
+    private static void checkDispatcher(String name, String dispatcher) {
+        if (!DispatcherFactory.contains(dispatcher)) {
+            throw new RuntimeException("派发器配置错误 " + name + "=" + dispatcher);
+        }
+    }
+
     /**
      * 获取RPC配置
      *
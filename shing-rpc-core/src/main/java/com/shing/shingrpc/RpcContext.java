@@ -0,0 +1,73 @@
+package com.shing.shingrpc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * RPC 调用上下文（线程级），用于以异步方式调用同步接口。
+ * <pre>
+ * CompletableFuture&lt;User&gt; future = RpcContext.async(() -&gt; userService.getUser(user));
+ * </pre>
+ * 代理在异步模式下立即返回默认值，真实结果通过返回的 CompletableFuture 获取，调用线程不会被阻塞。
+ *
+ * @author shing
+ */
+public class RpcContext {
+
+    private static final ThreadLocal<RpcContext> CONTEXT = ThreadLocal.withInitial(RpcContext::new);
+
+    /**
+     * 下一次代理调用是否以异步方式发起
+     */
+    private boolean asyncRequested;
+
+    /**
+     * 最近一次异步调用的结果
+     */
+    private CompletableFuture<?> future;
+
+    /**
+     * 以异步方式执行一次 RPC 调用
+     *
+     * @param call 对服务代理的一次调用，如 {@code () -> userService.getUser(user)}
+     * @param <T>  返回值类型
+     * @return 调用结果
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> async(Supplier<T> call) {
+        RpcContext context = CONTEXT.get();
+        context.asyncRequested = true;
+        context.future = null;
+        try {
+            call.get();
+            if (context.future == null) {
+                throw new IllegalStateException("未通过服务代理发起 RPC 调用");
+            }
+            return (CompletableFuture<T>) context.future;
+        } finally {
+            context.asyncRequested = false;
+            context.future = null;
+        }
+    }
+
+    /**
+     * 消费异步标记（由服务代理调用），标记只对紧接着的一次调用生效
+     *
+     * @return 当前调用是否应以异步方式发起
+     */
+    public static boolean consumeAsyncRequested() {
+        RpcContext context = CONTEXT.get();
+        boolean asyncRequested = context.asyncRequested;
+        context.asyncRequested = false;
+        return asyncRequested;
+    }
+
+    /**
+     * 保存异步调用结果（由服务代理调用）
+     *
+     * @param future 调用结果
+     */
+    public static void setFuture(CompletableFuture<?> future) {
+        CONTEXT.get().future = future;
+    }
+}
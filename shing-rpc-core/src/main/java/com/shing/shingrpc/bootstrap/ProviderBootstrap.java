@@ -10,6 +10,7 @@ import com.shing.shingrpc.registry.Registry;
 import com.shing.shingrpc.registry.RegistryFactory;
 import com.shing.shingrpc.server.tcp.VertxTcpServer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -30,28 +31,31 @@ public class ProviderBootstrap {
         // 全局配置
         final RpcConfig rpcConfig = RpcApplication.getRpcConfig();
 
-        // 注册服务
+        // 本地注册，并收集需要注册到注册中心的服务
+        List<ServiceMetaInfo> serviceMetaInfoList = new ArrayList<>(serviceRegisterInfoList.size());
         for (ServiceRegisterInfo<?> serviceRegisterInfo : serviceRegisterInfoList) {
             String serviceName = serviceRegisterInfo.getServiceName();
             // 本地注册
-            LocalRegistry.register(serviceName, serviceRegisterInfo.getImplClass());
+            LocalRegistry.register(serviceName, serviceRegisterInfo.getImplClass(), serviceRegisterInfo.getScope());
 
-            // 注册服务到注册中心
-            RegistryConfig registryConfig = rpcConfig.getRegistryConfig();
-            Registry registry = RegistryFactory.getInstance(registryConfig.getRegistry());
             ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
             serviceMetaInfo.setServiceName(serviceName);
             serviceMetaInfo.setServiceHost(rpcConfig.getServerHost());
             serviceMetaInfo.setServicePort(rpcConfig.getServerPort());
-            try {
-                registry.register(serviceMetaInfo);
-            } catch (Exception e) {
-                throw new RuntimeException(serviceName + " 服务注册失败", e);
-            }
+            serviceMetaInfoList.add(serviceMetaInfo);
         }
 
-        // 启动服务器
+        // 先启动服务器，监听失败时直接抛出异常，不会把无法访问的地址注册出去
         VertxTcpServer vertxTcpServer = new VertxTcpServer();
         vertxTcpServer.doStart(rpcConfig.getServerPort());
+
+        // 批量注册服务到注册中心
+        RegistryConfig registryConfig = rpcConfig.getRegistryConfig();
+        Registry registry = RegistryFactory.getInstance(registryConfig.getRegistry());
+        try {
+            registry.registerBatch(serviceMetaInfoList);
+        } catch (Exception e) {
+            throw new RuntimeException("服务注册失败", e);
+        }
     }
 }
\ No newline at end of file
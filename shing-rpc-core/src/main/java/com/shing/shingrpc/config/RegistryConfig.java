@@ -34,4 +34,20 @@ public class RegistryConfig {
      * 超时时间（单位毫秒）
      */
     private Long timeout = 100000L;
+
+    /**
+     * 节点存活时间（单位毫秒），超时未续期的节点会被删除，用于 memory / file 注册中心
+     */
+    private Long ttl = 30000L;
+
+    /**
+     * 服务发现快照文件（消费端），保存最近一次获取到的服务节点，启动时加载，注册中心不可用时兜底。
+     * 默认不开启；每个应用应使用单独的文件（写入时整体替换），快照中记录了注册中心类别和地址，不一致时不加载
+     */
+    private String snapshotFile;
+
+    /**
+     * 服务发现缓存未命中时，如果有最近一次已知的节点，是否先返回它并在后台刷新（否则等待查询结果）
+     */
+    private boolean staleWhileRevalidate = true;
 }
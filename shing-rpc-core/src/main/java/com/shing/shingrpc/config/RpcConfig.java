@@ -6,6 +6,11 @@ import com.shing.shingrpc.loadbalancer.LoadBalancerKeys;
 import com.shing.shingrpc.serializer.SerializerKeys;
 import lombok.Data;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * RPC 框架配置
  *
@@ -45,6 +50,12 @@ public class RpcConfig {
     private String serializer = SerializerKeys.JDK;
 
 
+    /**
+     * Kryo 预注册的 DTO 类（全限定类名，多个用逗号分隔），按顺序分配固定 ID，
+     * 消费者和提供者必须配置相同的列表和顺序，只能在末尾追加
+     */
+    private List<String> kryoRegistrations = new ArrayList<>();
+
     /**
      * 负载均衡器
      */
@@ -65,4 +76,31 @@ public class RpcConfig {
      */
     private String tolerantStrategy = TolerantStrategyKeys.FAIL_FAST;
 
+    /**
+     * 调用超时时间（单位毫秒）
+     */
+    private Long timeout = 3000L;
+
+    /**
+     * 按服务或方法单独设置的调用超时时间（单位毫秒），优先级高于 timeout。
+     * 键为 服务名（如 com.shing.example.common.service.UserService）
+     * 或 服务名#方法名（如 com.shing.example.common.service.UserService#getUser），方法级优先
+     */
+    private Map<String, Long> serviceTimeouts = new HashMap<>();
+
+    /**
+     * 协议帧最大长度（消息头 + 消息体，单位字节），超出时关闭连接
+     */
+    private Integer maxFrameLength = 16 * 1024 * 1024;
+
+    /**
+     * TCP 客户端配置
+     */
+    private TcpClientConfig tcpClientConfig = new TcpClientConfig();
+
+    /**
+     * TCP 服务端配置
+     */
+    private TcpServerConfig tcpServerConfig = new TcpServerConfig();
+
 }
@@ -0,0 +1,42 @@
+package com.shing.shingrpc.config;
+
+import lombok.Data;
+
+/**
+ * RPC 框架 TCP 客户端配置（连接池）
+ *
+ * @author shing
+ */
+@Data
+public class TcpClientConfig {
+
+    /**
+     * 每个服务节点（host:port）保持的最小连接数
+     */
+    private Integer minConnections = 1;
+
+    /**
+     * 每个服务节点（host:port）允许的最大连接数
+     */
+    private Integer maxConnections = 8;
+
+    /**
+     * 单个连接的在途请求阈值，所有连接都达到该值且未达最大连接数时新建连接
+     */
+    private Integer maxInFlightPerConnection = 256;
+
+    /**
+     * 建立连接的超时时间（单位毫秒）
+     */
+    private Integer connectTimeout = 3000;
+
+    /**
+     * 连接空闲多久后被回收（单位毫秒），回收后连接数不低于最小连接数
+     */
+    private Long idleTimeout = 60000L;
+
+    /**
+     * 空闲连接检查间隔（单位毫秒）
+     */
+    private Long idleCheckInterval = 10000L;
+}
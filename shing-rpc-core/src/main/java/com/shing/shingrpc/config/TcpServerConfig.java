@@ -0,0 +1,44 @@
+package com.shing.shingrpc.config;
+
+import com.shing.shingrpc.server.dispatcher.DispatcherKeys;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RPC 框架 TCP 服务端配置
+ *
+ * @author shing
+ */
+@Data
+public class TcpServerConfig {
+
+    /**
+     * 服务端 Verticle 实例数（每个实例运行在独立的事件循环上并共享监听端口），
+     * 小于等于 0 时取 CPU 核数
+     */
+    private Integer instances = 0;
+
+    /**
+     * 调用派发器（eventLoop / worker / virtual），决定服务方法在哪个线程上执行。
+     * 默认 worker：服务方法在业务线程池中执行，阻塞的方法不会拖慢事件循环；纯计算的轻量服务可配置为 eventLoop
+     */
+    private String dispatcher = DispatcherKeys.WORKER;
+
+    /**
+     * 按服务或方法单独设置的派发器，优先级高于 dispatcher。
+     * 键的格式与 {@link RpcConfig#getServiceTimeouts()} 相同：服务名 或 服务名#方法名，方法级优先
+     */
+    private Map<String, String> serviceDispatchers = new HashMap<>();
+
+    /**
+     * 业务线程池线程数
+     */
+    private Integer workerThreads = 200;
+
+    /**
+     * 业务线程池队列容量，队列满时拒绝新请求
+     */
+    private Integer workerQueueCapacity = 1024;
+}
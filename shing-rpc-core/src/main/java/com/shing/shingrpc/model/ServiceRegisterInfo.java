@@ -1,5 +1,6 @@
 package com.shing.shingrpc.model;
 
+import com.shing.shingrpc.registry.ServiceScope;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +28,14 @@ public class ServiceRegisterInfo<T> {
      * @param implClass 服务实现类的Class对象，必须是参数类型T的子类或实现类。
      */
     private Class<? extends T> implClass;
+
+    /**
+     * 服务实例作用域，默认单例
+     */
+    private ServiceScope scope = ServiceScope.SINGLETON;
+
+    public ServiceRegisterInfo(String serviceName, Class<? extends T> implClass) {
+        this.serviceName = serviceName;
+        this.implClass = implClass;
+    }
 }
\ No newline at end of file
@@ -6,8 +6,10 @@ import com.shing.shingrpc.model.RpcResponse;
 import com.shing.shingrpc.serializer.Serializer;
 import com.shing.shingrpc.serializer.SerializerFactory;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * 协议消息解码器
@@ -42,8 +44,10 @@ public class ProtocolMessageDecoder {
         header.setRequestId(buffer.getLong(5));
         header.setBodyLength(buffer.getInt(13));
 
-        // 从Buffer中读取协议消息体
-        byte[] bodyBytes = buffer.getBytes(17, 17 + header.getBodyLength());
+        if (buffer.length() < ProtocolConstant.MESSAGE_HEADER_LENGTH + header.getBodyLength()) {
+            throw new RuntimeException("消息长度不完整");
+        }
+        ByteBuffer body = bodyOf(buffer, header.getBodyLength());
 
         // 根据头部信息中的序列化协议类型和消息类型，进行消息体的反序列化
         ProtocolMessageSerializerEnum serializerEnum = ProtocolMessageSerializerEnum.getEnumByKey(header.getSerializer());
@@ -59,10 +63,10 @@ public class ProtocolMessageDecoder {
         // 根据消息类型创建并返回相应的ProtocolMessage对象
         switch (messageTypeEnum) {
             case REQUEST:
-                RpcRequest request = serializer.deserialize(bodyBytes, RpcRequest.class);
+                RpcRequest request = serializer.deserialize(body, RpcRequest.class);
                 return new ProtocolMessage<>(header, request);
             case RESPONSE:
-                RpcResponse response = serializer.deserialize(bodyBytes, RpcResponse.class);
+                RpcResponse response = serializer.deserialize(body, RpcResponse.class);
                 return new ProtocolMessage<>(header, response);
             case HEART_BEAT:
             case OTHERS:
@@ -71,4 +75,17 @@ public class ProtocolMessageDecoder {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 获取协议消息体。Vert.x 自带的 Buffer 实现直接返回共享底层数据的视图，不复制；其它实现复制出消息体
+     *
+     * @param buffer     完整的协议消息
+     * @param bodyLength 消息体长度
+     * @return 消息体
+     */
+    private static ByteBuffer bodyOf(Buffer buffer, int bodyLength) {
+        if (buffer instanceof BufferImpl) {
+            return ((BufferImpl) buffer).byteBuf().nioBuffer(ProtocolConstant.MESSAGE_HEADER_LENGTH, bodyLength);
+        }
+        return ByteBuffer.wrap(buffer.getBytes(ProtocolConstant.MESSAGE_HEADER_LENGTH, ProtocolConstant.MESSAGE_HEADER_LENGTH + bodyLength));
+    }
+}
@@ -2,18 +2,31 @@ package com.shing.shingrpc.protocol;
 
 import com.shing.shingrpc.serializer.Serializer;
 import com.shing.shingrpc.serializer.SerializerFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
 
 import java.io.IOException;
 
 /**
  * 用于编码协议消息的工具类。
+ * 先预留 17 字节消息头，序列化器直接把消息体写入目标 ByteBuf，写完后回填消息体长度，
+ * 消息体不再经过中间的 byte[] 和可增长 Buffer 的多次复制。
+ *
  * @author shing
  */
 public class ProtocolMessageEncoder {
 
     /**
-     * 编码 --> 将协议消息对象编码为Buffer格式。
+     * 编码缓冲区初始容量，不够时由分配器扩容
+     */
+    private static final int INITIAL_CAPACITY = 512;
+
+    /**
+     * 编码 --> 将协议消息对象编码为Buffer格式（堆内存，无需手动释放）。
      * @param protocolMessage 需要被编码的协议消息对象。不能为null且消息头也不能为null。
      * @return 编码后的消息Buffer。
      * @throws IOException 当序列化消息体时发生IO异常。
@@ -23,16 +36,41 @@ public class ProtocolMessageEncoder {
         if (protocolMessage == null || protocolMessage.getHeader() == null) {
             return Buffer.buffer();
         }
-        ProtocolMessage.Header header = protocolMessage.getHeader();
+        return BufferImpl.buffer(encode(protocolMessage, Unpooled.buffer(INITIAL_CAPACITY)));
+    }
+
+    /**
+     * 编码 --> 将协议消息对象编码到池化的直接内存中，用于写入网络。
+     * 返回的 ByteBuf 由调用方负责释放，一般在写入完成的回调中释放：
+     * <pre>
+     * ByteBuf byteBuf = ProtocolMessageEncoder.encodePooled(protocolMessage);
+     * socket.write(BufferImpl.buffer(byteBuf), ar -&gt; byteBuf.release());
+     * </pre>
+     *
+     * @param protocolMessage 需要被编码的协议消息对象。不能为null且消息头也不能为null。
+     * @return 编码后的 ByteBuf（池化直接内存）。
+     * @throws IOException 当序列化消息体时发生IO异常。
+     */
+    public static ByteBuf encodePooled(ProtocolMessage<?> protocolMessage) throws IOException {
+        ByteBuf byteBuf = PooledByteBufAllocator.DEFAULT.directBuffer(INITIAL_CAPACITY);
+        try {
+            return encode(protocolMessage, byteBuf);
+        } catch (IOException | RuntimeException e) {
+            byteBuf.release();
+            throw e;
+        }
+    }
 
-        // 初始化Buffer并写入消息头信息
-        Buffer buffer = Buffer.buffer();
-        buffer.appendByte(header.getMagic());
-        buffer.appendByte(header.getVersion());
-        buffer.appendByte(header.getSerializer());
-        buffer.appendByte(header.getType());
-        buffer.appendByte(header.getStatus());
-        buffer.appendLong(header.getRequestId());
+    /**
+     * 将协议消息写入目标 ByteBuf
+     *
+     * @param protocolMessage 协议消息
+     * @param byteBuf         目标 ByteBuf
+     * @return 目标 ByteBuf
+     * @throws IOException 当序列化消息体时发生IO异常。
+     */
+    private static ByteBuf encode(ProtocolMessage<?> protocolMessage, ByteBuf byteBuf) throws IOException {
+        ProtocolMessage.Header header = protocolMessage.getHeader();
 
         // 根据消息头中的序列化协议类型获取对应的序列化器
         ProtocolMessageSerializerEnum serializerEnum = ProtocolMessageSerializerEnum.getEnumByKey(header.getSerializer());
@@ -41,11 +79,23 @@ public class ProtocolMessageEncoder {
             throw new RuntimeException("序列化协议不存在");
         }
         Serializer serializer = SerializerFactory.getInstance(serializerEnum.getValue());
-        // 序列化消息体，并将序列化后的字节数组写入Buffer
-        byte[] bodyBytes = serializer.serialize(protocolMessage.getBody());
-        buffer.appendInt(bodyBytes.length); // 先写入消息体长度
-        buffer.appendBytes(bodyBytes); // 再写入消息体数据
 
-        return buffer;
+        // 写入消息头信息，消息体长度先占位
+        byteBuf.writeByte(header.getMagic());
+        byteBuf.writeByte(header.getVersion());
+        byteBuf.writeByte(header.getSerializer());
+        byteBuf.writeByte(header.getType());
+        byteBuf.writeByte(header.getStatus());
+        byteBuf.writeLong(header.getRequestId());
+        byteBuf.writeInt(0);
+
+        // 序列化消息体，直接写入 ByteBuf
+        serializer.serialize(protocolMessage.getBody(), new ByteBufOutputStream(byteBuf));
+
+        // 回填消息体长度
+        int bodyLength = byteBuf.writerIndex() - ProtocolConstant.MESSAGE_HEADER_LENGTH;
+        byteBuf.setInt(13, bodyLength);
+        header.setBodyLength(bodyLength);
+        return byteBuf;
     }
 }
@@ -15,10 +15,12 @@ import java.util.stream.Collectors;
 @Getter
 public enum ProtocolMessageSerializerEnum {
     JDK(0, "jdk"), // 使用JDK序列化
-    JSON(1, "json"), // 使用FastJSON序列化
+    JSON(1, "fastjson"), // 使用FastJSON序列化（与 SerializerKeys.FASTJSON 一致）
     JACKSON(2, "jackson"), // 使用Jackson序列化
     KRYO(3, "kryo"), // 使用Kryo序列化
-    HESSIAN(4, "hessian"); // 使用Hessian序列化
+    HESSIAN(4, "hessian"), // 使用Hessian序列化
+    HESSIAN2(5, "hessian2"), // 使用Hessian2序列化
+    COMPACT(6, "compact"); // 使用紧凑二进制序列化
 
     private final int key; // 序列化方式的键值
     private final String value; // 序列化方式的名称
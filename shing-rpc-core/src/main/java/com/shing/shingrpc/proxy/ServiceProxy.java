@@ -1,7 +1,9 @@
 package com.shing.shingrpc.proxy;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ClassUtil;
 import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.RpcContext;
 import com.shing.shingrpc.config.RpcConfig;
 import com.shing.shingrpc.constant.RpcConstant;
 import com.shing.shingrpc.fault.retry.RetryStrategy;
@@ -23,10 +25,13 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 /**
  * 服务代理（JDK 动态代理）类，用于动态生成目标服务的代理对象，实现远程过程调用。
+ * 返回值为 CompletableFuture 的方法，或通过 {@link RpcContext#async} 发起的调用，以异步方式执行。
  *
  * @author shing
  */
@@ -43,6 +48,9 @@ public class ServiceProxy implements InvocationHandler {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        // 异步标记只对本次调用生效，先取出避免影响后续调用
+        boolean asyncRequested = RpcContext.consumeAsyncRequested();
+
         // 初始化序列化器
         final Serializer serializer = SerializerFactory.getInstance(RpcApplication.getRpcConfig().getSerializer());
 
@@ -55,15 +63,27 @@ public class ServiceProxy implements InvocationHandler {
                 .args(args)
                 .build();
 
+        // 异步调用：返回值为 CompletableFuture，或由 RpcContext.async 发起
+        boolean async = method.getReturnType() == CompletableFuture.class || asyncRequested;
+
         // 从注册中心获取服务提供者列表
         RpcConfig rpcConfig = RpcApplication.getRpcConfig();
-        Registry registry = RegistryFactory.getInstance(rpcConfig.getRegistryConfig().getRegistry());
-        ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
-        serviceMetaInfo.setServiceName(serviceName);
-        serviceMetaInfo.setServiceVersion(RpcConstant.DEFAULT_SERVICE_VERSION);
-        List<ServiceMetaInfo> serviceMetaInfoList = registry.serviceDiscovery(serviceMetaInfo.getServiceKey());
-        if (CollUtil.isEmpty(serviceMetaInfoList)) {
-            throw new RuntimeException("暂无服务地址");
+        List<ServiceMetaInfo> serviceMetaInfoList;
+        try {
+            Registry registry = RegistryFactory.getInstance(rpcConfig.getRegistryConfig().getRegistry());
+            ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
+            serviceMetaInfo.setServiceName(serviceName);
+            serviceMetaInfo.setServiceVersion(RpcConstant.DEFAULT_SERVICE_VERSION);
+            serviceMetaInfoList = registry.serviceDiscovery(serviceMetaInfo.getServiceKey());
+            if (CollUtil.isEmpty(serviceMetaInfoList)) {
+                throw new RuntimeException("暂无服务地址");
+            }
+        } catch (RuntimeException e) {
+            // 异步调用的失败统一通过返回的 CompletableFuture 传递，调用方不需要再额外捕获同步异常
+            if (async) {
+                return asyncResult(method, CompletableFuture.failedFuture(e));
+            }
+            throw e;
         }
 
         // 使用负载均衡策略选择一个服务提供者
@@ -72,6 +92,10 @@ public class ServiceProxy implements InvocationHandler {
         requestParams.put("methodName", rpcRequest.getMethodName());
         ServiceMetaInfo selectedServiceMetaInfo = serviceMetaInfoList.get(0);
 
+        if (async) {
+            return asyncResult(method, doInvokeAsync(rpcRequest, selectedServiceMetaInfo, rpcConfig));
+        }
+
         // rpc 请求
         // 使用重试机制
         RpcResponse rpcResponse;
@@ -91,5 +115,44 @@ public class ServiceProxy implements InvocationHandler {
             throw new RuntimeException("调用失败");
         }
     }
-}
 
+    /**
+     * 返回异步调用结果：返回值为 CompletableFuture 的方法直接返回；
+     * 同步接口的异步调用，结果通过 RpcContext 返回，这里先返回默认值
+     *
+     * @param method       被调用的方法
+     * @param resultFuture 调用结果
+     * @return 代理方法的返回值
+     */
+    private Object asyncResult(Method method, CompletableFuture<Object> resultFuture) {
+        if (method.getReturnType() == CompletableFuture.class) {
+            return resultFuture;
+        }
+        RpcContext.setFuture(resultFuture);
+        return ClassUtil.getDefaultValue(method.getReturnType());
+    }
+
+    /**
+     * 异步调用，响应到达时完成返回的 CompletableFuture，不占用调用线程。
+     * 重试策略基于阻塞的 Callable，异步调用不做重试，失败时同样经过容错策略处理。
+     *
+     * @param rpcRequest      RPC 请求
+     * @param serviceMetaInfo 选中的服务提供者
+     * @param rpcConfig       全局配置
+     * @return 方法调用结果
+     */
+    private CompletableFuture<Object> doInvokeAsync(RpcRequest rpcRequest, ServiceMetaInfo serviceMetaInfo, RpcConfig rpcConfig) {
+        return VertxTcpClient.doRequestAsync(rpcRequest, serviceMetaInfo)
+                .handle((rpcResponse, throwable) -> {
+                    if (throwable == null) {
+                        return rpcResponse.getData();
+                    }
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    // 容错机制
+                    TolerantStrategy tolerantStrategy = TolerantStrategyFactory.getInstance(rpcConfig.getTolerantStrategy());
+                    tolerantStrategy.doTolerant(null, cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+                    throw new RuntimeException("调用失败", cause);
+                });
+    }
+}
@@ -1,22 +1,30 @@
 package com.shing.shingrpc.registry;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.cron.CronUtil;
-import cn.hutool.cron.task.Task;
 import cn.hutool.json.JSONUtil;
 import com.shing.shingrpc.config.RegistryConfig;
 import com.shing.shingrpc.model.ServiceMetaInfo;
 import io.etcd.jetcd.*;
+import io.etcd.jetcd.lease.LeaseKeepAliveResponse;
+import io.etcd.jetcd.op.Op;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
+import io.etcd.jetcd.options.WatchOption;
+import io.etcd.jetcd.support.CloseableClient;
 import io.etcd.jetcd.watch.WatchEvent;
-import io.vertx.core.impl.ConcurrentHashSet;
+import io.grpc.stub.StreamObserver;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +32,7 @@ import java.util.stream.Collectors;
  *
  * @author shing
  */
+@Slf4j
 public class EtcdRegistry implements Registry {
 
     // Etcd客户端，用于与Etcd服务器进行通信。
@@ -33,9 +42,24 @@ public class EtcdRegistry implements Registry {
     private KV kvClient;
 
     /**
-     * 本机注册的节点 key 集合（用于维护续期）
+     * 本机注册的节点：节点 key => 服务元信息（租约丢失后用于重新注册）
      */
-    private final Set<String> localRegisterNodeKeySet = new HashSet<>();
+    private final Map<String, ServiceMetaInfo> localRegisterNodeMap = new ConcurrentHashMap<>();
+
+    /**
+     * 本机所有节点共用的租约 ID，0 表示尚未建立
+     */
+    private volatile long leaseId;
+
+    /**
+     * 租约 KeepAlive 流
+     */
+    private CloseableClient keepAliveClient;
+
+    /**
+     * 租约丢失后重新注册的执行器（首次注册时创建）
+     */
+    private ScheduledExecutorService leaseExecutor;
 
     /**
      * 注册中心服务缓存
@@ -43,15 +67,45 @@ public class EtcdRegistry implements Registry {
     private final RegistryServiceCache registryServiceCache = new RegistryServiceCache();
 
     /**
-     * 正在监听的 key 集合
+     * 正在监听的服务：服务键名 => 前缀监听
+     */
+    private final Map<String, Watch.Watcher> serviceWatcherMap = new ConcurrentHashMap<>();
+
+    /**
+     * 合并同一服务并发的注册中心查询
+     */
+    private final SingleFlight<List<ServiceMetaInfo>> discoverySingleFlight = new SingleFlight<>();
+
+    /**
+     * 缓存未命中时是否先返回最近一次已知的节点并在后台刷新
+     */
+    private boolean staleWhileRevalidate;
+
+    /**
+     * 等待注册中心响应的最长时间（单位毫秒）：缓存未命中时的服务发现查询超时后使用最近一次已知的节点兜底，下线时撤销租约超时后不再等待
      */
-    private final Set<String> watchingKeySet = new ConcurrentHashSet<>();
+    private long registryTimeout;
 
     /**
      * 注册中心根路径
      */
     private static final String ETCD_ROOT_PATH = "/rpc/";
 
+    /**
+     * 租约有效期（单位秒），由 KeepAlive 流自动续期
+     */
+    private static final long LEASE_TTL_SECONDS = 30;
+
+    /**
+     * 重新注册失败后的重试间隔（单位毫秒）
+     */
+    private static final long REREGISTER_RETRY_MILLIS = 1000;
+
+    /**
+     * 单个事务的最大操作数（etcd 默认 --max-txn-ops 为 128）
+     */
+    private static final int MAX_TXN_OPS = 128;
+
 
     /**
      * 初始化 Etcd 注册中心。
@@ -66,35 +120,143 @@ public class EtcdRegistry implements Registry {
                 .connectTimeout(Duration.ofMillis(registryConfig.getTimeout()))
                 .build();
         kvClient = client.getKVClient();
-        heartBeat();
+        staleWhileRevalidate = registryConfig.isStaleWhileRevalidate();
+        registryTimeout = registryConfig.getTimeout();
+        // 加载服务发现快照，首次调用无需等待注册中心
+        registryServiceCache.enableSnapshot(registryConfig.getSnapshotFile(),
+                registryConfig.getRegistry() + "@" + registryConfig.getAddress());
     }
 
     /**
      * 注册服务到 Etcd 注册中心。
+     * 本机所有节点挂在同一个租约上，租约由 KeepAlive 流续期，不再按节点单独申请租约。
      *
      * @param serviceMetaInfo 待注册的服务元数据信息。
      * @throws Exception 如果注册过程中遇到任何错误，则抛出异常。
      */
     @Override
     public void register(ServiceMetaInfo serviceMetaInfo) throws Exception {
+        String registerKey = ETCD_ROOT_PATH + serviceMetaInfo.getServiceNodeKey();
+        // 先记录到本地，注册期间租约丢失时由重新注册补上
+        localRegisterNodeMap.put(registerKey, serviceMetaInfo);
+        put(registerKey, serviceMetaInfo, obtainLease());
+    }
 
-        // 创建 Lease 和 KV 客户端
-        Lease leaseClient = client.getLeaseClient();
-
-        // 为服务注册创建一个 30 秒的租约
-        long leaseId = leaseClient.grant(30).get().getID();
+    /**
+     * 批量注册服务：共用一个租约，在一个事务中写入所有节点（超过单个事务操作数上限时分批提交）
+     *
+     * @param serviceMetaInfoList 服务元信息列表
+     * @throws Exception 如果注册过程中遇到任何错误，则抛出异常。
+     */
+    @Override
+    public void registerBatch(List<ServiceMetaInfo> serviceMetaInfoList) throws Exception {
+        if (serviceMetaInfoList.isEmpty()) {
+            return;
+        }
+        for (ServiceMetaInfo serviceMetaInfo : serviceMetaInfoList) {
+            localRegisterNodeMap.put(ETCD_ROOT_PATH + serviceMetaInfo.getServiceNodeKey(), serviceMetaInfo);
+        }
+        long currentLeaseId = obtainLease();
+        PutOption putOption = PutOption.builder().withLeaseId(currentLeaseId).build();
+        for (int from = 0; from < serviceMetaInfoList.size(); from += MAX_TXN_OPS) {
+            List<ServiceMetaInfo> batch = serviceMetaInfoList.subList(from, Math.min(from + MAX_TXN_OPS, serviceMetaInfoList.size()));
+            Op[] putOps = batch.stream()
+                    .map(serviceMetaInfo -> Op.put(
+                            ByteSequence.from(ETCD_ROOT_PATH + serviceMetaInfo.getServiceNodeKey(), StandardCharsets.UTF_8),
+                            ByteSequence.from(JSONUtil.toJsonStr(serviceMetaInfo), StandardCharsets.UTF_8),
+                            putOption))
+                    .toArray(Op[]::new);
+            kvClient.txn().Then(putOps).commit().get();
+        }
+    }
 
-        // 设置要存储的键值对
-        String registerKey = ETCD_ROOT_PATH + serviceMetaInfo.getServiceNodeKey();
+    /**
+     * 将节点写入 Etcd 并关联到租约
+     *
+     * @param registerKey     节点 key
+     * @param serviceMetaInfo 服务元信息
+     * @param leaseId         租约 ID
+     * @throws Exception 写入失败
+     */
+    private void put(String registerKey, ServiceMetaInfo serviceMetaInfo, long leaseId) throws Exception {
         ByteSequence key = ByteSequence.from(registerKey, StandardCharsets.UTF_8);
         ByteSequence value = ByteSequence.from(JSONUtil.toJsonStr(serviceMetaInfo), StandardCharsets.UTF_8);
-
-        // 将服务的键值对与租约关联，并设置租约过期时间
         PutOption putOption = PutOption.builder().withLeaseId(leaseId).build();
         kvClient.put(key, value, putOption).get();
+    }
+
+    /**
+     * 获取本机共用的租约，不存在时申请并开启 KeepAlive 流
+     *
+     * @return 租约 ID
+     * @throws Exception 申请租约失败
+     */
+    private synchronized long obtainLease() throws Exception {
+        if (leaseId != 0) {
+            return leaseId;
+        }
+        if (leaseExecutor == null) {
+            leaseExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("shing-rpc-etcd-lease", true));
+        }
+        Lease leaseClient = client.getLeaseClient();
+        long grantedLeaseId = leaseClient.grant(LEASE_TTL_SECONDS).get().getID();
+        keepAliveClient = leaseClient.keepAlive(grantedLeaseId, new StreamObserver<LeaseKeepAliveResponse>() {
+            @Override
+            public void onNext(LeaseKeepAliveResponse response) {
+            }
 
-        // 添加节点信息到本地缓存
-        localRegisterNodeKeySet.add(registerKey);
+            @Override
+            public void onError(Throwable e) {
+                log.warn("租约 {} 续期失败，重新注册本机节点", grantedLeaseId, e);
+                onLeaseLost(grantedLeaseId);
+            }
+
+            @Override
+            public void onCompleted() {
+                log.warn("租约 {} 已过期，重新注册本机节点", grantedLeaseId);
+                onLeaseLost(grantedLeaseId);
+            }
+        });
+        leaseId = grantedLeaseId;
+        return leaseId;
+    }
+
+    /**
+     * 租约丢失（过期或被撤销）：作废当前租约，异步申请新租约并重新注册本机所有节点
+     *
+     * @param lostLeaseId 丢失的租约 ID
+     */
+    private synchronized void onLeaseLost(long lostLeaseId) {
+        if (leaseId != lostLeaseId) {
+            return;
+        }
+        leaseId = 0;
+        if (keepAliveClient != null) {
+            keepAliveClient.close();
+            keepAliveClient = null;
+        }
+        // 下线过程中撤销租约也会触发这里，执行器已关闭时不再重新注册
+        if (!leaseExecutor.isShutdown()) {
+            leaseExecutor.execute(this::reRegister);
+        }
+    }
+
+    /**
+     * 使用新租约重新注册本机所有节点，失败时稍后重试
+     */
+    private void reRegister() {
+        try {
+            long currentLeaseId = obtainLease();
+            for (Map.Entry<String, ServiceMetaInfo> entry : localRegisterNodeMap.entrySet()) {
+                put(entry.getKey(), entry.getValue(), currentLeaseId);
+            }
+            log.info("已使用租约 {} 重新注册 {} 个节点", currentLeaseId, localRegisterNodeMap.size());
+        } catch (Exception e) {
+            log.error("重新注册失败，{}ms 后重试", REREGISTER_RETRY_MILLIS, e);
+            if (!leaseExecutor.isShutdown()) {
+                leaseExecutor.schedule(this::reRegister, REREGISTER_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     /**
@@ -109,88 +271,86 @@ public class EtcdRegistry implements Registry {
         kvClient.delete(ByteSequence.from(ETCD_ROOT_PATH + serviceMetaInfo.getServiceNodeKey(), StandardCharsets.UTF_8));
 
         // 也要从本地缓存移除
-        localRegisterNodeKeySet.remove(registerKey);
+        localRegisterNodeMap.remove(registerKey);
     }
 
     /**
      * 实现服务发现功能，查询指定服务的所有提供者。
+     * 本地缓存未命中时，同一服务的并发调用只发起一次注册中心查询，共享查询结果；
+     * 开启 staleWhileRevalidate 且有最近一次已知的节点（包括启动时从快照文件加载的）时，先返回它并在后台刷新。
+     * 查询失败或超过注册中心超时时间未返回时，使用最近一次已知的节点兜底。
      *
      * @param serviceKey 需要查询的服务关键字。
-     * @return 返回空列表，该方法暂未实现服务发现功能。
+     * @return 服务节点列表
      */
     @Override
     public List<ServiceMetaInfo> serviceDiscovery(String serviceKey) {
         // 优先从缓存获取服务
-        List<ServiceMetaInfo> cachedServiceMetaInfoList = registryServiceCache.readCache();
+        List<ServiceMetaInfo> cachedServiceMetaInfoList = registryServiceCache.readCache(serviceKey);
         if (cachedServiceMetaInfoList != null) {
             return cachedServiceMetaInfoList;
         }
-        //前缀搜索，结尾一定要加 '/'
-        String searchPrefix = ETCD_ROOT_PATH + serviceKey + "/";
-
+        List<ServiceMetaInfo> lastKnownServiceMetaInfoList = registryServiceCache.readLastKnown(serviceKey);
+        CompletableFuture<List<ServiceMetaInfo>> serviceMetaInfoListFuture =
+                discoverySingleFlight.execute(serviceKey, () -> fetchService(serviceKey));
+        // 有兜底数据时不阻塞调用，后台刷新（注册中心不可用时一直使用兜底数据，直到刷新成功）
+        if (staleWhileRevalidate && lastKnownServiceMetaInfoList != null) {
+            return lastKnownServiceMetaInfoList;
+        }
         try {
-            // 前缀查询
-            GetOption getOption = GetOption.builder().isPrefix(true).build();
-            List<KeyValue> keyValues = kvClient.get(
-                            ByteSequence.from(searchPrefix, StandardCharsets.UTF_8),
-                            getOption)
-                    .get()
-                    .getKvs();
-            // 解析服务信息
-            List<ServiceMetaInfo> serviceMetaInfoList = keyValues.stream()
-                    .map(keyValue -> {
-                        String key = keyValue.getKey().toString(StandardCharsets.UTF_8);
-                        // 监听 key 的变化
-                        watch(key);
-                        String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
-                        return JSONUtil.toBean(value, ServiceMetaInfo.class);
-                    })
-                    .collect(Collectors.toUnmodifiableList());
-            // 写入缓存
-            registryServiceCache.writeCache(serviceMetaInfoList);
-            return serviceMetaInfoList;
+            // 注册中心不可用时客户端可能一直等待连接，这里限制等待时间
+            return serviceMetaInfoListFuture.get(registryTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (lastKnownServiceMetaInfoList != null) {
+                log.warn("获取服务列表超时，使用最近一次已知的节点 {}", serviceKey);
+                return lastKnownServiceMetaInfoList;
+            }
+            throw new RuntimeException("获取服务列表超时 " + serviceKey, e);
         } catch (Exception e) {
+            if (lastKnownServiceMetaInfoList != null) {
+                return lastKnownServiceMetaInfoList;
+            }
             throw new RuntimeException("获取服务列表失败", e);
         }
     }
 
     /**
-     * 心跳函数，用于定时对注册的节点进行续签操作。
-     * 此函数不接受参数且无返回值。
-     * 续签操作确保节点信息在注册中心保持活跃，防止因超时而被移除。
+     * 从注册中心查询服务的全部节点，写入缓存后从查询时的 revision 开始监听
+     *
+     * @param serviceKey 服务键名
+     * @return 服务节点列表
+     */
+    private CompletableFuture<List<ServiceMetaInfo>> fetchService(String serviceKey) {
+        //前缀搜索，结尾一定要加 '/'
+        String searchPrefix = ETCD_ROOT_PATH + serviceKey + "/";
+        // 前缀查询
+        GetOption getOption = GetOption.builder().isPrefix(true).build();
+        return kvClient.get(ByteSequence.from(searchPrefix, StandardCharsets.UTF_8), getOption)
+                .thenApply(getResponse -> {
+                    // 解析服务信息
+                    List<ServiceMetaInfo> serviceMetaInfoList = getResponse.getKvs().stream()
+                            .map(keyValue -> JSONUtil.toBean(keyValue.getValue().toString(StandardCharsets.UTF_8), ServiceMetaInfo.class))
+                            .collect(Collectors.toList());
+                    // 写入缓存（以查询时的 revision 为版本，早于它的监听事件会被忽略）
+                    long revision = getResponse.getHeader().getRevision();
+                    registryServiceCache.writeCache(serviceKey, serviceMetaInfoList, revision);
+                    // 从查询时的下一个 revision 开始监听整个服务前缀，期间的变化不会遗漏
+                    watchService(serviceKey, revision + 1);
+                    return registryServiceCache.readCache(serviceKey);
+                })
+                .whenComplete((serviceMetaInfoList, e) -> {
+                    if (e != null) {
+                        log.warn("获取服务列表失败 {}", serviceKey, e);
+                    }
+                });
+    }
+
+    /**
+     * 心跳检测。
+     * 本机节点共用一个租约，首次注册时建立并由 KeepAlive 流自动续期，租约丢失后自动重新注册，无需定时任务。
      */
     @Override
     public void heartBeat() {
-        // 10 秒续签一次
-        CronUtil.schedule("*/10 * * * * *", new Task() {
-            @Override
-            public void execute() {
-                // 遍历本节点所有的 key
-                for (String key : localRegisterNodeKeySet) {
-                    try {
-                        List<KeyValue> keyValues = kvClient.get(ByteSequence.from(key, StandardCharsets.UTF_8))
-                                .get()
-                                .getKvs();
-                        // 该节点已过期（需要重启节点才能重新注册）
-                        if (CollUtil.isEmpty(keyValues)) {
-                            continue;
-                        }
-                        // 节点未过期，重新注册（相当于续签）
-                        KeyValue keyValue = keyValues.get(0);
-                        String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
-                        ServiceMetaInfo serviceMetaInfo = JSONUtil.toBean(value, ServiceMetaInfo.class);
-                        register(serviceMetaInfo);
-                    } catch (Exception e) {
-                        throw new RuntimeException(key + "续签失败", e);
-                    }
-                }
-            }
-        });
-
-        // 设置Cron表达式支持秒级别定时任务
-        CronUtil.setMatchSecond(true);
-        // 启动定时任务执行器
-        CronUtil.start();
     }
 
 
@@ -201,53 +361,126 @@ public class EtcdRegistry implements Registry {
     @Override
     public void destroy() {
         System.out.println("当前节点下线");
-        // 下线节点
-        // 遍历本节点所有的 key
-        for (String key : localRegisterNodeKeySet) {
-            try {
-                kvClient.delete(ByteSequence.from(key, StandardCharsets.UTF_8)).get();
-            } catch (Exception e) {
-                throw new RuntimeException(key + "节点下线失败");
+        try {
+            // 下线节点：停止续期，撤销租约后挂在租约上的节点会一并删除
+            synchronized (this) {
+                if (leaseExecutor != null) {
+                    leaseExecutor.shutdownNow();
+                }
+                if (keepAliveClient != null) {
+                    keepAliveClient.close();
+                    keepAliveClient = null;
+                }
+                if (leaseId != 0) {
+                    try {
+                        client.getLeaseClient().revoke(leaseId).get(registryTimeout, TimeUnit.MILLISECONDS);
+                    } catch (Exception e) {
+                        // 撤销失败时节点会在租约到期后自动删除，继续释放资源
+                        log.error("租约 {} 撤销失败，节点将在租约到期后删除", leaseId, e);
+                    }
+                    leaseId = 0;
+                }
+            }
+        } finally {
+            // 释放资源
+            // 保存服务发现快照
+            registryServiceCache.closeSnapshot();
+            // 关闭服务监听
+            serviceWatcherMap.values().forEach(Watch.Watcher::close);
+            serviceWatcherMap.clear();
+            // 关闭KV客户端，如果它不为null。
+            if (kvClient != null) {
+                kvClient.close();
+            }
+            // 关闭普通客户端，如果它不为null。
+            if (client != null) {
+                client.close();
             }
-        }
-        // 释放资源
-        // 关闭KV客户端，如果它不为null。
-        if (kvClient != null) {
-            kvClient.close();
-        }
-        // 关闭普通客户端，如果它不为null。
-        if (client != null) {
-            client.close();
         }
     }
 
     /**
-     * 监视指定的服务节点。 （消费端）
-     * 当服务节点发生变更（如被删除）时，根据事件类型执行相应的处理逻辑。
+     * 监听服务节点所属服务的变化（消费端），从当前 revision 开始。
      *
-     * @param serviceNodeKey 服务节点的键，用于标识具体的服务节点。
+     * @param serviceNodeKey 服务节点的键（可带或不带根路径）
      */
     @Override
     public void watch(String serviceNodeKey) {
-        Watch watchClient = client.getWatchClient();
-        // 判断当前是否开始监听该 key，若未监听则开始监听
-        boolean newWatch = watchingKeySet.add(serviceNodeKey);
-        if (newWatch) {
-            // 对指定的 key 开始监听
-            watchClient.watch(ByteSequence.from(serviceNodeKey, StandardCharsets.UTF_8), response -> {
-                for (WatchEvent event : response.getEvents()) {
-                    switch (event.getEventType()) {
-                        // 当服务节点被删除时，清理注册服务的缓存
-                        case DELETE:
-                            registryServiceCache.clearCache();
-                            break;
-                        case PUT:
-                        default:
-                            // 对于其他事件类型（如 PUT），当前逻辑不做处理
-                            break;
-                    }
-                }
-            });
+        String nodeKey = serviceNodeKey.startsWith(ETCD_ROOT_PATH) ? serviceNodeKey.substring(ETCD_ROOT_PATH.length()) : serviceNodeKey;
+        watchService(nodeKey.substring(0, nodeKey.lastIndexOf('/')), 0);
+    }
+
+    /**
+     * 对服务前缀建立一个监听（每个服务只建立一次），节点新增、更新或删除时增量更新本地缓存。
+     * 监听出错（如 revision 已被压缩）时清除该服务的缓存，下次服务发现重新查询并重新监听。
+     *
+     * @param serviceKey    服务键名
+     * @param startRevision 开始监听的 revision，0 表示从当前开始
+     */
+    private void watchService(String serviceKey, long startRevision) {
+        if (serviceWatcherMap.containsKey(serviceKey)) {
+            return;
+        }
+        synchronized (serviceWatcherMap) {
+            if (serviceWatcherMap.containsKey(serviceKey)) {
+                return;
+            }
+            WatchOption.Builder watchOption = WatchOption.builder().isPrefix(true);
+            if (startRevision > 0) {
+                watchOption.withRevision(startRevision);
+            }
+            Watch.Watcher watcher = client.getWatchClient().watch(
+                    ByteSequence.from(ETCD_ROOT_PATH + serviceKey + "/", StandardCharsets.UTF_8),
+                    watchOption.build(),
+                    response -> {
+                        for (WatchEvent event : response.getEvents()) {
+                            applyWatchEvent(serviceKey, event);
+                        }
+                    },
+                    e -> {
+                        log.warn("服务监听中断 {}，清除缓存后重新拉取", serviceKey, e);
+                        stopWatch(serviceKey);
+                    },
+                    () -> stopWatch(serviceKey));
+            serviceWatcherMap.put(serviceKey, watcher);
+        }
+    }
+
+    /**
+     * 将监听事件应用到本地缓存
+     *
+     * @param serviceKey 服务键名
+     * @param event      监听事件
+     */
+    private void applyWatchEvent(String serviceKey, WatchEvent event) {
+        KeyValue keyValue = event.getKeyValue();
+        long revision = keyValue.getModRevision();
+        switch (event.getEventType()) {
+            // 节点新增或更新，写入该服务的缓存
+            case PUT:
+                String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
+                registryServiceCache.putNode(JSONUtil.toBean(value, ServiceMetaInfo.class), revision);
+                break;
+            // 节点删除，只移除该节点
+            case DELETE:
+                String nodeKey = keyValue.getKey().toString(StandardCharsets.UTF_8).substring(ETCD_ROOT_PATH.length());
+                registryServiceCache.removeNode(serviceKey, nodeKey, revision);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 停止监听服务并清除其缓存
+     *
+     * @param serviceKey 服务键名
+     */
+    private void stopWatch(String serviceKey) {
+        Watch.Watcher watcher = serviceWatcherMap.remove(serviceKey);
+        registryServiceCache.clearCache(serviceKey);
+        if (watcher != null) {
+            watcher.close();
         }
     }
 
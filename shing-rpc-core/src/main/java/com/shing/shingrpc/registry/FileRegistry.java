@@ -0,0 +1,393 @@
+package com.shing.shingrpc.registry;
+
+import cn.hutool.json.JSONUtil;
+import com.shing.shingrpc.config.RegistryConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件注册中心，通过本机共享目录在多个进程之间共享节点，不依赖 etcd / ZooKeeper。
+ * 目录结构为 根目录/服务键名/主机:端口.json（名称经过 URL 编码），节点文件原子写入。
+ * 文件修改时间即心跳时间，超过存活时间未续期的节点视为过期并被删除；
+ * 消费端通过 WatchService 监听服务目录，节点新增、更新或删除时增量更新本地缓存。
+ *
+ * @author shing
+ */
+@Slf4j
+public class FileRegistry implements Registry {
+
+    /**
+     * 未配置目录（地址不是文件路径）时使用的默认根目录
+     */
+    private static final String DEFAULT_ROOT_DIR = System.getProperty("java.io.tmpdir") + "/shing-rpc-registry";
+
+    private static final String NODE_FILE_SUFFIX = ".json";
+
+    /**
+     * 根目录
+     */
+    private Path rootDir;
+
+    /**
+     * 节点存活时间（单位毫秒）
+     */
+    private long ttl;
+
+    /**
+     * 本机注册的节点：服务节点键名 => 服务元信息（用于续期）
+     */
+    private final Map<String, ServiceMetaInfo> localRegisterNodeMap = new ConcurrentHashMap<>();
+
+    /**
+     * 注册中心服务缓存
+     */
+    private final RegistryServiceCache registryServiceCache = new RegistryServiceCache();
+
+    /**
+     * 正在监听的服务：监听 key => 服务键名
+     */
+    private final Map<WatchKey, String> watchingServiceMap = new ConcurrentHashMap<>();
+
+    /**
+     * 正在监听的服务键名 => 服务目录
+     */
+    private final Map<String, Path> watchingDirMap = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+
+    /**
+     * 整体读取服务目录的序号，在读取目录之前分配并作为写入缓存的版本，
+     * 监听线程和调用线程并发读取时，较早读取的结果不会覆盖较新的结果
+     */
+    private final AtomicLong listSequence = new AtomicLong();
+
+    /**
+     * 心跳和过期检查执行器
+     */
+    private ScheduledExecutorService heartBeatExecutor;
+
+    @Override
+    public void init(RegistryConfig registryConfig) {
+        String address = registryConfig.getAddress();
+        if (address != null && address.startsWith("file:")) {
+            rootDir = Paths.get(address.substring("file:".length()).replaceFirst("^//", ""));
+        } else if (address != null && !address.contains("://")) {
+            rootDir = Paths.get(address);
+        } else {
+            rootDir = Paths.get(DEFAULT_ROOT_DIR);
+        }
+        ttl = registryConfig.getTtl();
+        try {
+            Files.createDirectories(rootDir);
+            watchService = rootDir.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new RuntimeException("文件注册中心初始化失败 " + rootDir, e);
+        }
+        Thread watchThread = new Thread(this::pollEvents, "shing-rpc-file-registry-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        heartBeat();
+        log.info("文件注册中心目录 {}", rootDir.toAbsolutePath());
+    }
+
+    @Override
+    public void register(ServiceMetaInfo serviceMetaInfo) throws Exception {
+        writeNode(serviceMetaInfo);
+        localRegisterNodeMap.put(serviceMetaInfo.getServiceNodeKey(), serviceMetaInfo);
+    }
+
+    @Override
+    public void unRegister(ServiceMetaInfo serviceMetaInfo) {
+        localRegisterNodeMap.remove(serviceMetaInfo.getServiceNodeKey());
+        try {
+            Files.deleteIfExists(nodeFile(serviceMetaInfo.getServiceKey(), serviceMetaInfo.getServiceNodeKey()));
+        } catch (IOException e) {
+            throw new RuntimeException(serviceMetaInfo.getServiceNodeKey() + "节点下线失败", e);
+        }
+    }
+
+    @Override
+    public List<ServiceMetaInfo> serviceDiscovery(String serviceKey) {
+        // 优先从缓存获取服务
+        List<ServiceMetaInfo> cachedServiceMetaInfoList = registryServiceCache.readCache(serviceKey);
+        if (cachedServiceMetaInfoList != null) {
+            return cachedServiceMetaInfoList;
+        }
+        try {
+            // 先监听再读取目录。写入缓存之前到达的事件无法增量更新，监听线程会改为重新读取整个目录，
+            // 两次读取按序号写入，不会遗漏这段时间内的变化
+            watchService(serviceKey);
+            relistService(serviceKey);
+            return registryServiceCache.readCache(serviceKey);
+        } catch (IOException e) {
+            throw new RuntimeException("获取服务列表失败", e);
+        }
+    }
+
+    /**
+     * 心跳检测，每 1/3 存活时间刷新一次本机节点文件的修改时间（文件丢失时重新写入），
+     * 并删除监听中的服务下已过期的节点
+     */
+    @Override
+    public void heartBeat() {
+        if (heartBeatExecutor != null) {
+            return;
+        }
+        heartBeatExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("shing-rpc-file-registry", true));
+        long period = Math.max(ttl / 3, 1);
+        heartBeatExecutor.scheduleAtFixedRate(() -> {
+            for (ServiceMetaInfo serviceMetaInfo : localRegisterNodeMap.values()) {
+                try {
+                    Path file = nodeFile(serviceMetaInfo.getServiceKey(), serviceMetaInfo.getServiceNodeKey());
+                    try {
+                        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                    } catch (NoSuchFileException e) {
+                        writeNode(serviceMetaInfo);
+                    }
+                } catch (IOException e) {
+                    log.warn("{} 续期失败", serviceMetaInfo.getServiceNodeKey(), e);
+                }
+            }
+            for (String serviceKey : watchingDirMap.keySet()) {
+                try {
+                    listNodes(serviceKey);
+                } catch (IOException e) {
+                    log.warn("{} 过期检查失败", serviceKey, e);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        log.info("当前节点下线");
+        if (heartBeatExecutor != null) {
+            heartBeatExecutor.shutdownNow();
+            heartBeatExecutor = null;
+        }
+        // 下线本机节点
+        for (ServiceMetaInfo serviceMetaInfo : localRegisterNodeMap.values()) {
+            try {
+                Files.deleteIfExists(nodeFile(serviceMetaInfo.getServiceKey(), serviceMetaInfo.getServiceNodeKey()));
+            } catch (IOException e) {
+                throw new RuntimeException(serviceMetaInfo.getServiceNodeKey() + "节点下线失败", e);
+            }
+        }
+        localRegisterNodeMap.clear();
+        // 停止监听
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("关闭目录监听失败", e);
+            }
+        }
+        watchingServiceMap.clear();
+        watchingDirMap.clear();
+        registryServiceCache.clearCache();
+    }
+
+    /**
+     * 监听服务节点所属服务的变化（消费端）
+     *
+     * @param serviceNodeKey 服务节点键名
+     */
+    @Override
+    public void watch(String serviceNodeKey) {
+        try {
+            watchService(serviceNodeKey.substring(0, serviceNodeKey.lastIndexOf('/')));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 监听服务目录（每个服务只监听一次）
+     *
+     * @param serviceKey 服务键名
+     * @throws IOException 创建或监听目录失败
+     */
+    private synchronized void watchService(String serviceKey) throws IOException {
+        if (watchingDirMap.containsKey(serviceKey)) {
+            return;
+        }
+        Path dir = serviceDir(serviceKey);
+        Files.createDirectories(dir);
+        WatchKey watchKey = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchingServiceMap.put(watchKey, serviceKey);
+        watchingDirMap.put(serviceKey, dir);
+    }
+
+    /**
+     * 处理目录监听事件：按文件的最新状态更新缓存，与事件的先后顺序无关
+     */
+    private void pollEvents() {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            String serviceKey = watchingServiceMap.get(watchKey);
+            if (serviceKey != null) {
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    try {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // 事件丢失，重新读取整个服务
+                            relistService(serviceKey);
+                            continue;
+                        }
+                        String fileName = event.context().toString();
+                        if (!fileName.startsWith(".") && fileName.endsWith(NODE_FILE_SUFFIX)) {
+                            refreshNode(serviceKey, fileName);
+                        }
+                    } catch (Exception e) {
+                        log.warn("处理目录监听事件失败 {}", serviceKey, e);
+                    }
+                }
+            }
+            if (!watchKey.reset()) {
+                watchingServiceMap.remove(watchKey);
+            }
+        }
+    }
+
+    /**
+     * 重新读取单个节点文件：存在且未过期时写入缓存，否则从缓存移除。
+     * 服务还未写入缓存（首次发现正在读取目录）时改为重新读取整个目录
+     *
+     * @param serviceKey 服务键名
+     * @param fileName   节点文件名
+     */
+    private void refreshNode(String serviceKey, String fileName) throws IOException {
+        if (registryServiceCache.readCache(serviceKey) == null) {
+            relistService(serviceKey);
+            return;
+        }
+        Path file = serviceDir(serviceKey).resolve(fileName);
+        ServiceMetaInfo serviceMetaInfo = readNode(file);
+        if (serviceMetaInfo != null) {
+            registryServiceCache.putNode(serviceMetaInfo, 0);
+            return;
+        }
+        String address = URLDecoder.decode(fileName.substring(0, fileName.length() - NODE_FILE_SUFFIX.length()), "UTF-8");
+        registryServiceCache.removeNode(serviceKey, serviceKey + "/" + address, 0);
+    }
+
+    /**
+     * 重新读取整个服务目录并替换缓存
+     *
+     * @param serviceKey 服务键名
+     * @throws IOException 读取目录失败
+     */
+    private void relistService(String serviceKey) throws IOException {
+        long sequence = listSequence.incrementAndGet();
+        registryServiceCache.writeCache(serviceKey, listNodes(serviceKey), sequence);
+    }
+
+    /**
+     * 读取服务目录下所有未过期的节点，顺带删除已过期的节点文件
+     *
+     * @param serviceKey 服务键名
+     * @return 服务节点列表
+     * @throws IOException 读取目录失败
+     */
+    private List<ServiceMetaInfo> listNodes(String serviceKey) throws IOException {
+        List<ServiceMetaInfo> serviceMetaInfoList = new ArrayList<>();
+        Path dir = serviceDir(serviceKey);
+        if (!Files.isDirectory(dir)) {
+            return serviceMetaInfoList;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "[!.]*" + NODE_FILE_SUFFIX)) {
+            for (Path file : files) {
+                ServiceMetaInfo serviceMetaInfo = readNode(file);
+                if (serviceMetaInfo != null) {
+                    serviceMetaInfoList.add(serviceMetaInfo);
+                }
+            }
+        }
+        return serviceMetaInfoList;
+    }
+
+    /**
+     * 读取节点文件，已过期时删除
+     *
+     * @param file 节点文件
+     * @return 服务节点，文件不存在或已过期时返回 null
+     */
+    private ServiceMetaInfo readNode(Path file) throws IOException {
+        try {
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            if (System.currentTimeMillis() - lastModified > ttl) {
+                log.info("节点已过期 {}", file);
+                Files.deleteIfExists(file);
+                return null;
+            }
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            return JSONUtil.toBean(json, ServiceMetaInfo.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 原子写入节点文件（先写同目录下的隐藏临时文件，再重命名）
+     *
+     * @param serviceMetaInfo 服务节点
+     * @throws IOException 写入失败
+     */
+    private void writeNode(ServiceMetaInfo serviceMetaInfo) throws IOException {
+        Path file = nodeFile(serviceMetaInfo.getServiceKey(), serviceMetaInfo.getServiceNodeKey());
+        Files.createDirectories(file.getParent());
+        Path tempFile = Files.createTempFile(file.getParent(), ".", ".tmp");
+        try {
+            Files.write(tempFile, JSONUtil.toJsonStr(serviceMetaInfo).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Path serviceDir(String serviceKey) throws IOException {
+        return rootDir.resolve(URLEncoder.encode(serviceKey, "UTF-8"));
+    }
+
+    private Path nodeFile(String serviceKey, String serviceNodeKey) throws IOException {
+        String address = serviceNodeKey.substring(serviceKey.length() + 1);
+        return serviceDir(serviceKey).resolve(URLEncoder.encode(address, "UTF-8") + NODE_FILE_SUFFIX);
+    }
+}
@@ -5,22 +5,44 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 本地注册中心，用于注册和发现服务。
+ * 注册时按作用域准备服务实例并构建方法分派表，调用时直接查表，无需反射查找方法或每次创建实例。
  *
  * @author shing
  */
 public class LocalRegistry {
 
-    // 使用ConcurrentHashMap来存储服务名称与对应类的映射，以支持线程安全的读写操作。
-    private static final Map<String, Class<?>> map = new ConcurrentHashMap<>();
+    // 使用ConcurrentHashMap来存储服务名称与对应本地服务的映射，以支持线程安全的读写操作。
+    private static final Map<String, LocalService> map = new ConcurrentHashMap<>();
 
     /**
-     * 注册服务。
+     * 注册服务（单例作用域）。
      *
      * @param serviceName 服务名称，作为映射的键。
      * @param serviceClass 服务的类，作为映射的值。
      */
     public static void register(String serviceName, Class<?> serviceClass) {
-        map.put(serviceName, serviceClass);
+        register(serviceName, serviceClass, ServiceScope.SINGLETON);
+    }
+
+    /**
+     * 注册服务，并指定实例作用域。
+     *
+     * @param serviceName  服务名称，作为映射的键。
+     * @param serviceClass 服务的类。
+     * @param scope        实例作用域。
+     */
+    public static void register(String serviceName, Class<?> serviceClass, ServiceScope scope) {
+        map.put(serviceName, new LocalService(serviceName, serviceClass, scope));
+    }
+
+    /**
+     * 注册已创建好的服务实例（如 Spring Bean），所有调用共享该实例。
+     *
+     * @param serviceName     服务名称，作为映射的键。
+     * @param serviceInstance 服务实例。
+     */
+    public static void register(String serviceName, Object serviceInstance) {
+        map.put(serviceName, new LocalService(serviceName, serviceInstance));
     }
 
     /**
@@ -30,6 +52,17 @@ public class LocalRegistry {
      * @return 返回与服务名称对应的服务类，如果不存在，则返回null。
      */
     public static Class<?> getService(String serviceName) {
+        LocalService localService = map.get(serviceName);
+        return localService == null ? null : localService.getImplClass();
+    }
+
+    /**
+     * 获取本地服务（实例和方法分派表）。
+     *
+     * @param serviceName 服务名称，查找映射的键。
+     * @return 返回与服务名称对应的本地服务，如果不存在，则返回null。
+     */
+    public static LocalService getLocalService(String serviceName) {
         return map.get(serviceName);
     }
 
@@ -43,4 +76,3 @@ public class LocalRegistry {
     }
 
 }
-
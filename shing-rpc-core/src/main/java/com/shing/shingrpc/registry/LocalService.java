@@ -0,0 +1,220 @@
+package com.shing.shingrpc.registry;
+
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 本地服务，持有服务实现实例和方法分派表。
+ * 分派表在注册时一次性构建：方法名 => 同名方法（重载）列表，调用时按参数类型匹配。
+ * 实现类实现了与服务名同名的接口时只暴露该接口的方法，否则暴露实现类的公开方法（不包括 Object 的方法）。
+ *
+ * @author shing
+ */
+public class LocalService {
+
+    /**
+     * 实例池中最多保留的空闲实例数，超过时归还的实例直接丢弃
+     */
+    static final int MAX_POOLED_INSTANCES = 256;
+
+    /**
+     * 服务实现类
+     */
+    @Getter
+    private final Class<?> implClass;
+
+    /**
+     * 实例作用域
+     */
+    @Getter
+    private final ServiceScope scope;
+
+    /**
+     * 单例实例（仅 SINGLETON 作用域）
+     */
+    private final Object singletonInstance;
+
+    /**
+     * 实例池（仅 POOLED 作用域），池中实例数随并发调用数增长，最多保留 {@link #MAX_POOLED_INSTANCES} 个
+     */
+    private final Queue<Object> instancePool;
+
+    /**
+     * 方法分派表：方法名 => 同名方法
+     */
+    private final Map<String, ServiceMethod[]> methodTable;
+
+    public LocalService(Class<?> implClass, ServiceScope scope) {
+        this(null, implClass, scope);
+    }
+
+    public LocalService(Object instance) {
+        this(null, instance);
+    }
+
+    /**
+     * @param serviceName 服务名（接口全限定名），用于确定暴露哪些方法
+     * @param implClass   服务实现类
+     * @param scope       实例作用域
+     */
+    public LocalService(String serviceName, Class<?> implClass, ServiceScope scope) {
+        this(serviceName, implClass, scope, scope == ServiceScope.SINGLETON ? newInstance(implClass) : null);
+    }
+
+    /**
+     * @param serviceName 服务名（接口全限定名），用于确定暴露哪些方法
+     * @param instance    服务实例
+     */
+    public LocalService(String serviceName, Object instance) {
+        this(serviceName, instance.getClass(), ServiceScope.SINGLETON, instance);
+    }
+
+    private LocalService(String serviceName, Class<?> implClass, ServiceScope scope, Object singletonInstance) {
+        this.implClass = implClass;
+        this.scope = scope;
+        this.singletonInstance = singletonInstance;
+        this.instancePool = scope == ServiceScope.POOLED ? new ArrayBlockingQueue<>(MAX_POOLED_INSTANCES) : null;
+        this.methodTable = buildMethodTable(findServiceInterface(implClass, serviceName), implClass);
+    }
+
+    /**
+     * 按方法名和参数类型查找服务方法
+     *
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @return 服务方法，不存在时返回 null
+     */
+    public ServiceMethod getMethod(String methodName, Class<?>[] parameterTypes) {
+        ServiceMethod[] serviceMethods = methodTable.get(methodName);
+        if (serviceMethods == null) {
+            return null;
+        }
+        for (ServiceMethod serviceMethod : serviceMethods) {
+            if (Arrays.equals(serviceMethod.getParameterTypes(), parameterTypes)) {
+                return serviceMethod;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按作用域获取实例执行服务方法
+     *
+     * @param serviceMethod 服务方法
+     * @param args          参数
+     * @return 方法返回值
+     * @throws Exception 服务方法抛出的异常
+     */
+    public Object invoke(ServiceMethod serviceMethod, Object[] args) throws Exception {
+        switch (scope) {
+            case SINGLETON:
+                return doInvoke(serviceMethod, singletonInstance, args);
+            case POOLED:
+                Object instance = instancePool.poll();
+                if (instance == null) {
+                    instance = newInstance(implClass);
+                }
+                try {
+                    return doInvoke(serviceMethod, instance, args);
+                } finally {
+                    // 池已满时丢弃该实例
+                    instancePool.offer(instance);
+                }
+            default:
+                return doInvoke(serviceMethod, newInstance(implClass), args);
+        }
+    }
+
+    /**
+     * 通过直接调用器执行服务方法
+     *
+     * @param serviceMethod 服务方法
+     * @param instance      服务实例
+     * @param args          参数
+     * @return 方法返回值
+     * @throws Exception 服务方法抛出的异常
+     */
+    private static Object doInvoke(ServiceMethod serviceMethod, Object instance, Object[] args) throws Exception {
+        try {
+            return serviceMethod.invoke(instance, args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 在实现类的所有接口（包括父类和父接口实现的）中查找与服务名同名的接口
+     *
+     * @param type        实现类或接口
+     * @param serviceName 服务名
+     * @return 服务接口，没有时返回 null
+     */
+    private static Class<?> findServiceInterface(Class<?> type, String serviceName) {
+        if (type == null || serviceName == null) {
+            return null;
+        }
+        for (Class<?> serviceInterface : type.getInterfaces()) {
+            if (serviceInterface.getName().equals(serviceName)) {
+                return serviceInterface;
+            }
+            Class<?> found = findServiceInterface(serviceInterface, serviceName);
+            if (found != null) {
+                return found;
+            }
+        }
+        return findServiceInterface(type.getSuperclass(), serviceName);
+    }
+
+    /**
+     * 构建方法分派表
+     *
+     * @param serviceInterface 服务接口，为 null 时使用实现类的公开方法
+     * @param implClass        服务实现类
+     * @return 方法名 => 同名方法
+     */
+    private static Map<String, ServiceMethod[]> buildMethodTable(Class<?> serviceInterface, Class<?> implClass) {
+        Map<String, List<ServiceMethod>> groupedMethods = new HashMap<>();
+        for (Method method : (serviceInterface != null ? serviceInterface : implClass).getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (serviceInterface != null) {
+                // 使用实现类上的对应方法，调用时直接分派到实现
+                try {
+                    method = implClass.getMethod(method.getName(), method.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    throw new RuntimeException("服务方法不存在 " + method, e);
+                }
+            }
+            groupedMethods.computeIfAbsent(method.getName(), key -> new ArrayList<>()).add(new ServiceMethod(method));
+        }
+        Map<String, ServiceMethod[]> methodTable = new HashMap<>(groupedMethods.size() * 2);
+        groupedMethods.forEach((name, methods) -> methodTable.put(name, methods.toArray(new ServiceMethod[0])));
+        return methodTable;
+    }
+
+    /**
+     * 创建服务实现实例
+     *
+     * @param implClass 服务实现类
+     * @return 实例
+     */
+    private static Object newInstance(Class<?> implClass) {
+        try {
+            return implClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("服务实例创建失败 " + implClass.getName(), e);
+        }
+    }
+}
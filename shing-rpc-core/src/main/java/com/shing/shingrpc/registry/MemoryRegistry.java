@@ -0,0 +1,151 @@
+package com.shing.shingrpc.registry;
+
+import com.shing.shingrpc.config.RegistryConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内注册中心，同一 JVM 中的提供者和消费者共享节点，不依赖 etcd / ZooKeeper，适合测试和压测。
+ * 与 etcd 注册中心语义一致：节点带存活时间，由心跳续期；消费端监听服务，增量更新本地缓存。
+ *
+ * @author shing
+ */
+@Slf4j
+public class MemoryRegistry implements Registry {
+
+    private final MemoryRegistryStore store = MemoryRegistryStore.getInstance();
+
+    /**
+     * 本机注册的节点：服务节点键名 => 服务元信息（用于续期）
+     */
+    private final Map<String, ServiceMetaInfo> localRegisterNodeMap = new ConcurrentHashMap<>();
+
+    /**
+     * 注册中心服务缓存
+     */
+    private final RegistryServiceCache registryServiceCache = new RegistryServiceCache();
+
+    /**
+     * 正在监听的服务：服务键名 => 监听者
+     */
+    private final Map<String, MemoryRegistryStore.Watcher> serviceWatcherMap = new ConcurrentHashMap<>();
+
+    /**
+     * 节点存活时间（单位毫秒）
+     */
+    private long ttl;
+
+    /**
+     * 心跳执行器
+     */
+    private ScheduledExecutorService heartBeatExecutor;
+
+    @Override
+    public void init(RegistryConfig registryConfig) {
+        ttl = registryConfig.getTtl();
+        heartBeat();
+    }
+
+    @Override
+    public void register(ServiceMetaInfo serviceMetaInfo) {
+        store.put(serviceMetaInfo, ttl);
+        localRegisterNodeMap.put(serviceMetaInfo.getServiceNodeKey(), serviceMetaInfo);
+    }
+
+    @Override
+    public void unRegister(ServiceMetaInfo serviceMetaInfo) {
+        localRegisterNodeMap.remove(serviceMetaInfo.getServiceNodeKey());
+        store.delete(serviceMetaInfo);
+    }
+
+    @Override
+    public List<ServiceMetaInfo> serviceDiscovery(String serviceKey) {
+        // 优先从缓存获取服务
+        List<ServiceMetaInfo> cachedServiceMetaInfoList = registryServiceCache.readCache(serviceKey);
+        if (cachedServiceMetaInfoList != null) {
+            return cachedServiceMetaInfoList;
+        }
+        // 开始监听时会同步写入全部节点
+        watchService(serviceKey);
+        List<ServiceMetaInfo> serviceMetaInfoList = registryServiceCache.readCache(serviceKey);
+        return serviceMetaInfoList != null ? serviceMetaInfoList : store.list(serviceKey);
+    }
+
+    /**
+     * 心跳检测，每 1/3 存活时间续期一次本机节点；节点已过期时重新写入
+     */
+    @Override
+    public void heartBeat() {
+        if (heartBeatExecutor != null) {
+            return;
+        }
+        heartBeatExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("shing-rpc-memory-heartbeat", true));
+        long period = Math.max(ttl / 3, 1);
+        heartBeatExecutor.scheduleAtFixedRate(() -> {
+            for (ServiceMetaInfo serviceMetaInfo : localRegisterNodeMap.values()) {
+                store.put(serviceMetaInfo, ttl);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        log.info("当前节点下线");
+        if (heartBeatExecutor != null) {
+            heartBeatExecutor.shutdownNow();
+            heartBeatExecutor = null;
+        }
+        // 下线本机节点
+        localRegisterNodeMap.values().forEach(store::delete);
+        localRegisterNodeMap.clear();
+        // 取消监听
+        serviceWatcherMap.forEach(store::unwatch);
+        serviceWatcherMap.clear();
+        registryServiceCache.clearCache();
+    }
+
+    /**
+     * 监听服务节点所属服务的变化（消费端）
+     *
+     * @param serviceNodeKey 服务节点键名
+     */
+    @Override
+    public void watch(String serviceNodeKey) {
+        watchService(serviceNodeKey.substring(0, serviceNodeKey.lastIndexOf('/')));
+    }
+
+    /**
+     * 监听服务（每个服务只监听一次），节点变化时增量更新本地缓存
+     *
+     * @param serviceKey 服务键名
+     */
+    private void watchService(String serviceKey) {
+        serviceWatcherMap.computeIfAbsent(serviceKey, key -> {
+            MemoryRegistryStore.Watcher watcher = new MemoryRegistryStore.Watcher() {
+                @Override
+                public void onReset(List<ServiceMetaInfo> serviceMetaInfoList, long revision) {
+                    registryServiceCache.writeCache(serviceKey, serviceMetaInfoList, revision);
+                }
+
+                @Override
+                public void onEvent(MemoryRegistryStore.EventType eventType, ServiceMetaInfo serviceMetaInfo, long revision) {
+                    if (eventType == MemoryRegistryStore.EventType.PUT) {
+                        registryServiceCache.putNode(serviceMetaInfo, revision);
+                    } else {
+                        registryServiceCache.removeNode(serviceKey, serviceMetaInfo.getServiceNodeKey(), revision);
+                    }
+                }
+            };
+            store.watch(serviceKey, watcher);
+            return watcher;
+        });
+    }
+}
@@ -0,0 +1,225 @@
+package com.shing.shingrpc.registry;
+
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内注册中心存储，同一 JVM 中的所有 {@link MemoryRegistry} 共享。
+ * 与 etcd 一样维护全局递增的 revision，节点带过期时间，到期未续期时删除并通知监听者。
+ * 所有修改串行执行，监听者按 revision 顺序收到事件。
+ *
+ * @author shing
+ */
+@Slf4j
+class MemoryRegistryStore {
+
+    /**
+     * 过期节点的检查间隔（单位毫秒）
+     */
+    private static final long SWEEP_INTERVAL_MILLIS = 100;
+
+    private static volatile MemoryRegistryStore instance;
+
+    /**
+     * 服务键名 => (服务节点键名 => 节点)
+     */
+    private final Map<String, Map<String, Node>> services = new ConcurrentHashMap<>();
+
+    /**
+     * 服务键名 => 监听者
+     */
+    private final Map<String, List<Watcher>> watchers = new ConcurrentHashMap<>();
+
+    /**
+     * 当前 revision，每次修改加 1
+     */
+    private long revision;
+
+    /**
+     * 事件类型
+     */
+    enum EventType {
+        PUT, DELETE
+    }
+
+    /**
+     * 服务监听者
+     */
+    interface Watcher {
+
+        /**
+         * 开始监听时收到服务的全部节点
+         *
+         * @param serviceMetaInfoList 服务节点列表
+         * @param revision            当前 revision
+         */
+        void onReset(List<ServiceMetaInfo> serviceMetaInfoList, long revision);
+
+        /**
+         * 节点新增、更新或删除
+         *
+         * @param eventType       事件类型
+         * @param serviceMetaInfo 服务节点
+         * @param revision        事件的 revision
+         */
+        void onEvent(EventType eventType, ServiceMetaInfo serviceMetaInfo, long revision);
+    }
+
+    /**
+     * 节点
+     */
+    private static final class Node {
+
+        final ServiceMetaInfo serviceMetaInfo;
+
+        /**
+         * 过期时间（毫秒时间戳）
+         */
+        long expireAt;
+
+        Node(ServiceMetaInfo serviceMetaInfo, long expireAt) {
+            this.serviceMetaInfo = serviceMetaInfo;
+            this.expireAt = expireAt;
+        }
+    }
+
+    MemoryRegistryStore() {
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+                new DefaultThreadFactory("shing-rpc-memory-registry", true));
+        sweeper.scheduleWithFixedDelay(this::expire, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取 JVM 内共享的存储
+     *
+     * @return 存储
+     */
+    static MemoryRegistryStore getInstance() {
+        if (instance == null) {
+            synchronized (MemoryRegistryStore.class) {
+                if (instance == null) {
+                    instance = new MemoryRegistryStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 写入节点，节点已存在且内容相同时只续期
+     *
+     * @param serviceMetaInfo 服务节点
+     * @param ttlMillis       存活时间（单位毫秒）
+     */
+    synchronized void put(ServiceMetaInfo serviceMetaInfo, long ttlMillis) {
+        long expireAt = System.currentTimeMillis() + ttlMillis;
+        Map<String, Node> nodes = services.computeIfAbsent(serviceMetaInfo.getServiceKey(), key -> new LinkedHashMap<>());
+        Node node = nodes.get(serviceMetaInfo.getServiceNodeKey());
+        if (node != null && node.serviceMetaInfo.equals(serviceMetaInfo)) {
+            node.expireAt = expireAt;
+            return;
+        }
+        nodes.put(serviceMetaInfo.getServiceNodeKey(), new Node(serviceMetaInfo, expireAt));
+        notify(EventType.PUT, serviceMetaInfo);
+    }
+
+    /**
+     * 删除节点
+     *
+     * @param serviceMetaInfo 服务节点
+     */
+    synchronized void delete(ServiceMetaInfo serviceMetaInfo) {
+        Map<String, Node> nodes = services.get(serviceMetaInfo.getServiceKey());
+        if (nodes == null) {
+            return;
+        }
+        Node node = nodes.remove(serviceMetaInfo.getServiceNodeKey());
+        if (node != null) {
+            notify(EventType.DELETE, node.serviceMetaInfo);
+        }
+    }
+
+    /**
+     * 查询服务的全部节点
+     *
+     * @param serviceKey 服务键名
+     * @return 服务节点列表
+     */
+    synchronized List<ServiceMetaInfo> list(String serviceKey) {
+        List<ServiceMetaInfo> serviceMetaInfoList = new ArrayList<>();
+        Map<String, Node> nodes = services.get(serviceKey);
+        if (nodes != null) {
+            nodes.values().forEach(node -> serviceMetaInfoList.add(node.serviceMetaInfo));
+        }
+        return serviceMetaInfoList;
+    }
+
+    /**
+     * 监听服务：先同步回调当前全部节点，之后的变化按顺序回调，两者之间不会遗漏事件
+     *
+     * @param serviceKey 服务键名
+     * @param watcher    监听者
+     */
+    synchronized void watch(String serviceKey, Watcher watcher) {
+        watcher.onReset(list(serviceKey), revision);
+        watchers.computeIfAbsent(serviceKey, key -> new CopyOnWriteArrayList<>()).add(watcher);
+    }
+
+    /**
+     * 取消监听
+     *
+     * @param serviceKey 服务键名
+     * @param watcher    监听者
+     */
+    synchronized void unwatch(String serviceKey, Watcher watcher) {
+        List<Watcher> serviceWatchers = watchers.get(serviceKey);
+        if (serviceWatchers != null) {
+            serviceWatchers.remove(watcher);
+        }
+    }
+
+    /**
+     * 删除已过期的节点
+     */
+    private synchronized void expire() {
+        long now = System.currentTimeMillis();
+        for (Map<String, Node> nodes : services.values()) {
+            Iterator<Node> iterator = nodes.values().iterator();
+            while (iterator.hasNext()) {
+                Node node = iterator.next();
+                if (node.expireAt <= now) {
+                    iterator.remove();
+                    log.info("节点已过期 {}", node.serviceMetaInfo.getServiceNodeKey());
+                    notify(EventType.DELETE, node.serviceMetaInfo);
+                }
+            }
+        }
+    }
+
+    private void notify(EventType eventType, ServiceMetaInfo serviceMetaInfo) {
+        revision++;
+        List<Watcher> serviceWatchers = watchers.get(serviceMetaInfo.getServiceKey());
+        if (serviceWatchers == null) {
+            return;
+        }
+        for (Watcher watcher : serviceWatchers) {
+            try {
+                watcher.onEvent(eventType, serviceMetaInfo, revision);
+            } catch (Exception e) {
+                log.error("监听回调异常 {}", serviceMetaInfo.getServiceNodeKey(), e);
+            }
+        }
+    }
+}
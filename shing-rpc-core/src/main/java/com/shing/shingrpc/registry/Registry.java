@@ -26,6 +26,18 @@ public interface Registry {
      */
     void register(ServiceMetaInfo serviceMetaInfo) throws Exception;
 
+    /**
+     * 批量注册服务（服务端，启动时一次性注册本机所有服务）
+     * 默认逐个注册，注册中心可以覆盖为一次往返完成
+     *
+     * @param serviceMetaInfoList 服务元信息列表
+     */
+    default void registerBatch(List<ServiceMetaInfo> serviceMetaInfoList) throws Exception {
+        for (ServiceMetaInfo serviceMetaInfo : serviceMetaInfoList) {
+            register(serviceMetaInfo);
+        }
+    }
+
     /**
      * 注销服务（服务端）
      *
@@ -10,7 +10,7 @@ import com.shing.shingrpc.spi.SpiLoader;
 public class RegistryFactory {
 
     static {
-        SpiLoader.load(RegistryFactory.class);
+        SpiLoader.load(Registry.class);
     }
 
     /**
@@ -11,4 +11,8 @@ public interface RegistryKeys {
 
     String ZOOKEEPER = "zookeeper";
 
+    String MEMORY = "memory";
+
+    String FILE = "file";
+
 }
@@ -1,44 +1,271 @@
 package com.shing.shingrpc.registry;
 
+import cn.hutool.core.util.StrUtil;
 import com.shing.shingrpc.model.ServiceMetaInfo;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * 注册中心服务本地缓存类，用于缓存服务的元数据信息。
+ * 注册中心服务本地缓存类，按服务键名分别缓存服务节点。
+ * 每个服务对应一个不可变快照，读取时直接返回快照中的列表（O(1)、无锁）；
+ * 监听到节点变化时只增删单个节点，生成新快照替换旧快照，不影响其他服务。
+ * 开启快照文件后，还会保留每个服务最近一次的节点列表并定期落盘，
+ * 启动时加载，注册中心不可用时作为兜底数据。
  *
  * @author shing
  */
+@Slf4j
 public class RegistryServiceCache {
 
     /**
-     * 保存服务元数据信息的缓存列表。
+     * 快照文件合并写入的延迟（单位毫秒）
      */
-    List<ServiceMetaInfo> serviceCache;
+    private static final long FLUSH_DELAY_MILLIS = 1000;
 
     /**
-     * 将新的服务缓存写入本地缓存。
+     * 服务键名 => 服务节点快照
+     */
+    private final Map<String, Snapshot> serviceCache = new ConcurrentHashMap<>();
+
+    /**
+     * 服务键名 => 最近一次已知的服务节点（清除缓存后仍保留，用于兜底）
+     */
+    private final Map<String, List<ServiceMetaInfo>> lastKnownCache = new ConcurrentHashMap<>();
+
+    /**
+     * 快照文件，未开启时为 null
+     */
+    private volatile RegistrySnapshotFile snapshotFile;
+
+    /**
+     * 快照文件写入执行器
+     */
+    private volatile ScheduledExecutorService flushExecutor;
+
+    /**
+     * 是否已安排写入快照文件（多次变化合并为一次写入）
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * 服务节点快照（不可变）
+     */
+    static final class Snapshot {
+
+        /**
+         * 快照版本，每次变化加 1
+         */
+        final long version;
+
+        /**
+         * 生成快照的注册中心版本号（如 etcd revision），小于该值的事件视为过期；0 表示未知
+         */
+        final long revision;
+
+        /**
+         * 服务节点键名 => 服务节点
+         */
+        final Map<String, ServiceMetaInfo> nodes;
+
+        /**
+         * 服务节点列表（与 nodes 内容一致，供读取直接返回）
+         */
+        final List<ServiceMetaInfo> serviceMetaInfoList;
+
+        Snapshot(long version, long revision, Map<String, ServiceMetaInfo> nodes) {
+            this.version = version;
+            this.revision = revision;
+            this.nodes = Collections.unmodifiableMap(nodes);
+            this.serviceMetaInfoList = Collections.unmodifiableList(new ArrayList<>(nodes.values()));
+        }
+    }
+
+    /**
+     * 写入服务的全部节点（整体替换，用于首次查询或重新同步）。
      *
-     * @param newServiceCache 新的服务缓存列表，包含需要缓存的服务的元数据信息。
+     * @param serviceKey          服务键名
+     * @param serviceMetaInfoList 服务节点列表
+     * @param revision            注册中心版本号，未知时传 0
      */
-    void writeCache(List<ServiceMetaInfo> newServiceCache) {
-        this.serviceCache = newServiceCache;
+    void writeCache(String serviceKey, List<ServiceMetaInfo> serviceMetaInfoList, long revision) {
+        Map<String, ServiceMetaInfo> nodes = new LinkedHashMap<>();
+        for (ServiceMetaInfo serviceMetaInfo : serviceMetaInfoList) {
+            nodes.put(serviceMetaInfo.getServiceNodeKey(), serviceMetaInfo);
+        }
+        serviceCache.compute(serviceKey, (key, snapshot) -> {
+            if (snapshot != null && isStale(snapshot, revision)) {
+                return snapshot;
+            }
+            return changed(key, new Snapshot(snapshot == null ? 1 : snapshot.version + 1, revision, nodes));
+        });
     }
 
     /**
-     * 从本地缓存读取服务信息。
+     * 新增或更新单个节点。服务尚未缓存时忽略（首次查询时会拉取全部节点）。
      *
-     * @return 返回当前缓存中保存的所有服务的元数据信息列表。
+     * @param serviceMetaInfo 服务节点
+     * @param revision        事件的注册中心版本号，未知时传 0
      */
-    List<ServiceMetaInfo> readCache() {
-        return this.serviceCache;
+    void putNode(ServiceMetaInfo serviceMetaInfo, long revision) {
+        String serviceNodeKey = serviceMetaInfo.getServiceNodeKey();
+        serviceCache.computeIfPresent(serviceMetaInfo.getServiceKey(), (key, snapshot) -> {
+            if (isStale(snapshot, revision) || serviceMetaInfo.equals(snapshot.nodes.get(serviceNodeKey))) {
+                return snapshot;
+            }
+            Map<String, ServiceMetaInfo> nodes = new LinkedHashMap<>(snapshot.nodes);
+            nodes.put(serviceNodeKey, serviceMetaInfo);
+            return changed(key, new Snapshot(snapshot.version + 1, Math.max(snapshot.revision, revision), nodes));
+        });
     }
 
     /**
-     * 清空本地缓存，将服务缓存置为null。
+     * 移除单个节点
+     *
+     * @param serviceKey     服务键名
+     * @param serviceNodeKey 服务节点键名
+     * @param revision       事件的注册中心版本号，未知时传 0
+     */
+    void removeNode(String serviceKey, String serviceNodeKey, long revision) {
+        serviceCache.computeIfPresent(serviceKey, (key, snapshot) -> {
+            if (isStale(snapshot, revision) || !snapshot.nodes.containsKey(serviceNodeKey)) {
+                return snapshot;
+            }
+            Map<String, ServiceMetaInfo> nodes = new LinkedHashMap<>(snapshot.nodes);
+            nodes.remove(serviceNodeKey);
+            return changed(key, new Snapshot(snapshot.version + 1, Math.max(snapshot.revision, revision), nodes));
+        });
+    }
+
+    /**
+     * 从本地缓存读取服务节点。
+     *
+     * @param serviceKey 服务键名
+     * @return 服务节点列表（不可修改），未缓存时返回 null
+     */
+    List<ServiceMetaInfo> readCache(String serviceKey) {
+        Snapshot snapshot = serviceCache.get(serviceKey);
+        return snapshot == null ? null : snapshot.serviceMetaInfoList;
+    }
+
+    /**
+     * 读取服务最近一次已知的节点（包括从快照文件加载的），用于注册中心不可用时兜底。
+     *
+     * @param serviceKey 服务键名
+     * @return 服务节点列表（不可修改），没有时返回 null
+     */
+    List<ServiceMetaInfo> readLastKnown(String serviceKey) {
+        return lastKnownCache.get(serviceKey);
+    }
+
+    /**
+     * 开启快照文件：加载已有快照作为最近一次已知的节点，之后的变化会合并写回文件
+     *
+     * @param file     快照文件路径，为空时不开启
+     * @param registry 所属注册中心标识（类别@地址），与快照中记录的不一致时不加载
+     */
+    synchronized void enableSnapshot(String file, String registry) {
+        if (StrUtil.isBlank(file) || snapshotFile != null) {
+            return;
+        }
+        snapshotFile = new RegistrySnapshotFile(Paths.get(file), registry);
+        snapshotFile.load().forEach((serviceKey, serviceMetaInfoList) ->
+                lastKnownCache.putIfAbsent(serviceKey, Collections.unmodifiableList(new ArrayList<>(serviceMetaInfoList))));
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("shing-rpc-registry-snapshot", true));
+        log.info("已加载服务发现快照 {}，共 {} 个服务", file, lastKnownCache.size());
+    }
+
+    /**
+     * 立即将最近一次已知的节点写入快照文件，并停止定时写入（下线时调用）
+     */
+    synchronized void closeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        flushExecutor.shutdownNow();
+        flush();
+        snapshotFile = null;
+    }
+
+    /**
+     * 获取服务快照的版本，未缓存时返回 0
+     *
+     * @param serviceKey 服务键名
+     * @return 快照版本
+     */
+    long getVersion(String serviceKey) {
+        Snapshot snapshot = serviceCache.get(serviceKey);
+        return snapshot == null ? 0 : snapshot.version;
+    }
+
+    /**
+     * 清除单个服务的缓存
+     *
+     * @param serviceKey 服务键名
+     */
+    void clearCache(String serviceKey) {
+        serviceCache.remove(serviceKey);
+    }
+
+    /**
+     * 清空本地缓存。
      */
     void clearCache() {
-        this.serviceCache = null;
+        serviceCache.clear();
+    }
+
+    /**
+     * 记录服务的新快照为最近一次已知的节点，并安排写入快照文件
+     *
+     * @param serviceKey 服务键名
+     * @param snapshot   新快照
+     * @return 新快照
+     */
+    private Snapshot changed(String serviceKey, Snapshot snapshot) {
+        lastKnownCache.put(serviceKey, snapshot.serviceMetaInfoList);
+        ScheduledExecutorService executor = flushExecutor;
+        if (executor != null && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // 已下线，不再写入
+                flushScheduled.set(false);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 写入快照文件
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        RegistrySnapshotFile file = snapshotFile;
+        if (file == null) {
+            return;
+        }
+        try {
+            file.save(new TreeMap<>(lastKnownCache));
+        } catch (IOException e) {
+            log.warn("服务发现快照写入失败", e);
+        }
+    }
+
+    private static boolean isStale(Snapshot snapshot, long revision) {
+        return revision > 0 && revision < snapshot.revision;
     }
 
 }
@@ -0,0 +1,92 @@
+package com.shing.shingrpc.registry;
+
+import cn.hutool.core.lang.TypeReference;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务发现快照文件，保存最近一次获取到的各服务节点列表（服务键名 => 节点列表，JSON 格式）。
+ * 快照中记录所属的注册中心（类别和地址），切换注册中心后不会加载旧集群的节点。
+ * 写入时先写临时文件再原子替换，进程中途退出也不会留下半个文件。
+ *
+ * @author shing
+ */
+@Slf4j
+public class RegistrySnapshotFile {
+
+    private final Path path;
+
+    /**
+     * 所属注册中心标识（类别@地址）
+     */
+    private final String registry;
+
+    public RegistrySnapshotFile(Path path, String registry) {
+        this.path = path;
+        this.registry = registry;
+    }
+
+    /**
+     * 读取快照，文件不存在或内容损坏时返回空 Map
+     *
+     * @return 服务键名 => 节点列表
+     */
+    public Map<String, List<ServiceMetaInfo>> load() {
+        if (!Files.isRegularFile(path)) {
+            return Collections.emptyMap();
+        }
+        try {
+            JSONObject json = JSONUtil.parseObj(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            if (!registry.equals(json.getStr("registry"))) {
+                log.warn("服务发现快照属于其他注册中心 {}，忽略 {}", json.getStr("registry"), path);
+                return Collections.emptyMap();
+            }
+            Map<String, List<ServiceMetaInfo>> snapshot = json.getJSONObject("services").toBean(
+                    new TypeReference<Map<String, List<ServiceMetaInfo>>>() {
+                    });
+            return snapshot == null ? Collections.emptyMap() : snapshot;
+        } catch (Exception e) {
+            log.warn("服务发现快照读取失败，忽略 {}", path, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 原子写入快照
+     *
+     * @param snapshot 服务键名 => 节点列表
+     * @throws IOException 写入失败
+     */
+    public void save(Map<String, List<ServiceMetaInfo>> snapshot) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tempFile = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            JSONObject json = new JSONObject();
+            json.set("registry", registry);
+            json.set("services", snapshot);
+            Files.write(tempFile, json.toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.shing.shingrpc.registry;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 服务方法（分派表中的一项），在注册时解析并缓存方法签名，调用时不再反射查找。
+ * 注册时将方法转换为签名固定为 (Object, Object[])Object 的 MethodHandle，
+ * 并以 {@link ServiceMethodInvokerTemplate} 为模板生成一个持有该常量句柄的隐藏类作为调用器，
+ * 避免 Method#invoke 每次的访问检查和反射分派开销。
+ *
+ * @author shing
+ */
+@Slf4j
+@Getter
+public class ServiceMethod {
+
+    /**
+     * 调用器的统一签名：(实例, 参数数组) => 返回值
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * 调用器模板字节码，读取失败时为 null（退化为直接持有 MethodHandle）
+     */
+    private static final byte[] INVOKER_TEMPLATE = loadInvokerTemplate();
+
+    /**
+     * 方法
+     */
+    private final Method method;
+
+    /**
+     * 参数类型（缓存副本，避免 Method#getParameterTypes 每次复制数组）
+     */
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * 返回值类型
+     */
+    private final Class<?> returnType;
+
+    /**
+     * 直接调用器
+     */
+    @Getter(AccessLevel.NONE)
+    private final ServiceMethodInvoker invoker;
+
+    public ServiceMethod(Method method) {
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.returnType = method.getReturnType();
+        this.invoker = createInvoker(method);
+    }
+
+    /**
+     * 调用服务方法
+     *
+     * @param target 服务实例
+     * @param args   参数，无参方法可为 null
+     * @return 方法返回值（void 方法返回 null）
+     * @throws Throwable 服务方法抛出的原始异常（不会被包装为 InvocationTargetException）
+     */
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        return invoker.invoke(target, args);
+    }
+
+    /**
+     * 为方法生成调用器
+     *
+     * @param method 方法
+     * @return 调用器
+     */
+    private static ServiceMethodInvoker createInvoker(Method method) {
+        MethodHandle methodHandle = createMethodHandle(method);
+        if (INVOKER_TEMPLATE != null) {
+            try {
+                MethodHandles.Lookup invokerLookup = MethodHandles.lookup()
+                        .defineHiddenClassWithClassData(INVOKER_TEMPLATE, methodHandle, true);
+                return (ServiceMethodInvoker) invokerLookup
+                        .findConstructor(invokerLookup.lookupClass(), MethodType.methodType(void.class))
+                        .invoke();
+            } catch (Throwable e) {
+                log.warn("服务方法调用器生成失败，改用 MethodHandle 调用 {}", method, e);
+            }
+        }
+        return methodHandle::invokeExact;
+    }
+
+    /**
+     * 将方法转换为 (Object, Object[])Object 签名的 MethodHandle
+     *
+     * @param method 方法
+     * @return 方法句柄
+     */
+    private static MethodHandle createMethodHandle(Method method) {
+        // 非 public 的实现类（如内部类）需要先打开访问权限
+        method.trySetAccessible();
+        try {
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                // 静态方法忽略实例参数，保持统一签名
+                methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+            }
+            return methodHandle
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("服务方法调用器创建失败 " + method, e);
+        }
+    }
+
+    /**
+     * 读取调用器模板字节码
+     *
+     * @return 字节码，读取失败时返回 null
+     */
+    private static byte[] loadInvokerTemplate() {
+        String resource = ServiceMethodInvokerTemplate.class.getSimpleName() + ".class";
+        try (InputStream inputStream = ServiceMethod.class.getResourceAsStream(resource)) {
+            return inputStream == null ? null : inputStream.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
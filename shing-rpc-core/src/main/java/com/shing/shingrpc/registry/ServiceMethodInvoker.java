@@ -0,0 +1,20 @@
+package com.shing.shingrpc.registry;
+
+/**
+ * 服务方法调用器，由 {@link ServiceMethod} 在注册时为每个方法生成。
+ *
+ * @author shing
+ */
+@FunctionalInterface
+public interface ServiceMethodInvoker {
+
+    /**
+     * 调用服务方法
+     *
+     * @param target 服务实例
+     * @param args   参数，无参方法可为 null
+     * @return 方法返回值（void 方法返回 null）
+     * @throws Throwable 服务方法抛出的原始异常
+     */
+    Object invoke(Object target, Object[] args) throws Throwable;
+}
@@ -0,0 +1,30 @@
+package com.shing.shingrpc.registry;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 调用器模板，只作为隐藏类的字节码来源，不会被直接加载。
+ * {@link ServiceMethod} 以本类字节码为每个服务方法定义一个隐藏类，并把方法的 MethodHandle 作为类数据传入，
+ * 隐藏类中的 static final 字段对 JIT 而言是常量，invokeExact 可以被完全内联，调用开销接近直接调用。
+ *
+ * @author shing
+ */
+final class ServiceMethodInvokerTemplate implements ServiceMethodInvoker {
+
+    private static final MethodHandle METHOD_HANDLE;
+
+    static {
+        try {
+            METHOD_HANDLE = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        return METHOD_HANDLE.invokeExact(target, args);
+    }
+}
@@ -0,0 +1,24 @@
+package com.shing.shingrpc.registry;
+
+/**
+ * 服务实例作用域，决定服务端调用时使用哪个服务实现对象。
+ *
+ * @author shing
+ */
+public enum ServiceScope {
+
+    /**
+     * 单例：注册时创建一个实例，所有调用共享（服务实现需线程安全）
+     */
+    SINGLETON,
+
+    /**
+     * 原型：每次调用创建一个新实例
+     */
+    PROTOTYPE,
+
+    /**
+     * 池化：调用时从对象池借出实例，调用结束后归还，同一实例不会被并发使用
+     */
+    POOLED
+}
@@ -0,0 +1,51 @@
+package com.shing.shingrpc.registry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 相同 key 的并发请求合并为一次：第一个调用方执行加载，其余调用方共享同一个结果，加载完成后下一次调用重新执行。
+ * 用于服务发现缓存未命中时避免大量调用同时查询注册中心。
+ *
+ * @author shing
+ */
+class SingleFlight<V> {
+
+    /**
+     * 进行中的加载：key => 结果
+     */
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载，同一 key 已有进行中的加载时直接返回其结果
+     *
+     * @param key    键
+     * @param loader 加载方法（可以同步完成）
+     * @return 加载结果
+     */
+    CompletableFuture<V> execute(String key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<V> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((value, e) -> {
+            // 先移除再完成，等待方拿到结果后再次调用会重新加载
+            inFlight.remove(key, promise);
+            if (e != null) {
+                promise.completeExceptionally(e);
+            } else {
+                promise.complete(value);
+            }
+        });
+        return promise;
+    }
+}
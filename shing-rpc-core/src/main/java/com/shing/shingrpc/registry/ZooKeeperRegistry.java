@@ -2,22 +2,37 @@ package com.shing.shingrpc.registry;
 
 import com.shing.shingrpc.config.RegistryConfig;
 import com.shing.shingrpc.model.ServiceMetaInfo;
-import io.vertx.core.impl.ConcurrentHashSet;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
-import org.apache.curator.framework.recipes.cache.CuratorCache;
-import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.curator.x.discovery.ServiceCache;
 import org.apache.curator.x.discovery.ServiceDiscovery;
 import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
 import org.apache.curator.x.discovery.ServiceInstance;
 import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
+import org.apache.curator.x.discovery.details.ServiceCacheListener;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -43,15 +58,52 @@ public class ZooKeeperRegistry implements Registry {
      */
     private final Set<String> localRegisterNodeKeySet = new HashSet<>();
 
+    /**
+     * 批量注册的节点：节点路径 => 服务元信息。
+     * 这些节点不经过 ServiceDiscovery 创建，会话过期重连后由本类重新创建
+     */
+    private final Map<String, ServiceMetaInfo> batchRegisterNodeMap = new ConcurrentHashMap<>();
+
+    /**
+     * 服务实例序列化器（ServiceDiscovery 和批量注册共用，节点内容格式一致）
+     */
+    private final JsonInstanceSerializer<ServiceMetaInfo> instanceSerializer = new JsonInstanceSerializer<>(ServiceMetaInfo.class);
+
     /**
      * 注册中心服务缓存
      */
     private final RegistryServiceCache registryServiceCache = new RegistryServiceCache();
 
     /**
-     * 正在监听的 key 集合
+     * 已订阅的服务：服务键名 => Curator 服务缓存（ZooKeeper 推送节点变化，本地保存服务的全部实例）
+     */
+    private final Map<String, ServiceCache<ServiceMetaInfo>> serviceCacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * 本地缓存写入序号。订阅线程和监听回调都会写入缓存，序号在读取 ServiceCache 之前分配，
+     * 先读取的结果序号更小，晚于更新的结果写入时会被忽略，不会用旧的实例列表覆盖新的
+     */
+    private final AtomicLong refreshSequence = new AtomicLong();
+
+    /**
+     * 合并同一服务并发的订阅
+     */
+    private final SingleFlight<List<ServiceMetaInfo>> discoverySingleFlight = new SingleFlight<>();
+
+    /**
+     * 缓存未命中时是否先返回最近一次已知的节点并在后台订阅
+     */
+    private boolean staleWhileRevalidate;
+
+    /**
+     * 缓存未命中时等待注册中心查询的最长时间（单位毫秒），超时后使用最近一次已知的节点兜底
+     */
+    private long discoveryTimeout;
+
+    /**
+     * 订阅执行器（ServiceCache 启动时同步加载全部实例，放到后台执行，调用方可以选择不等待）
      */
-    private final Set<String> watchingKeySet = new ConcurrentHashSet<>();
+    private ExecutorService subscribeExecutor;
 
     /**
      * 根节点
@@ -78,9 +130,28 @@ public class ZooKeeperRegistry implements Registry {
         serviceDiscovery = ServiceDiscoveryBuilder.builder(ServiceMetaInfo.class)
                 .client(client) // Curator 客户端
                 .basePath(ZK_ROOT_PATH) // ZooKeeper 根路径
-                .serializer(new JsonInstanceSerializer<>(ServiceMetaInfo.class)) // 序列化器
+                .serializer(instanceSerializer) // 序列化器
                 .build();
 
+        staleWhileRevalidate = registryConfig.isStaleWhileRevalidate();
+        discoveryTimeout = registryConfig.getTimeout();
+        subscribeExecutor = Executors.newCachedThreadPool(new DefaultThreadFactory("shing-rpc-zk-subscribe", true));
+
+        // 加载服务发现快照，注册中心不可用时兜底
+        registryServiceCache.enableSnapshot(registryConfig.getSnapshotFile(),
+                registryConfig.getRegistry() + "@" + registryConfig.getAddress());
+
+        // 会话过期后临时节点会被删除，重连后重新创建批量注册的节点（会话未过期时节点仍在，跳过）
+        client.getConnectionStateListenable().addListener((curatorFramework, newState) -> {
+            if (newState == ConnectionState.RECONNECTED && !batchRegisterNodeMap.isEmpty()) {
+                createNodes(new ArrayList<>(batchRegisterNodeMap.values())).whenComplete((existing, e) -> {
+                    if (e != null) {
+                        log.error("重连后重新注册失败", e);
+                    }
+                });
+            }
+        });
+
         try {
             // 启动 Curator 客户端和服务发现实例
             client.start();
@@ -108,6 +179,80 @@ public class ZooKeeperRegistry implements Registry {
         localRegisterNodeKeySet.add(registerKey);
     }
 
+    /**
+     * 批量注册服务。
+     * ServiceDiscovery 只提供同步注册，这里使用 Curator 的异步（后台）接口一次性提交所有节点的创建请求，
+     * 请求在同一个连接上流水线发送，总耗时约为一次往返而不是 N 次，也不需要额外的线程。
+     *
+     * @param serviceMetaInfoList 服务元信息列表
+     * @throws Exception 任一服务注册失败
+     */
+    @Override
+    public void registerBatch(List<ServiceMetaInfo> serviceMetaInfoList) throws Exception {
+        if (serviceMetaInfoList.isEmpty()) {
+            return;
+        }
+        List<ServiceMetaInfo> existingList = createNodes(serviceMetaInfoList).get();
+        // 节点已存在（如上一个进程的会话尚未过期）：与 ServiceDiscovery 一致，删除后重新创建，使节点归属当前会话
+        for (ServiceMetaInfo serviceMetaInfo : existingList) {
+            String path = nodePath(serviceMetaInfo);
+            client.delete().quietly().forPath(path);
+            client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+                    .forPath(path, instanceSerializer.serialize(buildServiceInstance(serviceMetaInfo)));
+        }
+        for (ServiceMetaInfo serviceMetaInfo : serviceMetaInfoList) {
+            String path = nodePath(serviceMetaInfo);
+            batchRegisterNodeMap.put(path, serviceMetaInfo);
+            localRegisterNodeKeySet.add(path);
+        }
+    }
+
+    /**
+     * 异步创建服务实例节点（临时节点，父节点不存在时自动创建）
+     *
+     * @param serviceMetaInfoList 服务元信息列表
+     * @return 全部请求完成后返回已存在的节点，任一节点创建失败时异常完成
+     */
+    private CompletableFuture<List<ServiceMetaInfo>> createNodes(List<ServiceMetaInfo> serviceMetaInfoList) {
+        List<CompletableFuture<ServiceMetaInfo>> futures = new ArrayList<>(serviceMetaInfoList.size());
+        for (ServiceMetaInfo serviceMetaInfo : serviceMetaInfoList) {
+            CompletableFuture<ServiceMetaInfo> future = new CompletableFuture<>();
+            futures.add(future);
+            try {
+                client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL)
+                        .inBackground((curatorFramework, event) -> {
+                            KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                            if (code == KeeperException.Code.OK) {
+                                future.complete(null);
+                            } else if (code == KeeperException.Code.NODEEXISTS) {
+                                future.complete(serviceMetaInfo);
+                            } else {
+                                future.completeExceptionally(new RuntimeException(serviceMetaInfo.getServiceNodeKey() + " 注册失败",
+                                        KeeperException.create(code, event.getPath())));
+                            }
+                        })
+                        .forPath(nodePath(serviceMetaInfo), instanceSerializer.serialize(buildServiceInstance(serviceMetaInfo)));
+            } catch (Exception e) {
+                future.completeExceptionally(new RuntimeException(serviceMetaInfo.getServiceNodeKey() + " 注册失败", e));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * 服务实例节点路径，与 ServiceDiscovery 注册的路径一致：根节点/服务键名/实例 ID
+     *
+     * @param serviceMetaInfo 服务元信息
+     * @return 节点路径
+     */
+    private String nodePath(ServiceMetaInfo serviceMetaInfo) {
+        return ZKPaths.makePath(ZK_ROOT_PATH, serviceMetaInfo.getServiceNodeKey());
+    }
+
     /**
      * 取消注册指定的服务。
      * 该方法会将给定的服务元信息从服务发现机制中注销。
@@ -118,6 +263,17 @@ public class ZooKeeperRegistry implements Registry {
      */
     @Override
     public void unRegister(ServiceMetaInfo serviceMetaInfo) {
+        String path = nodePath(serviceMetaInfo);
+        if (batchRegisterNodeMap.remove(path) != null) {
+            // 批量注册的节点不在 ServiceDiscovery 中，直接删除
+            localRegisterNodeKeySet.remove(path);
+            try {
+                client.delete().quietly().forPath(path);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
         try {
             // 使用服务元信息构建服务实例，然后注销该服务实例
             serviceDiscovery.unregisterService(buildServiceInstance(serviceMetaInfo));
@@ -129,7 +285,10 @@ public class ZooKeeperRegistry implements Registry {
 
 
     /**
-     * 进行服务发现，优先从缓存中获取服务信息，如果缓存中不存在，则通过查询服务实例来获取，并更新缓存。
+     * 进行服务发现。每个服务首次发现时订阅一个 Curator ServiceCache，之后节点变化由 ZooKeeper 推送到本地缓存，
+     * 调用时直接读取本地缓存，不再访问 ZooKeeper。
+     * 与 etcd 注册中心一致：同一服务的并发订阅只执行一次；开启 staleWhileRevalidate 且有最近一次已知的节点
+     * （包括启动时从快照文件加载的）时，先返回它并在后台订阅；订阅失败或超时时使用最近一次已知的节点兜底。
      *
      * @param serviceKey 用于查询特定服务的关键字。
      * @return 返回一个服务元信息列表，包含多个服务的详细信息。
@@ -137,28 +296,94 @@ public class ZooKeeperRegistry implements Registry {
     @Override
     public List<ServiceMetaInfo> serviceDiscovery(String serviceKey) {
         // 优先从缓存中读取服务信息
-        List<ServiceMetaInfo> cachedServiceMetaInfoList = registryServiceCache.readCache();
+        List<ServiceMetaInfo> cachedServiceMetaInfoList = registryServiceCache.readCache(serviceKey);
         if (cachedServiceMetaInfoList != null) {
             return cachedServiceMetaInfoList;
         }
+        List<ServiceMetaInfo> lastKnownServiceMetaInfoList = registryServiceCache.readLastKnown(serviceKey);
+        // 同一服务的并发调用只订阅一次，其余调用等待并共享结果
+        CompletableFuture<List<ServiceMetaInfo>> serviceMetaInfoListFuture = discoverySingleFlight.execute(serviceKey,
+                () -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return subscribe(serviceKey);
+                    } catch (Exception e) {
+                        log.warn("订阅服务失败 {}", serviceKey, e);
+                        throw new CompletionException(e);
+                    }
+                }, subscribeExecutor));
+        // 有兜底数据时不阻塞调用，后台订阅（注册中心不可用时一直使用兜底数据，直到订阅成功）
+        if (staleWhileRevalidate && lastKnownServiceMetaInfoList != null) {
+            return lastKnownServiceMetaInfoList;
+        }
         try {
-            // 通过服务发现框架查询服务实例
-            Collection<ServiceInstance<ServiceMetaInfo>> serviceInstanceList = serviceDiscovery.queryForInstances(serviceKey);
-
-            // 将服务实例转换为服务元信息列表
-            List<ServiceMetaInfo> serviceMetaInfoList = serviceInstanceList.stream()
-                    .map(ServiceInstance::getPayload)
-                    .collect(Collectors.toList());
-
-            // 将获取到的服务信息写入缓存
-            registryServiceCache.writeCache(serviceMetaInfoList);
-            return serviceMetaInfoList;
+            // 注册中心不可用时客户端可能一直等待连接，这里限制等待时间
+            return serviceMetaInfoListFuture.get(discoveryTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (lastKnownServiceMetaInfoList != null) {
+                log.warn("获取服务列表超时，使用最近一次已知的节点 {}", serviceKey);
+                return lastKnownServiceMetaInfoList;
+            }
+            throw new RuntimeException("获取服务列表超时 " + serviceKey, e);
         } catch (Exception e) {
-            // 查询服务失败，抛出运行时异常
+            // 订阅失败，有最近一次已知的节点时使用它兜底，否则抛出运行时异常
+            if (lastKnownServiceMetaInfoList != null) {
+                log.warn("获取服务列表失败，使用最近一次已知的节点 {}", serviceKey, e);
+                return lastKnownServiceMetaInfoList;
+            }
             throw new RuntimeException("获取服务列表失败", e);
         }
     }
 
+    /**
+     * 订阅服务：启动该服务的 ServiceCache（首次加载全部实例），实例变化时整体替换本地缓存
+     *
+     * @param serviceKey 服务键名
+     * @return 服务节点列表
+     * @throws Exception 订阅失败
+     */
+    private List<ServiceMetaInfo> subscribe(String serviceKey) throws Exception {
+        ServiceCache<ServiceMetaInfo> serviceCache = serviceCacheMap.get(serviceKey);
+        if (serviceCache == null) {
+            serviceCache = serviceDiscovery.serviceCacheBuilder().name(serviceKey).build();
+            ServiceCache<ServiceMetaInfo> subscribedCache = serviceCache;
+            serviceCache.addListener(new ServiceCacheListener() {
+                @Override
+                public void cacheChanged() {
+                    refreshCache(serviceKey, subscribedCache);
+                }
+
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState) {
+                    // 连接断开期间继续使用本地缓存，重连后 ServiceCache 会重新同步并触发 cacheChanged
+                    log.info("服务 {} 的 ZooKeeper 连接状态 {}", serviceKey, newState);
+                }
+            });
+            try {
+                serviceCache.start();
+            } catch (Exception e) {
+                serviceCache.close();
+                throw e;
+            }
+            serviceCacheMap.put(serviceKey, serviceCache);
+        }
+        refreshCache(serviceKey, serviceCache);
+        return registryServiceCache.readCache(serviceKey);
+    }
+
+    /**
+     * 用 ServiceCache 中的实例替换服务的本地缓存（以写入序号为版本，过期的结果被忽略）
+     *
+     * @param serviceKey   服务键名
+     * @param serviceCache Curator 服务缓存
+     */
+    private void refreshCache(String serviceKey, ServiceCache<ServiceMetaInfo> serviceCache) {
+        long sequence = refreshSequence.incrementAndGet();
+        List<ServiceMetaInfo> serviceMetaInfoList = serviceCache.getInstances().stream()
+                .map(ServiceInstance::getPayload)
+                .collect(Collectors.toList());
+        registryServiceCache.writeCache(serviceKey, serviceMetaInfoList, sequence);
+    }
+
 
     @Override
     public void heartBeat() {
@@ -167,25 +392,13 @@ public class ZooKeeperRegistry implements Registry {
     }
 
     /**
-     * 监听（消费端）
+     * 监听（消费端），订阅服务节点所属的服务
      *
      * @param serviceNodeKey 服务节点 key
      */
     @Override
     public void watch(String serviceNodeKey) {
-        String watchKey = ZK_ROOT_PATH + "/" + serviceNodeKey;
-        boolean newWatch = watchingKeySet.add(watchKey);
-        if (newWatch) {
-            CuratorCache curatorCache = CuratorCache.build(client, watchKey);
-            curatorCache.start();
-            curatorCache.listenable().addListener(
-                    CuratorCacheListener
-                            .builder()
-                            .forDeletes(childData -> registryServiceCache.clearCache())
-                            .forChanges(((oldNode, node) -> registryServiceCache.clearCache()))
-                            .build()
-            );
-        }
+        serviceDiscovery(serviceNodeKey.substring(0, serviceNodeKey.lastIndexOf('/')));
     }
 
     /**
@@ -208,6 +421,22 @@ public class ZooKeeperRegistry implements Registry {
             }
         }
 
+        // 取消订阅
+        for (ServiceCache<ServiceMetaInfo> serviceCache : serviceCacheMap.values()) {
+            try {
+                serviceCache.close();
+            } catch (Exception e) {
+                log.warn("关闭服务缓存失败", e);
+            }
+        }
+        serviceCacheMap.clear();
+        if (subscribeExecutor != null) {
+            subscribeExecutor.shutdownNow();
+        }
+
+        // 保存服务发现快照
+        registryServiceCache.closeSnapshot();
+
         // 释放与注册中心的连接资源
         if (client != null) {
             client.close();
@@ -0,0 +1,48 @@
+package com.shing.shingrpc.serializer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ByteBuffer 的输入流视图，读取时不复制整个 buffer，也不改变原 buffer 的 position。
+ *
+ * @author shing
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int readLength = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, readLength);
+        return readLength;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipLength = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipLength);
+        return skipLength;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
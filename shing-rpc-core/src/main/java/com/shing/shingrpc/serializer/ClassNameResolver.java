@@ -0,0 +1,42 @@
+package com.shing.shingrpc.serializer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类名解析（带缓存），用于 JSON 序列化器还原 RpcRequest.parameterTypes 和 RpcResponse.dataType。
+ *
+ * @author shing
+ */
+public class ClassNameResolver {
+
+    private static final Map<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        for (Class<?> primitiveClass : new Class[]{boolean.class, byte.class, char.class, short.class,
+                int.class, long.class, float.class, double.class, void.class}) {
+            CLASS_CACHE.put(primitiveClass.getName(), primitiveClass);
+        }
+    }
+
+    /**
+     * 按类名获取类（支持基本类型和数组类型，如 int、[Ljava.lang.String;）
+     *
+     * @param className 类名（Class#getName 的结果）
+     * @return 类
+     */
+    public static Class<?> resolve(String className) {
+        Class<?> clazz = CLASS_CACHE.get(className);
+        if (clazz != null) {
+            return clazz;
+        }
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            clazz = Class.forName(className, false, classLoader != null ? classLoader : ClassNameResolver.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("类不存在 " + className, e);
+        }
+        CLASS_CACHE.put(className, clazz);
+        return clazz;
+    }
+}
@@ -0,0 +1,237 @@
+package com.shing.shingrpc.serializer;
+
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import com.shing.shingrpc.serializer.compact.CompactCodec;
+import com.shing.shingrpc.serializer.compact.CompactCodecs;
+import com.shing.shingrpc.serializer.compact.CompactInput;
+import com.shing.shingrpc.serializer.compact.CompactOutput;
+import com.shing.shingrpc.serializer.compact.CompactTypes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑二进制序列化器，面向内部服务，不追求自描述。
+ * 根据服务接口的参数类型和返回类型推导出按字段顺序排列的二进制格式：不写类名和字段名，整数使用变长编码，
+ * 编解码器按类型生成后缓存。RpcRequest 中只写服务名、方法名和同名方法中的序号，参数按方法签名依次写值；
+ * RpcResponse 的 dataType 写类型 ID。消费者和提供者需要使用相同版本的服务接口和 DTO 类。
+ *
+ * @author shing
+ */
+public class CompactSerializer implements Serializer {
+
+    /**
+     * 输出缓冲区初始大小
+     */
+    private static final int BUFFER_SIZE = 256;
+
+    /**
+     * 方法 => 参数编解码器
+     */
+    private static final Map<Method, CompactCodec<?>[]> PARAMETER_CODECS = new ConcurrentHashMap<>();
+
+    static {
+        CompactCodecs.registerCodec(RpcRequest.class, new RpcRequestCodec());
+        CompactCodecs.registerCodec(RpcResponse.class, new RpcResponseCodec());
+    }
+
+    @Override
+    public <T> byte[] serialize(T object) throws IOException {
+        if (object == null) {
+            return new byte[0];
+        }
+        CompactOutput output = new CompactOutput(BUFFER_SIZE);
+        write(output, object);
+        return output.toBytes();
+    }
+
+    @Override
+    public <T> void serialize(T object, OutputStream outputStream) throws IOException {
+        if (object == null) {
+            return;
+        }
+        CompactOutput output = new CompactOutput(BUFFER_SIZE, outputStream);
+        write(output, object);
+        output.flush();
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> type) throws IOException {
+        return deserialize(bytes, 0, bytes.length, type);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> type) throws IOException {
+        // 空内容表示 null
+        if (length == 0) {
+            return null;
+        }
+        CompactCodec<T> codec = CompactCodecs.getCodec(type);
+        return codec.read(new CompactInput(bytes, offset, length));
+    }
+
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> type) throws IOException {
+        byte[] bytes = inputStream.readAllBytes();
+        return deserialize(bytes, 0, bytes.length, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void write(CompactOutput output, T object) {
+        CompactCodec<T> codec = CompactCodecs.getCodec(object.getClass());
+        codec.write(output, object);
+    }
+
+    /**
+     * 获取方法参数的编解码器
+     *
+     * @param method 方法
+     * @return 参数编解码器
+     */
+    private static CompactCodec<?>[] getParameterCodecs(Method method) {
+        return PARAMETER_CODECS.computeIfAbsent(method, key -> {
+            Type[] parameterTypes = key.getGenericParameterTypes();
+            CompactCodec<?>[] codecs = new CompactCodec[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                codecs[i] = CompactCodecs.getNullableCodec(parameterTypes[i]);
+            }
+            return codecs;
+        });
+    }
+
+    /**
+     * 基本类型转为包装类型
+     *
+     * @param type 类型
+     * @return 包装类型
+     */
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        if (type == float.class) {
+            return Float.class;
+        }
+        if (type == short.class) {
+            return Short.class;
+        }
+        if (type == byte.class) {
+            return Byte.class;
+        }
+        if (type == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+
+    /**
+     * RpcRequest：服务名、版本、方法名、同名方法序号，然后按方法签名写参数值
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class RpcRequestCodec implements CompactCodec<RpcRequest> {
+
+        @Override
+        public void write(CompactOutput output, RpcRequest rpcRequest) {
+            String serviceName = rpcRequest.getServiceName();
+            String methodName = rpcRequest.getMethodName();
+            int overloadIndex = CompactTypes.getOverloadIndex(serviceName, methodName, rpcRequest.getParameterTypes());
+            output.writeString(serviceName);
+            output.writeString(rpcRequest.getServiceVersion());
+            output.writeString(methodName);
+            output.writeVarInt(overloadIndex);
+            Object[] args = rpcRequest.getArgs();
+            if (args == null) {
+                output.writeVarInt(0);
+                return;
+            }
+            CompactCodec[] codecs = getParameterCodecs(CompactTypes.getMethod(serviceName, methodName, overloadIndex));
+            if (args.length != codecs.length) {
+                throw new RuntimeException("参数个数与方法签名不一致 " + serviceName + "#" + methodName);
+            }
+            output.writeVarInt(args.length + 1);
+            for (int i = 0; i < args.length; i++) {
+                codecs[i].write(output, args[i]);
+            }
+        }
+
+        @Override
+        public RpcRequest read(CompactInput input) {
+            RpcRequest rpcRequest = new RpcRequest();
+            rpcRequest.setServiceName(input.readString());
+            rpcRequest.setServiceVersion(input.readString());
+            rpcRequest.setMethodName(input.readString());
+            Method method = CompactTypes.getMethod(rpcRequest.getServiceName(), rpcRequest.getMethodName(), input.readVarInt());
+            rpcRequest.setParameterTypes(method.getParameterTypes());
+            int length = input.readVarInt() - 1;
+            if (length < 0) {
+                return rpcRequest;
+            }
+            CompactCodec[] codecs = getParameterCodecs(method);
+            if (length != codecs.length) {
+                throw new RuntimeException("参数个数与方法签名不一致 " + rpcRequest.getServiceName() + "#" + rpcRequest.getMethodName());
+            }
+            Object[] args = new Object[length];
+            for (int i = 0; i < length; i++) {
+                args[i] = codecs[i].read(input);
+            }
+            rpcRequest.setArgs(args);
+            return rpcRequest;
+        }
+    }
+
+    /**
+     * RpcResponse：dataType 类型引用，然后按 dataType 写 data，最后是 message 和 exception
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class RpcResponseCodec implements CompactCodec<RpcResponse> {
+
+        private static final CompactCodec EXCEPTION_CODEC = CompactCodecs.getNullableCodec(Exception.class);
+
+        @Override
+        public void write(CompactOutput output, RpcResponse rpcResponse) {
+            Class<?> dataType = rpcResponse.getDataType();
+            Object data = rpcResponse.getData();
+            // 实际值与声明类型不一致时以实际类型为准
+            if (data != null && (dataType == null || !boxed(dataType).isInstance(data))) {
+                dataType = data.getClass();
+            }
+            CompactTypes.writeType(output, dataType);
+            getDataCodec(dataType).write(output, data);
+            output.writeString(rpcResponse.getMessage());
+            EXCEPTION_CODEC.write(output, rpcResponse.getException());
+        }
+
+        @Override
+        public RpcResponse read(CompactInput input) {
+            RpcResponse rpcResponse = new RpcResponse();
+            Class<?> dataType = CompactTypes.readType(input);
+            rpcResponse.setDataType(dataType);
+            rpcResponse.setData(getDataCodec(dataType).read(input));
+            rpcResponse.setMessage(input.readString());
+            rpcResponse.setException((Exception) EXCEPTION_CODEC.read(input));
+            return rpcResponse;
+        }
+
+        private static CompactCodec getDataCodec(Class<?> dataType) {
+            return CompactCodecs.getNullableCodec(dataType == null || dataType == void.class ? Object.class : boxed(dataType));
+        }
+    }
+}
@@ -1,18 +1,70 @@
 package com.shing.shingrpc.serializer;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.ObjectSerializer;
+import com.alibaba.fastjson.serializer.SerializeConfig;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Fastjson JSON 序列化器
  * 实现了Serializer接口，使用阿里巴巴的Fastjson库进行对象的序列化和反序列化操作。
+ * 直接读写 UTF-8 字节，不经过中间字符串；RpcRequest / RpcResponse 使用自定义编解码器，
+ * 先写类型（parameterTypes / dataType）再写值，解析时 args、data 直接按声明的类型一次解析完成。
  *
  * @author shing
  */
 public class FastjsonSerializer implements Serializer {
+
     /**
-     * 将对象序列化为JSON字节数组
+     * 独立的序列化配置（不修改 Fastjson 全局配置）
+     */
+    private static final SerializeConfig SERIALIZE_CONFIG = new SerializeConfig();
+
+    /**
+     * 独立的解析配置（不修改 Fastjson 全局配置）
+     */
+    private static final ParserConfig PARSER_CONFIG = new ParserConfig();
+
+    /**
+     * 类名校验配置：只用于按 Fastjson 的 autoType 黑名单检查报文中的类名（parameterTypes / dataType），
+     * 不用于解析，报文中的 @type 仍然不会被识别
+     */
+    private static final ParserConfig TYPE_CHECK_CONFIG = new ParserConfig();
+
+    /**
+     * 已校验的类名 => 类
+     */
+    private static final Map<String, Class<?>> CHECKED_CLASS_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        SERIALIZE_CONFIG.put(RpcRequest.class, new RpcRequestCodec());
+        SERIALIZE_CONFIG.put(RpcResponse.class, new RpcResponseCodec());
+        PARSER_CONFIG.putDeserializer(RpcRequest.class, new RpcRequestCodec());
+        PARSER_CONFIG.putDeserializer(RpcResponse.class, new RpcResponseCodec());
+        TYPE_CHECK_CONFIG.setAutoTypeSupport(true);
+    }
+
+    /**
+     * 将对象序列化为JSON字节数组（UTF-8）
      *
      * @param object 需要被序列化的对象
      * @return 序列化后的JSON字节数组
@@ -20,8 +72,19 @@ public class FastjsonSerializer implements Serializer {
      */
     @Override
     public <T> byte[] serialize(T object) throws IOException {
-        String jsonStr = JSON.toJSONString(object); // 使用Fastjson将对象转换为JSON字符串
-        return jsonStr.getBytes(); // 将JSON字符串转换为字节数组
+        return JSON.toJSONBytes(object, SERIALIZE_CONFIG);
+    }
+
+    /**
+     * 将对象序列化为JSON并直接写入输出流（UTF-8）
+     *
+     * @param object       需要被序列化的对象
+     * @param outputStream 输出流
+     * @throws IOException 如果序列化过程中发生错误，则抛出IOException
+     */
+    @Override
+    public <T> void serialize(T object, OutputStream outputStream) throws IOException {
+        JSON.writeJSONString(outputStream, StandardCharsets.UTF_8, object, SERIALIZE_CONFIG, null, null, JSON.DEFAULT_GENERATE_FEATURE);
     }
 
     /**
@@ -34,6 +97,297 @@ public class FastjsonSerializer implements Serializer {
      */
     @Override
     public <T> T deserialize(byte[] bytes, Class<T> type) throws IOException {
-        return JSON.parseObject(new String(bytes), type); // 将字节数组转换为JSON字符串，然后反序列化为指定类型
+        return deserialize(bytes, 0, bytes.length, type);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> type) throws IOException {
+        // 直接解析数组区间（UTF-8），不复制
+        return JSON.parseObject(bytes, offset, length, StandardCharsets.UTF_8, type, PARSER_CONFIG, null, JSON.DEFAULT_PARSER_FEATURE);
+    }
+
+    /**
+     * 从输入流读取JSON并反序列化为对象
+     *
+     * @param inputStream 输入流
+     * @param type        预期反序列化结果的类型
+     * @return 反序列化后的对象实例
+     * @throws IOException 如果反序列化过程中发生错误，则抛出IOException
+     */
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> type) throws IOException {
+        return JSON.parseObject(inputStream, StandardCharsets.UTF_8, type, PARSER_CONFIG);
+    }
+
+    /**
+     * 读取对象的下一个字段名，返回 null 表示对象结束
+     *
+     * @param lexer 词法分析器
+     * @return 字段名
+     */
+    private static String nextFieldName(JSONLexer lexer) {
+        if (lexer.token() == JSONToken.COMMA) {
+            lexer.nextToken(JSONToken.LITERAL_STRING);
+        }
+        if (lexer.token() == JSONToken.RBRACE) {
+            lexer.nextToken(JSONToken.COMMA);
+            return null;
+        }
+        if (lexer.token() != JSONToken.LITERAL_STRING) {
+            throw new JSONException("解析失败，期望字段名，实际为 " + JSONToken.name(lexer.token()));
+        }
+        String fieldName = lexer.stringVal();
+        lexer.nextTokenWithColon();
+        return fieldName;
+    }
+
+    /**
+     * 开始解析对象，返回 false 表示值为 null
+     *
+     * @param lexer 词法分析器
+     * @return 是否为对象
+     */
+    private static boolean startObject(JSONLexer lexer) {
+        if (lexer.token() == JSONToken.NULL) {
+            lexer.nextToken(JSONToken.COMMA);
+            return false;
+        }
+        if (lexer.token() != JSONToken.LBRACE) {
+            throw new JSONException("解析失败，期望 {，实际为 " + JSONToken.name(lexer.token()));
+        }
+        lexer.nextToken(JSONToken.LITERAL_STRING);
+        return true;
+    }
+
+    /**
+     * 读取类名数组
+     *
+     * @param parser 解析器
+     * @return 类数组
+     */
+    private static Class<?>[] readClasses(DefaultJSONParser parser) {
+        String[] classNames = parser.parseObject(String[].class);
+        if (classNames == null) {
+            return null;
+        }
+        Class<?>[] classes = new Class[classNames.length];
+        for (int i = 0; i < classNames.length; i++) {
+            classes[i] = resolveClass(classNames[i]);
+        }
+        return classes;
+    }
+
+    /**
+     * 解析报文中的类名。按类型解析会创建该类型的对象并调用其 setter，
+     * 所以先用 Fastjson 的 autoType 黑名单校验（数组校验其元素类型），命中时抛出 JSONException。
+     *
+     * @param className 类名（Class#getName 的结果）
+     * @return 类
+     */
+    static Class<?> resolveClass(String className) {
+        Class<?> clazz = CHECKED_CLASS_CACHE.get(className);
+        if (clazz != null) {
+            return clazz;
+        }
+        clazz = ClassNameResolver.resolve(className);
+        Class<?> componentType = clazz;
+        while (componentType.isArray()) {
+            componentType = componentType.getComponentType();
+        }
+        if (!componentType.isPrimitive()) {
+            TYPE_CHECK_CONFIG.checkAutoType(componentType.getName(), null, 0);
+        }
+        CHECKED_CLASS_CACHE.put(className, clazz);
+        return clazz;
+    }
+
+    /**
+     * RpcRequest 编解码器：固定字段顺序，args 直接按 parameterTypes 解析。
+     */
+    private static class RpcRequestCodec implements ObjectSerializer, ObjectDeserializer {
+
+        @Override
+        public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) throws IOException {
+            SerializeWriter out = serializer.out;
+            if (object == null) {
+                out.writeNull();
+                return;
+            }
+            RpcRequest rpcRequest = (RpcRequest) object;
+            out.write('{');
+            out.writeFieldName("serviceName");
+            serializer.write(rpcRequest.getServiceName());
+            out.write(',');
+            out.writeFieldName("methodName");
+            serializer.write(rpcRequest.getMethodName());
+            out.write(',');
+            out.writeFieldName("serviceVersion");
+            serializer.write(rpcRequest.getServiceVersion());
+            out.write(',');
+            out.writeFieldName("parameterTypes");
+            writeClasses(out, rpcRequest.getParameterTypes());
+            out.write(',');
+            out.writeFieldName("args");
+            Object[] args = rpcRequest.getArgs();
+            if (args == null) {
+                out.writeNull();
+            } else {
+                out.write('[');
+                for (int i = 0; i < args.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    serializer.write(args[i]);
+                }
+                out.write(']');
+            }
+            out.write('}');
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+            JSONLexer lexer = parser.lexer;
+            if (!startObject(lexer)) {
+                return null;
+            }
+            RpcRequest rpcRequest = new RpcRequest();
+            // 兼容 args 出现在 parameterTypes 之前的情况，先按 JSON 解析，类型就绪后再转换
+            JSONArray pendingArgs = null;
+            for (String name = nextFieldName(lexer); name != null; name = nextFieldName(lexer)) {
+                switch (name) {
+                    case "serviceName":
+                        rpcRequest.setServiceName(parser.parseObject(String.class));
+                        break;
+                    case "methodName":
+                        rpcRequest.setMethodName(parser.parseObject(String.class));
+                        break;
+                    case "serviceVersion":
+                        rpcRequest.setServiceVersion(parser.parseObject(String.class));
+                        break;
+                    case "parameterTypes":
+                        rpcRequest.setParameterTypes(readClasses(parser));
+                        break;
+                    case "args":
+                        if (rpcRequest.getParameterTypes() != null) {
+                            rpcRequest.setArgs(parser.parseArray(rpcRequest.getParameterTypes()));
+                        } else {
+                            pendingArgs = parser.parseObject(JSONArray.class);
+                        }
+                        break;
+                    default:
+                        parser.parse();
+                }
+            }
+            if (pendingArgs != null) {
+                Class<?>[] parameterTypes = rpcRequest.getParameterTypes();
+                Object[] args = new Object[pendingArgs.size()];
+                for (int i = 0; i < args.length; i++) {
+                    Type argType = parameterTypes != null && i < parameterTypes.length ? parameterTypes[i] : Object.class;
+                    args[i] = TypeUtils.cast(pendingArgs.get(i), argType, PARSER_CONFIG);
+                }
+                rpcRequest.setArgs(args);
+            }
+            return (T) rpcRequest;
+        }
+
+        @Override
+        public int getFastMatchToken() {
+            return JSONToken.LBRACE;
+        }
+
+        private static void writeClasses(SerializeWriter out, Class<?>[] classes) {
+            if (classes == null) {
+                out.writeNull();
+                return;
+            }
+            out.write('[');
+            for (int i = 0; i < classes.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.writeString(classes[i].getName());
+            }
+            out.write(']');
+        }
+    }
+
+    /**
+     * RpcResponse 编解码器：固定字段顺序，data 直接按 dataType 解析。
+     */
+    private static class RpcResponseCodec implements ObjectSerializer, ObjectDeserializer {
+
+        @Override
+        public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) throws IOException {
+            SerializeWriter out = serializer.out;
+            if (object == null) {
+                out.writeNull();
+                return;
+            }
+            RpcResponse rpcResponse = (RpcResponse) object;
+            out.write('{');
+            out.writeFieldName("dataType");
+            if (rpcResponse.getDataType() == null) {
+                out.writeNull();
+            } else {
+                out.writeString(rpcResponse.getDataType().getName());
+            }
+            out.write(',');
+            out.writeFieldName("data");
+            serializer.write(rpcResponse.getData());
+            out.write(',');
+            out.writeFieldName("message");
+            serializer.write(rpcResponse.getMessage());
+            out.write(',');
+            out.writeFieldName("exception");
+            serializer.write(rpcResponse.getException());
+            out.write('}');
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+            JSONLexer lexer = parser.lexer;
+            if (!startObject(lexer)) {
+                return null;
+            }
+            RpcResponse rpcResponse = new RpcResponse();
+            Object pendingData = null;
+            for (String name = nextFieldName(lexer); name != null; name = nextFieldName(lexer)) {
+                switch (name) {
+                    case "dataType":
+                        String dataType = parser.parseObject(String.class);
+                        rpcResponse.setDataType(dataType == null ? null : resolveClass(dataType));
+                        break;
+                    case "data":
+                        // void 方法没有可用的类型，按 JSON 原样解析
+                        if (rpcResponse.getDataType() != null && rpcResponse.getDataType() != void.class) {
+                            rpcResponse.setData(parser.parseObject(rpcResponse.getDataType()));
+                        } else {
+                            pendingData = parser.parse();
+                        }
+                        break;
+                    case "message":
+                        rpcResponse.setMessage(parser.parseObject(String.class));
+                        break;
+                    case "exception":
+                        rpcResponse.setException(parser.parseObject(Exception.class));
+                        break;
+                    default:
+                        parser.parse();
+                }
+            }
+            if (pendingData != null) {
+                Class<?> dataType = rpcResponse.getDataType();
+                rpcResponse.setData(dataType == null || dataType == void.class
+                        ? pendingData : TypeUtils.cast(pendingData, dataType, PARSER_CONFIG));
+            }
+            return (T) rpcResponse;
+        }
+
+        @Override
+        public int getFastMatchToken() {
+            return JSONToken.LBRACE;
+        }
     }
 }
@@ -0,0 +1,125 @@
+package com.shing.shingrpc.serializer;
+
+import com.caucho.hessian.io.Hessian2Input;
+import com.caucho.hessian.io.Hessian2Output;
+import com.caucho.hessian.io.SerializerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Hessian2 序列化器
+ * 使用 Hessian 2.0 协议（比 Hessian 1 更紧凑，可跨语言），所有调用共享一个 SerializerFactory（缓存各类型的序列化器），
+ * Hessian2Output / Hessian2Input 及其内部缓冲区放在有界队列中复用（池空时新建，池满时丢弃），
+ * 大量业务线程或虚拟线程调用时不会每个线程各持有一份。
+ *
+ * @author shing
+ */
+public class Hessian2Serializer implements Serializer {
+
+    /**
+     * 共享的序列化器工厂（线程安全）
+     */
+    private static final SerializerFactory SERIALIZER_FACTORY = new SerializerFactory();
+
+    /**
+     * 池中最多保留的输出流 / 输入流个数
+     */
+    private static final int POOL_SIZE = 64;
+
+    /**
+     * 输出流池
+     */
+    private static final BlockingQueue<Hessian2Output> OUTPUT_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * 输入流池
+     */
+    private static final BlockingQueue<Hessian2Input> INPUT_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * 序列化对象为字节数组
+     *
+     * @param object 需要被序列化的对象
+     * @return object 的字节表示
+     * @throws IOException 如果序列化过程中发生IO错误
+     */
+    @Override
+    public <T> byte[] serialize(T object) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serialize(object, bos);
+        return bos.toByteArray();
+    }
+
+    /**
+     * 序列化对象并直接写入输出流
+     *
+     * @param object       需要被序列化的对象
+     * @param outputStream 输出流
+     * @throws IOException 如果序列化过程中发生IO错误
+     */
+    @Override
+    public <T> void serialize(T object, OutputStream outputStream) throws IOException {
+        Hessian2Output output = OUTPUT_POOL.poll();
+        if (output == null) {
+            output = new Hessian2Output(null);
+            output.setSerializerFactory(SERIALIZER_FACTORY);
+        }
+        // init 会重置引用表和类定义，每条消息都是独立的
+        output.init(outputStream);
+        try {
+            output.writeObject(object);
+            output.flush();
+        } finally {
+            output.init(null);
+            OUTPUT_POOL.offer(output);
+        }
+    }
+
+    /**
+     * 反序列化字节数组为对象
+     *
+     * @param bytes  待反序列化的字节数组
+     * @param tClass 需要反序列化的对象类型
+     * @return 反序列化后的对象
+     * @throws IOException 如果反序列化过程中发生IO错误
+     */
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> tClass) throws IOException {
+        return deserialize(bytes, 0, bytes.length, tClass);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> tClass) throws IOException {
+        return deserialize(new ByteArrayInputStream(bytes, offset, length), tClass);
+    }
+
+    /**
+     * 从输入流反序列化对象
+     *
+     * @param inputStream 输入流
+     * @param tClass      需要反序列化的对象类型
+     * @return 反序列化后的对象
+     * @throws IOException 如果反序列化过程中发生IO错误
+     */
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> tClass) throws IOException {
+        Hessian2Input input = INPUT_POOL.poll();
+        if (input == null) {
+            input = new Hessian2Input(null);
+            input.setSerializerFactory(SERIALIZER_FACTORY);
+        }
+        input.init(inputStream);
+        try {
+            return (T) input.readObject(tClass);
+        } finally {
+            input.init(null);
+            INPUT_POOL.offer(input);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.caucho.hessian.io.HessianOutput;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Hessian 序列化器
@@ -24,12 +26,25 @@ public class HessianSerializer implements Serializer {
     @Override
     public <T> byte[] serialize(T object) throws IOException {
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        HessianOutput ho = new HessianOutput(bos);
-        ho.writeObject(object);
+        serialize(object, bos);
         // 将对象写入字节数组输出流后，返回其字节表示
         return bos.toByteArray();
     }
 
+    /**
+     * 序列化对象并直接写入输出流
+     *
+     * @param object       需要被序列化的对象
+     * @param outputStream 输出流
+     * @throws IOException 如果序列化过程中发生IO错误
+     */
+    @Override
+    public <T> void serialize(T object, OutputStream outputStream) throws IOException {
+        HessianOutput ho = new HessianOutput(outputStream);
+        ho.writeObject(object);
+        ho.flush();
+    }
+
     /**
      * 反序列化字节数组为对象
      *
@@ -40,9 +55,26 @@ public class HessianSerializer implements Serializer {
      */
     @Override
     public <T> T deserialize(byte[] bytes, Class<T> tClass) throws IOException {
-        ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
-        HessianInput hi = new HessianInput(bis);
-        // 从字节数组输入流中读取对象，返回反序列化后的实例
+        return deserialize(bytes, 0, bytes.length, tClass);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> tClass) throws IOException {
+        return deserialize(new ByteArrayInputStream(bytes, offset, length), tClass);
+    }
+
+    /**
+     * 从输入流反序列化对象
+     *
+     * @param inputStream 输入流
+     * @param tClass      需要反序列化的对象类型
+     * @return 反序列化后的对象
+     * @throws IOException 如果反序列化过程中发生IO错误
+     */
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> tClass) throws IOException {
+        HessianInput hi = new HessianInput(inputStream);
+        // 从输入流中读取对象，返回反序列化后的实例
         return (T) hi.readObject(tClass);
     }
 }
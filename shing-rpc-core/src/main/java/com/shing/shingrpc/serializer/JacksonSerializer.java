@@ -1,21 +1,48 @@
 package com.shing.shingrpc.serializer;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.shing.shingrpc.model.RpcRequest;
 import com.shing.shingrpc.model.RpcResponse;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
  * Jackson JSON 序列化器
  * 提供序列化和反序列化方法，用于将对象转换为JSON字节数据和从JSON字节数据中还原对象。
+ * RpcRequest / RpcResponse 使用自定义的序列化器：先写类型（parameterTypes / dataType）再写值，
+ * 反序列化时一遍流式解析即可把 args、data 直接解析为声明的类型，不需要二次序列化转换。
  *
  * @author shing
  */
 public class JacksonSerializer implements Serializer {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    static {
+        // 流由调用方管理（如编解码器中的网络 buffer），读写完成后不关闭
+        OBJECT_MAPPER.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        OBJECT_MAPPER.getFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        SimpleModule rpcModule = new SimpleModule("shing-rpc");
+        rpcModule.addSerializer(RpcRequest.class, new RpcRequestSerializer());
+        rpcModule.addDeserializer(RpcRequest.class, new RpcRequestDeserializer());
+        rpcModule.addSerializer(RpcResponse.class, new RpcResponseSerializer());
+        rpcModule.addDeserializer(RpcResponse.class, new RpcResponseDeserializer());
+        OBJECT_MAPPER.registerModule(rpcModule);
+    }
+
     /**
      * 序列化对象为JSON字节数据。
      *
@@ -29,9 +56,21 @@ public class JacksonSerializer implements Serializer {
         return OBJECT_MAPPER.writeValueAsBytes(obj);
     }
 
+    /**
+     * 序列化对象为JSON并直接写入输出流。
+     *
+     * @param obj          需要被序列化的对象。
+     * @param outputStream 输出流。
+     * @param <T>          对象的类型。
+     * @throws IOException 如果序列化过程中发生错误。
+     */
+    @Override
+    public <T> void serialize(T obj, OutputStream outputStream) throws IOException {
+        OBJECT_MAPPER.writeValue(outputStream, obj);
+    }
+
     /**
      * 反序列化JSON字节数据为对象。
-     * 对于特定类型（RpcRequest, RpcResponse）的对象进行额外处理。
      *
      * @param bytes     JSON字节数据。
      * @param classType 需要反序列化的对象类型。
@@ -41,59 +80,215 @@ public class JacksonSerializer implements Serializer {
      */
     @Override
     public <T> T deserialize(byte[] bytes, Class<T> classType) throws IOException {
-        T obj = OBJECT_MAPPER.readValue(bytes, classType);
-        if (obj instanceof RpcRequest) {
-            // 对RpcRequest特殊处理，解决对象擦除问题
-            return handleRequest((RpcRequest) obj, classType);
+        return deserialize(bytes, 0, bytes.length, classType);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> classType) throws IOException {
+        return OBJECT_MAPPER.readValue(bytes, offset, length, classType);
+    }
+
+    /**
+     * 从输入流读取JSON并反序列化为对象。
+     *
+     * @param inputStream 输入流。
+     * @param classType   需要反序列化的对象类型。
+     * @param <T>         对象的类型。
+     * @return 反序列化后的对象。
+     * @throws IOException 如果反序列化过程中发生错误。
+     */
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> classType) throws IOException {
+        return OBJECT_MAPPER.readValue(inputStream, classType);
+    }
+
+    /**
+     * RpcRequest 序列化：固定字段顺序，parameterTypes 写在 args 之前。
+     */
+    private static class RpcRequestSerializer extends StdSerializer<RpcRequest> {
+
+        RpcRequestSerializer() {
+            super(RpcRequest.class);
         }
-        if (obj instanceof RpcResponse) {
-            // 对RpcResponse特殊处理，解决对象擦除问题
-            return handleResponse((RpcResponse) obj, classType);
+
+        @Override
+        public void serialize(RpcRequest rpcRequest, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("serviceName", rpcRequest.getServiceName());
+            gen.writeStringField("methodName", rpcRequest.getMethodName());
+            gen.writeStringField("serviceVersion", rpcRequest.getServiceVersion());
+            Class<?>[] parameterTypes = rpcRequest.getParameterTypes();
+            if (parameterTypes != null) {
+                gen.writeArrayFieldStart("parameterTypes");
+                for (Class<?> parameterType : parameterTypes) {
+                    gen.writeString(parameterType.getName());
+                }
+                gen.writeEndArray();
+            }
+            Object[] args = rpcRequest.getArgs();
+            if (args != null) {
+                gen.writeArrayFieldStart("args");
+                for (Object arg : args) {
+                    provider.defaultSerializeValue(arg, gen);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
         }
-        return obj;
     }
 
     /**
-     * RpcRequest反序列化特殊处理函数。
-     * 由于Java对象擦除，反序列化时可能无法正确恢复原始类型。此方法对RpcRequest内的参数进行重新处理，
-     * 确保类型正确无误。
-     *
-     * @param rpcRequest rpc 请求对象。
-     * @param type       需要转换的目标类型。
-     * @param <T>        类型参数。
-     * @return 处理后的RpcRequest对象。
-     * @throws IOException 如果处理过程中发生序列化或反序列化错误。
+     * RpcRequest 反序列化：args 中的每个参数直接按 parameterTypes 中对应的类型解析。
      */
-    private <T> T handleRequest(RpcRequest rpcRequest, Class<T> type) throws IOException {
-        Class<?>[] parameterTypes = rpcRequest.getParameterTypes();
-        Object[] args = rpcRequest.getArgs();
-
-        // 循环检查并重新处理每个参数的类型，确保类型匹配
-        for (int i = 0; i < parameterTypes.length; i++) {
-            Class<?> clazz = parameterTypes[i];
-            // 如果参数类型不匹配，则重新进行类型转换
-            if (!type.isAssignableFrom(args[i].getClass())) {
-                byte[] argBytes = OBJECT_MAPPER.writeValueAsBytes(args[i]);
-                args[i] = OBJECT_MAPPER.readValue(argBytes, type);
+    private static class RpcRequestDeserializer extends StdDeserializer<RpcRequest> {
+
+        RpcRequestDeserializer() {
+            super(RpcRequest.class);
+        }
+
+        @Override
+        public RpcRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            RpcRequest rpcRequest = new RpcRequest();
+            // 兼容 args 出现在 parameterTypes 之前的情况（如其他语言的客户端），先缓存等类型就绪后再解析
+            TokenBuffer pendingArgs = null;
+            for (String fieldName = p.nextFieldName(); fieldName != null; fieldName = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                switch (fieldName) {
+                    case "serviceName":
+                        rpcRequest.setServiceName(p.getValueAsString());
+                        break;
+                    case "methodName":
+                        rpcRequest.setMethodName(p.getValueAsString());
+                        break;
+                    case "serviceVersion":
+                        rpcRequest.setServiceVersion(p.getValueAsString());
+                        break;
+                    case "parameterTypes":
+                        rpcRequest.setParameterTypes(token == JsonToken.VALUE_NULL ? null : readParameterTypes(p));
+                        break;
+                    case "args":
+                        if (token == JsonToken.VALUE_NULL) {
+                            rpcRequest.setArgs(null);
+                        } else if (rpcRequest.getParameterTypes() != null) {
+                            rpcRequest.setArgs(readArgs(p, ctxt, rpcRequest.getParameterTypes()));
+                        } else {
+                            pendingArgs = ctxt.bufferAsCopyOfValue(p);
+                        }
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            if (pendingArgs != null) {
+                try (JsonParser argsParser = pendingArgs.asParser(p.getCodec())) {
+                    argsParser.nextToken();
+                    Class<?>[] parameterTypes = rpcRequest.getParameterTypes() != null ? rpcRequest.getParameterTypes() : new Class[0];
+                    rpcRequest.setArgs(readArgs(argsParser, ctxt, parameterTypes));
+                }
             }
+            return rpcRequest;
+        }
+
+        private static Class<?>[] readParameterTypes(JsonParser p) throws IOException {
+            List<Class<?>> parameterTypes = new ArrayList<>();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                parameterTypes.add(ClassNameResolver.resolve(p.getText()));
+            }
+            return parameterTypes.toArray(new Class[0]);
+        }
+
+        private static Object[] readArgs(JsonParser p, DeserializationContext ctxt, Class<?>[] parameterTypes) throws IOException {
+            Object[] args = new Object[parameterTypes.length];
+            int index = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (index >= args.length) {
+                    throw new IOException("参数个数与参数类型不匹配");
+                }
+                args[index] = p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, parameterTypes[index]);
+                index++;
+            }
+            return args;
         }
-        return type.cast(rpcRequest);
     }
 
     /**
-     * RpcResponse反序列化特殊处理函数。
-     * 用于处理RpcResponse中的数据字段，确保其类型正确无误。
-     *
-     * @param rpcResponse rpc 响应对象。
-     * @param type        需要转换的目标类型。
-     * @param <T>         类型参数。
-     * @return 处理后的RpcResponse对象。
-     * @throws IOException 如果处理过程中发生序列化或反序列化错误。
+     * RpcResponse 序列化：固定字段顺序，dataType 写在 data 之前。
      */
-    private <T> T handleResponse(RpcResponse rpcResponse, Class<T> type) throws IOException {
-        // 重新处理响应数据的类型，确保数据类型正确
-        byte[] dataBytes = OBJECT_MAPPER.writeValueAsBytes(rpcResponse.getData());
-        rpcResponse.setData(OBJECT_MAPPER.readValue(dataBytes, rpcResponse.getDataType()));
-        return type.cast(rpcResponse);
+    private static class RpcResponseSerializer extends StdSerializer<RpcResponse> {
+
+        RpcResponseSerializer() {
+            super(RpcResponse.class);
+        }
+
+        @Override
+        public void serialize(RpcResponse rpcResponse, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            if (rpcResponse.getDataType() != null) {
+                gen.writeStringField("dataType", rpcResponse.getDataType().getName());
+            }
+            gen.writeFieldName("data");
+            provider.defaultSerializeValue(rpcResponse.getData(), gen);
+            gen.writeStringField("message", rpcResponse.getMessage());
+            if (rpcResponse.getException() != null) {
+                gen.writeFieldName("exception");
+                provider.defaultSerializeValue(rpcResponse.getException(), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * RpcResponse 反序列化：data 直接按 dataType 解析。
+     */
+    private static class RpcResponseDeserializer extends StdDeserializer<RpcResponse> {
+
+        RpcResponseDeserializer() {
+            super(RpcResponse.class);
+        }
+
+        @Override
+        public RpcResponse deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            RpcResponse rpcResponse = new RpcResponse();
+            TokenBuffer pendingData = null;
+            for (String fieldName = p.nextFieldName(); fieldName != null; fieldName = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                switch (fieldName) {
+                    case "dataType":
+                        rpcResponse.setDataType(token == JsonToken.VALUE_NULL ? null : ClassNameResolver.resolve(p.getText()));
+                        break;
+                    case "data":
+                        if (token == JsonToken.VALUE_NULL) {
+                            rpcResponse.setData(null);
+                        } else if (rpcResponse.getDataType() != null) {
+                            rpcResponse.setData(readData(p, ctxt, rpcResponse.getDataType()));
+                        } else {
+                            pendingData = ctxt.bufferAsCopyOfValue(p);
+                        }
+                        break;
+                    case "message":
+                        rpcResponse.setMessage(p.getValueAsString());
+                        break;
+                    case "exception":
+                        rpcResponse.setException(token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Exception.class));
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            if (pendingData != null) {
+                try (JsonParser dataParser = pendingData.asParser(p.getCodec())) {
+                    dataParser.nextToken();
+                    Class<?> dataType = rpcResponse.getDataType() != null ? rpcResponse.getDataType() : Object.class;
+                    rpcResponse.setData(readData(dataParser, ctxt, dataType));
+                }
+            }
+            return rpcResponse;
+        }
+
+        private static Object readData(JsonParser p, DeserializationContext ctxt, Class<?> dataType) throws IOException {
+            // void 方法没有可用的类型，按 JSON 原样解析
+            Class<?> valueType = dataType == void.class ? Object.class : dataType;
+            return ctxt.readValue(p, valueType);
+        }
     }
 }
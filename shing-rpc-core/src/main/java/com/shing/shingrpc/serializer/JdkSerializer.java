@@ -19,10 +19,23 @@ public class JdkSerializer implements Serializer {
     @Override
     public <T> byte[] serialize(T object) throws IOException {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serialize(object, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 序列化并直接写入输出流
+     *
+     * @param object
+     * @param outputStream
+     * @param <T>
+     * @throws IOException
+     */
+    @Override
+    public <T> void serialize(T object, OutputStream outputStream) throws IOException {
         ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
         objectOutputStream.writeObject(object);
-        objectOutputStream.close();
-        return outputStream.toByteArray();
+        objectOutputStream.flush();
     }
 
     /**
@@ -36,14 +49,30 @@ public class JdkSerializer implements Serializer {
      */
     @Override
     public <T> T deserialize(byte[] bytes, Class<T> type) throws IOException {
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+        return deserialize(bytes, 0, bytes.length, type);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> type) throws IOException {
+        return deserialize(new ByteArrayInputStream(bytes, offset, length), type);
+    }
+
+    /**
+     * 从输入流反序列化
+     *
+     * @param inputStream
+     * @param type
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> type) throws IOException {
         ObjectInputStream objectInputStream = new ObjectInputStream(inputStream);
         try {
             return (T) objectInputStream.readObject();
         } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
-        } finally {
-            objectInputStream.close();
         }
     }
 }
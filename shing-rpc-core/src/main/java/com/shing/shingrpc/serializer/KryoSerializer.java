@@ -3,26 +3,101 @@ package com.shing.shingrpc.serializer;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.Pool;
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
 
 /**
  * Kryo 序列化器。实现 Serializer 接口，提供使用 Kryo 库的序列化和反序列化功能。
+ * Kryo 实例和 Output / Input 缓冲区均池化复用（池而非 ThreadLocal，业务线程为虚拟线程时同样有效）；
+ * RPC 模型类、常用 JDK 类型和配置的 DTO 类（{@link com.shing.shingrpc.config.RpcConfig#getKryoRegistrations()}，
+ * 框架初始化时通过 {@link #setRegistrations(List)} 传入）以固定 ID 预注册，消息中只写类 ID 而不是完整类名。
  *
  * @author shing
  */
 public class KryoSerializer implements Serializer {
+
     /**
-     * 使用 ThreadLocal 来为每个线程提供一个独立的 Kryo 实例，以保证线程安全。
-     * Kryo 实例初始化时，设置为不强制要求注册所有类，以提高灵活性和安全性。
+     * 框架预注册类的起始 ID（Kryo 默认注册的基本类型占用 0 ~ 9）
      */
-    private static final ThreadLocal<Kryo> KRYO_THREAD_LOCAL = ThreadLocal.withInitial(() -> {
-        Kryo kryo = new Kryo();
-        kryo.setRegistrationRequired(false);
-        return kryo;
-    });
+    private static final int FRAMEWORK_REGISTRATION_ID_START = 100;
+
+    /**
+     * 用户 DTO 类的起始 ID
+     */
+    private static final int USER_REGISTRATION_ID_START = 1000;
+
+    /**
+     * 框架预注册类，按顺序分配 ID，只能在末尾追加，否则新旧版本之间 ID 不一致
+     */
+    private static final List<Class<?>> FRAMEWORK_REGISTRATIONS = Arrays.asList(
+            RpcRequest.class, RpcResponse.class,
+            Class.class, Class[].class, Object[].class, String[].class,
+            ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class,
+            HashSet.class, LinkedHashSet.class,
+            Date.class, BigDecimal.class, BigInteger.class);
+
+    /**
+     * 池中 Output 缓冲区初始大小
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * 超过该大小的 Output 缓冲区不放回池中，避免长期占用内存
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * 用户 DTO 类，从 {@link #USER_REGISTRATION_ID_START} 开始按顺序分配 ID
+     */
+    private static volatile List<Class<?>> userRegistrations = Collections.emptyList();
+
+    /**
+     * Kryo 实例池
+     */
+    private static final Pool<Kryo> KRYO_POOL = new Pool<Kryo>(true, false, 64) {
+        @Override
+        protected Kryo create() {
+            return newKryo();
+        }
+    };
+
+    /**
+     * Output 缓冲区池
+     */
+    private static final Pool<Output> OUTPUT_POOL = new Pool<Output>(true, false, 64) {
+        @Override
+        protected Output create() {
+            return new Output(BUFFER_SIZE, -1);
+        }
+    };
+
+    /**
+     * 流式读取用的 Input 缓冲区池（读取数组时直接包装数组，不需要缓冲区）
+     */
+    private static final Pool<Input> INPUT_POOL = new Pool<Input>(true, false, 64) {
+        @Override
+        protected Input create() {
+            return new Input(BUFFER_SIZE);
+        }
+    };
 
     /**
      * 序列化方法。将对象转换为字节数组。
@@ -33,11 +108,38 @@ public class KryoSerializer implements Serializer {
      */
     @Override
     public <T> byte[] serialize(T object) throws IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        Output output = new Output(byteArrayOutputStream);
-        KRYO_THREAD_LOCAL.get().writeObject(output, object); // 使用 Kryo 序列化对象到输出流
-        output.close();
-        return byteArrayOutputStream.toByteArray(); // 返回序列化后的字节数组
+        Output output = OUTPUT_POOL.obtain();
+        Kryo kryo = KRYO_POOL.obtain();
+        try {
+            output.setOutputStream(null);
+            kryo.writeObject(output, object); // 使用 Kryo 序列化对象到缓冲区
+            return output.toBytes(); // 返回序列化后的字节数组
+        } finally {
+            KRYO_POOL.free(kryo);
+            freeOutput(output);
+        }
+    }
+
+    /**
+     * 序列化方法。将对象直接写入输出流。
+     *
+     * @param object       需要被序列化的对象。
+     * @param outputStream 输出流。
+     * @throws IOException 如果序列化过程中发生 IO 错误。
+     */
+    @Override
+    public <T> void serialize(T object, OutputStream outputStream) throws IOException {
+        Output output = OUTPUT_POOL.obtain();
+        Kryo kryo = KRYO_POOL.obtain();
+        try {
+            output.setOutputStream(outputStream);
+            kryo.writeObject(output, object); // 使用 Kryo 序列化对象到输出流
+            output.flush();
+        } finally {
+            output.setOutputStream(null);
+            KRYO_POOL.free(kryo);
+            freeOutput(output);
+        }
     }
 
     /**
@@ -50,10 +152,92 @@ public class KryoSerializer implements Serializer {
      */
     @Override
     public <T> T deserialize(byte[] bytes, Class<T> classType) throws IOException {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
-        Input input = new Input(byteArrayInputStream);
-        T result = KRYO_THREAD_LOCAL.get().readObject(input, classType); // 使用 Kryo 从输入流读取对象
-        input.close();
-        return result;
+        return deserialize(bytes, 0, bytes.length, classType);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, int offset, int length, Class<T> classType) throws IOException {
+        // 直接读取原数组，不经过输入流
+        Input input = new Input(bytes, offset, length);
+        Kryo kryo = KRYO_POOL.obtain();
+        try {
+            return kryo.readObject(input, classType);
+        } finally {
+            KRYO_POOL.free(kryo);
+        }
+    }
+
+    /**
+     * 反序列化方法。从输入流读取指定类型的对象。
+     *
+     * @param inputStream 输入流。
+     * @param classType   反序列化目标对象的类型。
+     * @return 反序列化后的对象。
+     * @throws IOException 如果反序列化过程中发生 IO 错误。
+     */
+    @Override
+    public <T> T deserialize(InputStream inputStream, Class<T> classType) throws IOException {
+        Input input = INPUT_POOL.obtain();
+        Kryo kryo = KRYO_POOL.obtain();
+        try {
+            input.setInputStream(inputStream);
+            return kryo.readObject(input, classType); // 使用 Kryo 从输入流读取对象
+        } finally {
+            input.setInputStream(null);
+            KRYO_POOL.free(kryo);
+            INPUT_POOL.free(input);
+        }
+    }
+
+    /**
+     * 归还 Output 缓冲区，过大的缓冲区直接丢弃
+     *
+     * @param output Output 缓冲区
+     */
+    private static void freeOutput(Output output) {
+        if (output.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+            OUTPUT_POOL.free(output);
+        }
+    }
+
+    /**
+     * 设置预注册的 DTO 类，框架初始化时调用（应在使用序列化器之前），消费者和提供者必须使用相同的列表和顺序。
+     * 类在这里一次性加载，类不存在时直接失败；池中已有的 Kryo 实例丢弃，之后按新的列表创建
+     *
+     * @param classNames 全限定类名列表，为 null 时只注册框架类
+     * @throws RuntimeException 类不存在
+     */
+    public static void setRegistrations(List<String> classNames) {
+        List<Class<?>> registrations = new ArrayList<>();
+        if (classNames != null) {
+            for (String className : classNames) {
+                try {
+                    registrations.add(Class.forName(className.trim()));
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException("Kryo 注册类不存在 " + className, e);
+                }
+            }
+        }
+        userRegistrations = Collections.unmodifiableList(registrations);
+        KRYO_POOL.clear();
+    }
+
+    /**
+     * 创建 Kryo 实例：不强制要求注册所有类（未注册的类仍按类名写入），以固定 ID 注册框架类和配置的 DTO 类
+     *
+     * @return Kryo 实例
+     */
+    static Kryo newKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        int id = FRAMEWORK_REGISTRATION_ID_START;
+        for (Class<?> registration : FRAMEWORK_REGISTRATIONS) {
+            kryo.register(registration, id++);
+        }
+        id = USER_REGISTRATION_ID_START;
+        for (Class<?> registration : userRegistrations) {
+            kryo.register(registration, id++);
+        }
+        return kryo;
     }
 }
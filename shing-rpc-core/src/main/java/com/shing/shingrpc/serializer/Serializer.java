@@ -1,9 +1,15 @@
 package com.shing.shingrpc.serializer;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 序列化器接口，提供序列化和反序列化方法。
+ * 除字节数组外还支持直接写入输出流、从输入流或 ByteBuffer 视图读取，编解码器借此在网络 buffer 上直接读写，
+ * 不支持流式读写的序列化器只需实现字节数组方法，其余方法有默认适配实现。
  *
  * @author shing
  */
@@ -18,6 +24,19 @@ public interface Serializer {
      */
     <T> byte[] serialize(T object) throws IOException;
 
+    /**
+     * 将对象序列化并写入输出流，用于直接写入网络 buffer。
+     * 默认实现先序列化为字节数组再写入，序列化器可覆盖以直接写入输出流。
+     *
+     * @param object 需要被序列化的对象
+     * @param outputStream 输出流（方法内不关闭）
+     * @param <T> 对象的类型
+     * @throws IOException 序列化过程中发生的IO异常
+     */
+    default <T> void serialize(T object, OutputStream outputStream) throws IOException {
+        outputStream.write(serialize(object));
+    }
+
     /**
      * 将字节数组反序列化为指定类型的对象。
      *
@@ -28,4 +47,55 @@ public interface Serializer {
      * @throws IOException 反序列化过程中发生的IO异常
      */
     <T> T deserialize(byte[] bytes, Class<T> tClass) throws IOException;
+
+    /**
+     * 从输入流中读取数据并反序列化为指定类型的对象。
+     * 默认实现先读出全部字节再反序列化，序列化器可覆盖以直接读取输入流。
+     *
+     * @param inputStream 输入流（方法内不关闭）
+     * @param tClass 需要反序列化的对象的类类型
+     * @param <T> 对象的类型
+     * @return 反序列化后的对象
+     * @throws IOException 反序列化过程中发生的IO异常
+     */
+    default <T> T deserialize(InputStream inputStream, Class<T> tClass) throws IOException {
+        return deserialize(inputStream.readAllBytes(), tClass);
+    }
+
+    /**
+     * 将字节数组的指定区间反序列化为指定类型的对象。
+     * 默认实现会复制该区间，序列化器可覆盖以直接读取原数组。
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param tClass 需要反序列化的对象的类类型
+     * @param <T> 对象的类型
+     * @return 反序列化后的对象
+     * @throws IOException 反序列化过程中发生的IO异常
+     */
+    default <T> T deserialize(byte[] bytes, int offset, int length, Class<T> tClass) throws IOException {
+        if (offset == 0 && length == bytes.length) {
+            return deserialize(bytes, tClass);
+        }
+        return deserialize(Arrays.copyOfRange(bytes, offset, offset + length), tClass);
+    }
+
+    /**
+     * 将 ByteBuffer 中的数据（position 到 limit）反序列化为指定类型的对象。
+     * 用于直接从网络 buffer 的视图反序列化，堆内 buffer 不复制，直接读取其底层数组。
+     *
+     * @param buffer 需要被反序列化的数据，读取后 buffer 的 position 不变
+     * @param tClass 需要反序列化的对象的类类型
+     * @param <T> 对象的类型
+     * @return 反序列化后的对象
+     * @throws IOException 反序列化过程中发生的IO异常
+     */
+    default <T> T deserialize(ByteBuffer buffer, Class<T> tClass) throws IOException {
+        if (buffer.hasArray()) {
+            return deserialize(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), tClass);
+        }
+        // 直接内存没有底层数组，以输入流视图读取
+        return deserialize(new ByteBufferInputStream(buffer), tClass);
+    }
 }
@@ -18,4 +18,8 @@ public interface SerializerKeys {
     String KRYO = "kryo";
     // Hessian序列化器的键名
     String HESSIAN = "hessian";
+    // Hessian2序列化器的键名
+    String HESSIAN2 = "hessian2";
+    // 紧凑二进制序列化器的键名
+    String COMPACT = "compact";
 }
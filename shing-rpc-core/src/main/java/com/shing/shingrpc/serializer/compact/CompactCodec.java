@@ -0,0 +1,35 @@
+package com.shing.shingrpc.serializer.compact;
+
+/**
+ * 紧凑格式编解码器，按声明类型读写值，不写类名。
+ * 默认只处理非 null 值，可为 null 的位置由 {@link CompactCodecs#getNullableCodec} 包装。
+ *
+ * @author shing
+ */
+public interface CompactCodec<T> {
+
+    /**
+     * 写入值
+     *
+     * @param output 输出
+     * @param value  值
+     */
+    void write(CompactOutput output, T value);
+
+    /**
+     * 读取值
+     *
+     * @param input 输入
+     * @return 值
+     */
+    T read(CompactInput input);
+
+    /**
+     * 编码本身能否表示 null（如字符串），能表示时不再额外包装 null 标记
+     *
+     * @return 能否表示 null
+     */
+    default boolean acceptsNull() {
+        return false;
+    }
+}
@@ -0,0 +1,611 @@
+package com.shing.shingrpc.serializer.compact;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 紧凑格式编解码器工厂，按类型生成并缓存编解码器。
+ *
+ * @author shing
+ */
+public class CompactCodecs {
+
+    private static final Map<Type, CompactCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * 正在生成中的编解码器（POJO 字段可能引用自身，先放入再初始化字段），由 LOCK 保护
+     */
+    private static final Map<Type, CompactCodec<?>> BUILDING = new HashMap<>();
+
+    private static final Object LOCK = new Object();
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        PRIMITIVE_TYPES.put(Boolean.class, boolean.class);
+        PRIMITIVE_TYPES.put(Byte.class, byte.class);
+        PRIMITIVE_TYPES.put(Character.class, char.class);
+        PRIMITIVE_TYPES.put(Short.class, short.class);
+        PRIMITIVE_TYPES.put(Integer.class, int.class);
+        PRIMITIVE_TYPES.put(Long.class, long.class);
+        PRIMITIVE_TYPES.put(Float.class, float.class);
+        PRIMITIVE_TYPES.put(Double.class, double.class);
+
+        CODECS.put(boolean.class, codec(CompactOutput::writeBoolean, CompactInput::readBoolean));
+        CODECS.put(byte.class, codec((output, value) -> output.writeByte((Byte) value), input -> (byte) input.readByte()));
+        CODECS.put(char.class, codec((output, value) -> output.writeVarInt((Character) value), input -> (char) input.readVarInt()));
+        CODECS.put(short.class, codec((output, value) -> output.writeInt((Short) value), input -> (short) input.readInt()));
+        CODECS.put(int.class, codec(CompactOutput::writeInt, CompactInput::readInt));
+        CODECS.put(long.class, codec(CompactOutput::writeLong, CompactInput::readLong));
+        CODECS.put(float.class, codec(CompactOutput::writeFloat, CompactInput::readFloat));
+        CODECS.put(double.class, codec(CompactOutput::writeDouble, CompactInput::readDouble));
+        PRIMITIVE_TYPES.forEach((boxed, primitive) -> CODECS.put(boxed, CODECS.get(primitive)));
+        CODECS.put(String.class, new CompactCodec<String>() {
+            @Override
+            public void write(CompactOutput output, String value) {
+                output.writeString(value);
+            }
+
+            @Override
+            public String read(CompactInput input) {
+                return input.readString();
+            }
+
+            @Override
+            public boolean acceptsNull() {
+                return true;
+            }
+        });
+        CODECS.put(byte[].class, new CompactCodec<byte[]>() {
+            @Override
+            public void write(CompactOutput output, byte[] value) {
+                output.writeBytes(value);
+            }
+
+            @Override
+            public byte[] read(CompactInput input) {
+                return input.readBytes();
+            }
+
+            @Override
+            public boolean acceptsNull() {
+                return true;
+            }
+        });
+        CODECS.put(Class.class, new CompactCodec<Class<?>>() {
+            @Override
+            public void write(CompactOutput output, Class<?> value) {
+                CompactTypes.writeType(output, value);
+            }
+
+            @Override
+            public Class<?> read(CompactInput input) {
+                return CompactTypes.readType(input);
+            }
+
+            @Override
+            public boolean acceptsNull() {
+                return true;
+            }
+        });
+        CODECS.put(Date.class, codec((output, value) -> output.writeLong(value.getTime()), input -> new Date(input.readLong())));
+        CODECS.put(BigDecimal.class, codec((output, value) -> output.writeString(value.toString()), input -> new BigDecimal(input.readString())));
+        CODECS.put(BigInteger.class, codec((output, value) -> output.writeString(value.toString()), input -> new BigInteger(input.readString())));
+        CODECS.put(Object.class, new DynamicCodec());
+    }
+
+    /**
+     * 获取类型的编解码器（只处理非 null 值）
+     *
+     * @param type 类型（可以是泛型类型，如 List&lt;User&gt;）
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompactCodec<T> getCodec(Type type) {
+        CompactCodec<?> codec = CODECS.get(type);
+        if (codec != null) {
+            return (CompactCodec<T>) codec;
+        }
+        synchronized (LOCK) {
+            codec = CODECS.get(type);
+            if (codec != null) {
+                return (CompactCodec<T>) codec;
+            }
+            codec = BUILDING.get(type);
+            if (codec != null) {
+                return (CompactCodec<T>) codec;
+            }
+            boolean outermost = BUILDING.isEmpty();
+            try {
+                codec = build(type);
+                BUILDING.put(type, codec);
+                if (outermost) {
+                    CODECS.putAll(BUILDING);
+                }
+            } finally {
+                if (outermost) {
+                    BUILDING.clear();
+                }
+            }
+            return (CompactCodec<T>) codec;
+        }
+    }
+
+    /**
+     * 获取可处理 null 的编解码器。基本类型不包装，引用类型在值前写一个字节的 null 标记。
+     *
+     * @param type 类型
+     * @return 编解码器
+     */
+    public static <T> CompactCodec<T> getNullableCodec(Type type) {
+        CompactCodec<T> codec = getCodec(type);
+        if (type instanceof Class && ((Class<?>) type).isPrimitive() || codec.acceptsNull()) {
+            return codec;
+        }
+        return new NullableCodec<>(codec);
+    }
+
+    /**
+     * 注册自定义编解码器（需在首次使用该类型之前注册）
+     *
+     * @param type  类型
+     * @param codec 编解码器
+     */
+    public static void registerCodec(Class<?> type, CompactCodec<?> codec) {
+        CODECS.put(type, codec);
+    }
+
+    /**
+     * 按类型生成编解码器
+     *
+     * @param type 类型
+     * @return 编解码器
+     */
+    private static CompactCodec<?> build(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(rawType)) {
+                return new CollectionCodec(collectionFactory(rawType), getNullableCodec(arguments[0]));
+            }
+            if (Map.class.isAssignableFrom(rawType)) {
+                return new MapCodec(mapFactory(rawType), getNullableCodec(arguments[0]), getNullableCodec(arguments[1]));
+            }
+            return getCodec(rawType);
+        }
+        if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            return new ArrayCodec(rawClass(componentType), getNullableCodec(componentType));
+        }
+        if (type instanceof WildcardType) {
+            return getCodec(((WildcardType) type).getUpperBounds()[0]);
+        }
+        if (!(type instanceof Class)) {
+            // 类型变量，按运行时类型处理
+            return getCodec(Object.class);
+        }
+        Class<?> clazz = (Class<?>) type;
+        if (clazz.isEnum() || clazz.getSuperclass() != null && clazz.getSuperclass().isEnum()) {
+            return new EnumCodec(clazz.isEnum() ? clazz : clazz.getSuperclass());
+        }
+        if (clazz.isArray()) {
+            return new ArrayCodec(clazz.getComponentType(), getNullableCodec(clazz.getComponentType()));
+        }
+        if (Collection.class.isAssignableFrom(clazz)) {
+            return new CollectionCodec(collectionFactory(clazz), getNullableCodec(Object.class));
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            return new MapCodec(mapFactory(clazz), getNullableCodec(Object.class), getNullableCodec(Object.class));
+        }
+        if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+            return getCodec(Object.class);
+        }
+        if (CompactTypes.isJdkType(clazz) || Throwable.class.isAssignableFrom(clazz)) {
+            if (Serializable.class.isAssignableFrom(clazz)) {
+                return new SerializableCodec(clazz);
+            }
+            throw new RuntimeException("紧凑序列化不支持的类型 " + clazz.getName());
+        }
+        PojoCodec<?> pojoCodec = new PojoCodec<>(clazz);
+        BUILDING.put(clazz, pojoCodec);
+        pojoCodec.init();
+        return pojoCodec;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> clazz) {
+        Supplier<Object> constructor = noArgConstructor(clazz);
+        if (constructor != null) {
+            return () -> (Collection<Object>) constructor.get();
+        }
+        if (SortedSet.class.isAssignableFrom(clazz)) {
+            return TreeSet::new;
+        }
+        if (Set.class.isAssignableFrom(clazz)) {
+            return LinkedHashSet::new;
+        }
+        if (Deque.class.isAssignableFrom(clazz) || Queue.class.isAssignableFrom(clazz) && !List.class.isAssignableFrom(clazz)) {
+            return ArrayDeque::new;
+        }
+        return ArrayList::new;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> clazz) {
+        Supplier<Object> constructor = noArgConstructor(clazz);
+        if (constructor != null) {
+            return () -> (Map<Object, Object>) constructor.get();
+        }
+        if (SortedMap.class.isAssignableFrom(clazz)) {
+            return TreeMap::new;
+        }
+        return LinkedHashMap::new;
+    }
+
+    /**
+     * 获取公开的无参构造器，没有时返回 null（如接口、不可变集合）
+     *
+     * @param clazz 类型
+     * @return 构造器
+     */
+    private static Supplier<Object> noArgConstructor(Class<?> clazz) {
+        if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || !Modifier.isPublic(clazz.getModifiers())) {
+            return null;
+        }
+        try {
+            MethodHandle constructor = MethodHandles.publicLookup()
+                    .findConstructor(clazz, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return constructor.invokeExact();
+                } catch (Throwable e) {
+                    throw new RuntimeException("创建实例失败 " + clazz.getName(), e);
+                }
+            };
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private interface Writer<T> {
+        void write(CompactOutput output, T value);
+    }
+
+    private interface Reader<T> {
+        T read(CompactInput input);
+    }
+
+    private static <T> CompactCodec<T> codec(Writer<T> writer, Reader<T> reader) {
+        return new CompactCodec<T>() {
+            @Override
+            public void write(CompactOutput output, T value) {
+                writer.write(output, value);
+            }
+
+            @Override
+            public T read(CompactInput input) {
+                return reader.read(input);
+            }
+        };
+    }
+
+    /**
+     * 在值前写入 null 标记
+     */
+    private static class NullableCodec<T> implements CompactCodec<T> {
+
+        private final CompactCodec<T> codec;
+
+        NullableCodec(CompactCodec<T> codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        public void write(CompactOutput output, T value) {
+            if (value == null) {
+                output.writeByte(0);
+                return;
+            }
+            output.writeByte(1);
+            codec.write(output, value);
+        }
+
+        @Override
+        public T read(CompactInput input) {
+            return input.readByte() == 0 ? null : codec.read(input);
+        }
+
+        @Override
+        public boolean acceptsNull() {
+            return true;
+        }
+    }
+
+    /**
+     * 声明类型无法确定实际类型时（Object、接口、抽象类），先写类型引用再按实际类型写值
+     */
+    private static class DynamicCodec implements CompactCodec<Object> {
+
+        @Override
+        public void write(CompactOutput output, Object value) {
+            if (value == null) {
+                CompactTypes.writeType(output, null);
+                return;
+            }
+            Class<?> clazz = value.getClass();
+            Class<?> primitiveType = PRIMITIVE_TYPES.get(clazz);
+            CompactTypes.writeType(output, primitiveType != null ? primitiveType : clazz);
+            getCodec(clazz).write(output, value);
+        }
+
+        @Override
+        public Object read(CompactInput input) {
+            Class<?> clazz = CompactTypes.readType(input);
+            return clazz == null ? null : getCodec(clazz).read(input);
+        }
+
+        @Override
+        public boolean acceptsNull() {
+            return true;
+        }
+    }
+
+    /**
+     * 枚举：序号 + 1，0 表示 null
+     */
+    private static class EnumCodec implements CompactCodec<Enum<?>> {
+
+        private final Enum<?>[] constants;
+
+        EnumCodec(Class<?> enumClass) {
+            this.constants = (Enum<?>[]) enumClass.getEnumConstants();
+        }
+
+        @Override
+        public void write(CompactOutput output, Enum<?> value) {
+            output.writeVarInt(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        @Override
+        public Enum<?> read(CompactInput input) {
+            int ordinal = input.readVarInt() - 1;
+            return ordinal < 0 ? null : constants[ordinal];
+        }
+
+        @Override
+        public boolean acceptsNull() {
+            return true;
+        }
+    }
+
+    /**
+     * 数组：长度后依次写元素
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class ArrayCodec implements CompactCodec<Object> {
+
+        private final Class<?> componentType;
+
+        private final CompactCodec componentCodec;
+
+        ArrayCodec(Class<?> componentType, CompactCodec<?> componentCodec) {
+            this.componentType = componentType;
+            this.componentCodec = componentCodec;
+        }
+
+        @Override
+        public void write(CompactOutput output, Object value) {
+            int length = Array.getLength(value);
+            output.writeVarInt(length);
+            if (value instanceof Object[]) {
+                for (Object element : (Object[]) value) {
+                    componentCodec.write(output, element);
+                }
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                componentCodec.write(output, Array.get(value, i));
+            }
+        }
+
+        @Override
+        public Object read(CompactInput input) {
+            int length = input.readVarInt();
+            Object array = Array.newInstance(componentType, length);
+            if (array instanceof Object[]) {
+                Object[] elements = (Object[]) array;
+                for (int i = 0; i < length; i++) {
+                    elements[i] = componentCodec.read(input);
+                }
+                return array;
+            }
+            for (int i = 0; i < length; i++) {
+                Array.set(array, i, componentCodec.read(input));
+            }
+            return array;
+        }
+    }
+
+    /**
+     * 集合：元素个数后依次写元素
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class CollectionCodec implements CompactCodec<Collection<Object>> {
+
+        private final Supplier<Collection<Object>> factory;
+
+        private final CompactCodec elementCodec;
+
+        CollectionCodec(Supplier<Collection<Object>> factory, CompactCodec<?> elementCodec) {
+            this.factory = factory;
+            this.elementCodec = elementCodec;
+        }
+
+        @Override
+        public void write(CompactOutput output, Collection<Object> value) {
+            output.writeVarInt(value.size());
+            for (Object element : value) {
+                elementCodec.write(output, element);
+            }
+        }
+
+        @Override
+        public Collection<Object> read(CompactInput input) {
+            int size = input.readVarInt();
+            Collection<Object> collection = factory.get();
+            for (int i = 0; i < size; i++) {
+                collection.add(elementCodec.read(input));
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * Map：键值对个数后依次写键和值
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class MapCodec implements CompactCodec<Map<Object, Object>> {
+
+        private final Supplier<Map<Object, Object>> factory;
+
+        private final CompactCodec keyCodec;
+
+        private final CompactCodec valueCodec;
+
+        MapCodec(Supplier<Map<Object, Object>> factory, CompactCodec<?> keyCodec, CompactCodec<?> valueCodec) {
+            this.factory = factory;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        @Override
+        public void write(CompactOutput output, Map<Object, Object> value) {
+            output.writeVarInt(value.size());
+            for (Map.Entry<Object, Object> entry : value.entrySet()) {
+                keyCodec.write(output, entry.getKey());
+                valueCodec.write(output, entry.getValue());
+            }
+        }
+
+        @Override
+        public Map<Object, Object> read(CompactInput input) {
+            int size = input.readVarInt();
+            Map<Object, Object> map = factory.get();
+            for (int i = 0; i < size; i++) {
+                map.put(keyCodec.read(input), valueCodec.read(input));
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 其他 JDK 类型和异常，退回 JDK 序列化。
+     * 读取时只接受声明类型及其同包类型、异常和堆栈、基本类型包装类，以及已登记的类型，其他类一律拒绝
+     */
+    private static class SerializableCodec implements CompactCodec<Object> {
+
+        private final Class<?> type;
+
+        private final ObjectInputFilter filter;
+
+        SerializableCodec(Class<?> type) {
+            this.type = type;
+            this.filter = info -> {
+                Class<?> clazz = info.serialClass();
+                if (clazz == null) {
+                    return ObjectInputFilter.Status.UNDECIDED;
+                }
+                return isAllowed(clazz) ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+            };
+        }
+
+        private boolean isAllowed(Class<?> clazz) {
+            while (clazz.isArray()) {
+                clazz = clazz.getComponentType();
+            }
+            if (clazz.isPrimitive() || clazz == String.class || PRIMITIVE_TYPES.containsKey(clazz)
+                    || Number.class.isAssignableFrom(clazz) && clazz.getName().startsWith("java.")) {
+                return true;
+            }
+            if (type.isAssignableFrom(clazz) || clazz.getPackageName().equals(type.getPackageName())) {
+                return true;
+            }
+            // 异常：堆栈、cause 以及 suppressed 列表
+            if (Throwable.class.isAssignableFrom(type) && (Throwable.class.isAssignableFrom(clazz)
+                    || clazz == StackTraceElement.class || clazz == ArrayList.class
+                    || clazz.getName().startsWith("java.util.Collections$"))) {
+                return true;
+            }
+            return CompactTypes.isAllowed(clazz);
+        }
+
+        @Override
+        public void write(CompactOutput output, Object value) {
+            // null 只写 1 个字节（如响应中没有异常），不写 JDK 序列化流
+            if (value == null) {
+                output.writeBytes(null);
+                return;
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+                objectOutputStream.writeObject(value);
+            } catch (IOException e) {
+                throw new RuntimeException("序列化失败 " + value.getClass().getName(), e);
+            }
+            output.writeBytes(outputStream.toByteArray());
+        }
+
+        @Override
+        public Object read(CompactInput input) {
+            byte[] bytes = input.readBytes();
+            if (bytes == null) {
+                return null;
+            }
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                objectInputStream.setObjectInputFilter(filter);
+                return objectInputStream.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException("反序列化失败", e);
+            }
+        }
+
+        @Override
+        public boolean acceptsNull() {
+            return true;
+        }
+    }
+}
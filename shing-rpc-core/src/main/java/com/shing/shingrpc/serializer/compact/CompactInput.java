@@ -0,0 +1,184 @@
+package com.shing.shingrpc.serializer.compact;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 紧凑格式输入，直接读取字节数组区间，与 {@link CompactOutput} 对应。
+ *
+ * @author shing
+ */
+public class CompactInput {
+
+    private final byte[] buffer;
+
+    private int position;
+
+    private final int limit;
+
+    /**
+     * 读取 ASCII 字符串用的临时缓冲区
+     */
+    private byte[] scratch;
+
+    /**
+     * 本条消息的类型表，按首次出现的顺序登记（懒加载）
+     */
+    private List<Class<?>> typeTable;
+
+    public CompactInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    private void require(int required) {
+        if (limit - position < required) {
+            throw new RuntimeException("紧凑格式数据不完整");
+        }
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new RuntimeException("变长整数格式错误");
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new RuntimeException("变长整数格式错误");
+    }
+
+    public int readInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readFixedLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value |= (buffer[position++] & 0xFFL) << (i << 3);
+        }
+        return value;
+    }
+
+    public float readFloat() {
+        require(4);
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits |= (buffer[position++] & 0xFF) << (i << 3);
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readFixedLong());
+    }
+
+    public String readString() {
+        require(1);
+        int first = buffer[position] & 0xFF;
+        if (first < 0x20) {
+            position++;
+            if (first == CompactOutput.STRING_NULL) {
+                return null;
+            }
+            if (first == CompactOutput.STRING_EMPTY) {
+                return "";
+            }
+            if (first != CompactOutput.STRING_UTF8) {
+                throw new RuntimeException("字符串标记错误 " + first);
+            }
+            int length = readVarInt();
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        // ASCII 字符串，最高位为 1 的字节是最后一个字符
+        int end = position;
+        while (true) {
+            if (end >= limit) {
+                throw new RuntimeException("紧凑格式数据不完整");
+            }
+            if (buffer[end] < 0) {
+                break;
+            }
+            end++;
+        }
+        int length = end - position + 1;
+        if (scratch == null || scratch.length < length) {
+            scratch = new byte[Math.max(length, 64)];
+        }
+        System.arraycopy(buffer, position, scratch, 0, length);
+        scratch[length - 1] &= 0x7F;
+        position = end + 1;
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 按序号获取本条消息类型表中的类型
+     *
+     * @param index 序号
+     * @return 类型
+     */
+    Class<?> getType(int index) {
+        if (typeTable == null || index >= typeTable.size()) {
+            throw new RuntimeException("类型表序号错误 " + index);
+        }
+        return typeTable.get(index);
+    }
+
+    /**
+     * 将类型追加到本条消息的类型表
+     *
+     * @param clazz 类型
+     */
+    void addType(Class<?> clazz) {
+        if (typeTable == null) {
+            typeTable = new ArrayList<>();
+        }
+        typeTable.add(clazz);
+    }
+
+    public byte[] readBytes() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        byte[] value = new byte[length];
+        System.arraycopy(buffer, position, value, 0, length);
+        position += length;
+        return value;
+    }
+}
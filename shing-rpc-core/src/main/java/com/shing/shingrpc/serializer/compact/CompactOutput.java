@@ -0,0 +1,244 @@
+package com.shing.shingrpc.serializer.compact;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 紧凑格式输出缓冲区。整数使用变长编码（有符号数先做 ZigZag），可打印 ASCII 字符串以最高位标记结束，不写长度。
+ * 指定输出流时缓冲区写满即刷出，否则按需扩容。
+ * 每个输出对应一条消息，同时记录消息中已写过的类型（类型表），之后再引用同一类型时只写序号。
+ *
+ * @author shing
+ */
+public class CompactOutput {
+
+    /**
+     * 字符串标记：null
+     */
+    static final int STRING_NULL = 0;
+
+    /**
+     * 字符串标记：空字符串
+     */
+    static final int STRING_EMPTY = 1;
+
+    /**
+     * 字符串标记：UTF-8 编码（长度 + 字节）
+     */
+    static final int STRING_UTF8 = 2;
+
+    private byte[] buffer;
+
+    private int position;
+
+    private final OutputStream outputStream;
+
+    /**
+     * 本条消息的类型表：类型 => 序号（首次写入类型时登记，懒加载）
+     */
+    private Map<Class<?>, Integer> typeTable;
+
+    public CompactOutput(int capacity) {
+        this(capacity, null);
+    }
+
+    public CompactOutput(int capacity, OutputStream outputStream) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * 保证缓冲区至少还有 required 个字节可写
+     *
+     * @param required 需要的字节数
+     */
+    private void require(int required) {
+        if (buffer.length - position >= required) {
+            return;
+        }
+        if (outputStream != null) {
+            flush();
+            if (buffer.length >= required) {
+                return;
+            }
+        }
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + required));
+    }
+
+    public void writeByte(int value) {
+        require(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * 写入无符号变长整数（每字节 7 位）
+     *
+     * @param value 值
+     */
+    public void writeVarInt(int value) {
+        require(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        require(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * 写入有符号整数（ZigZag 后变长编码，绝对值小的负数同样只占 1 个字节）
+     *
+     * @param value 值
+     */
+    public void writeInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeFixedLong(long value) {
+        require(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (value >>> (i << 3));
+        }
+    }
+
+    public void writeFloat(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        require(4);
+        for (int i = 0; i < 4; i++) {
+            buffer[position++] = (byte) (bits >>> (i << 3));
+        }
+    }
+
+    public void writeDouble(double value) {
+        writeFixedLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * 写入字符串。非空且只含可打印 ASCII 字符（0x20 ~ 0x7F）时直接写入字符、最后一个字节最高位置 1 作为结束标记，
+     * 否则先写一个小于 0x20 的标记字节：{@link #STRING_NULL}、{@link #STRING_EMPTY}，
+     * 或 {@link #STRING_UTF8} 后跟 长度 + UTF-8 字节
+     *
+     * @param value 字符串
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeByte(STRING_NULL);
+            return;
+        }
+        int length = value.length();
+        if (length == 0) {
+            writeByte(STRING_EMPTY);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x80) {
+                writeByte(STRING_UTF8);
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length);
+                writeRawBytes(bytes);
+                return;
+            }
+        }
+        require(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+        buffer[position - 1] |= (byte) 0x80;
+    }
+
+    /**
+     * 写入字节数组：长度 + 1（0 表示 null）后跟内容
+     *
+     * @param value 字节数组
+     */
+    public void writeBytes(byte[] value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(value.length + 1);
+        writeRawBytes(value);
+    }
+
+    private void writeRawBytes(byte[] value) {
+        if (outputStream != null && value.length > buffer.length - position) {
+            flush();
+            try {
+                outputStream.write(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        require(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    /**
+     * 将缓冲区内容刷出到输出流
+     */
+    public void flush() {
+        if (outputStream == null || position == 0) {
+            return;
+        }
+        try {
+            outputStream.write(buffer, 0, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+    }
+
+    /**
+     * 查找类型在本条消息类型表中的序号
+     *
+     * @param clazz 类型
+     * @return 序号，未写过时返回 -1
+     */
+    int typeIndex(Class<?> clazz) {
+        if (typeTable == null) {
+            return -1;
+        }
+        Integer index = typeTable.get(clazz);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 将类型追加到本条消息的类型表
+     *
+     * @param clazz 类型
+     */
+    void addType(Class<?> clazz) {
+        if (typeTable == null) {
+            typeTable = new HashMap<>();
+        }
+        typeTable.put(clazz, typeTable.size());
+    }
+
+    public byte[] toBytes() {
+        return Arrays.copyOf(buffer, position);
+    }
+}
@@ -0,0 +1,369 @@
+package com.shing.shingrpc.serializer.compact;
+
+import com.shing.shingrpc.serializer.ClassNameResolver;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑格式的类型表。
+ * 类型引用是一个变长整数：常用 JDK 类型有固定的编号，只占 1 个字节；
+ * 服务接口方法的参数类型、返回类型及其字段类型在首次使用该接口时登记，在一条消息中首次出现时写类名的 64 位哈希，
+ * 消费者和提供者从同一个接口推导出相同的类型集合，因此不需要写类名；未登记的类型（如运行时子类）首次出现时仍写类名。
+ * 同一条消息中再次出现的类型只写它在本条消息类型表中的序号。
+ * 按类名读取时只接受已登记的类型、异常，以及父类或接口为已登记应用类型的运行时子类，
+ * 其他类型（如 JDK 中可被利用的反序列化类）需先通过 {@link #registerType} 显式登记。
+ *
+ * @author shing
+ */
+public class CompactTypes {
+
+    /**
+     * 类型引用标记：null
+     */
+    private static final int TYPE_NULL = 0;
+
+    /**
+     * 类型引用标记：类名
+     */
+    private static final int TYPE_NAME = 1;
+
+    /**
+     * 类型引用标记：类名哈希
+     */
+    private static final int TYPE_HASH = 2;
+
+    /**
+     * 固定编号类型，只能在末尾追加，否则新旧版本之间编号不一致
+     */
+    private static final Class<?>[] BUILTIN_TYPES = {boolean.class, byte.class, char.class, short.class, int.class,
+            long.class, float.class, double.class, void.class,
+            Boolean.class, Byte.class, Character.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, Void.class,
+            Object.class, String.class, byte[].class, Object[].class, String[].class,
+            Date.class, BigDecimal.class, BigInteger.class,
+            ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class,
+            HashSet.class, LinkedHashSet.class, TreeSet.class, List.class, Map.class, Set.class, Collection.class};
+
+    /**
+     * 固定编号类型的起始引用值
+     */
+    private static final int BUILTIN_START = TYPE_HASH + 1;
+
+    /**
+     * 消息类型表序号的起始引用值
+     */
+    private static final int TABLE_START = BUILTIN_START + BUILTIN_TYPES.length;
+
+    private static final Map<Class<?>, Integer> BUILTIN_INDEX = new HashMap<>();
+
+    private static final Map<Long, Class<?>> TYPE_BY_ID = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Long> ID_BY_TYPE = new ConcurrentHashMap<>();
+
+    /**
+     * 服务名 => 方法名 => 重载方法（按参数类型排序）
+     */
+    private static final Map<String, Map<String, Overloads>> SERVICE_METHODS = new ConcurrentHashMap<>();
+
+    /**
+     * 已确认可以按类名读取的类型（未直接登记的运行时子类等）
+     */
+    private static final Set<Class<?>> ALLOWED_TYPES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 同名方法及其参数类型（Method#getParameterTypes 每次调用都会复制数组，这里缓存一份）
+     */
+    private static final class Overloads {
+
+        final Method[] methods;
+
+        final Class<?>[][] parameterTypes;
+
+        Overloads(Method[] methods) {
+            this.methods = methods;
+            this.parameterTypes = new Class<?>[methods.length][];
+            for (int i = 0; i < methods.length; i++) {
+                parameterTypes[i] = methods[i].getParameterTypes();
+            }
+        }
+    }
+
+    static {
+        for (int i = 0; i < BUILTIN_TYPES.length; i++) {
+            BUILTIN_INDEX.put(BUILTIN_TYPES[i], i);
+            registerType(BUILTIN_TYPES[i]);
+        }
+    }
+
+    /**
+     * 获取服务方法（首次访问某个服务时登记其所有方法签名中的类型）
+     *
+     * @param serviceName   服务名（接口全限定名）
+     * @param methodName    方法名
+     * @param overloadIndex 同名方法中的序号
+     * @return 方法
+     */
+    public static Method getMethod(String serviceName, String methodName, int overloadIndex) {
+        Method[] methods = getOverloads(serviceName, methodName).methods;
+        if (overloadIndex < 0 || overloadIndex >= methods.length) {
+            throw new RuntimeException("服务方法不存在 " + serviceName + "#" + methodName + "[" + overloadIndex + "]");
+        }
+        return methods[overloadIndex];
+    }
+
+    /**
+     * 查找方法在同名方法中的序号
+     *
+     * @param serviceName    服务名
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型
+     * @return 序号
+     */
+    public static int getOverloadIndex(String serviceName, String methodName, Class<?>[] parameterTypes) {
+        Overloads overloads = getOverloads(serviceName, methodName);
+        if (overloads.methods.length == 1 && parameterTypes == null) {
+            return 0;
+        }
+        for (int i = 0; i < overloads.parameterTypes.length; i++) {
+            if (Arrays.equals(overloads.parameterTypes[i], parameterTypes)) {
+                return i;
+            }
+        }
+        throw new RuntimeException("服务方法不存在 " + serviceName + "#" + methodName);
+    }
+
+    private static Overloads getOverloads(String serviceName, String methodName) {
+        Map<String, Overloads> methods = SERVICE_METHODS.computeIfAbsent(serviceName, CompactTypes::indexService);
+        Overloads overloads = methods.get(methodName);
+        if (overloads == null) {
+            throw new RuntimeException("服务方法不存在 " + serviceName + "#" + methodName);
+        }
+        return overloads;
+    }
+
+    /**
+     * 建立服务的方法表，并登记方法签名中的所有类型
+     *
+     * @param serviceName 服务名
+     * @return 方法名 => 重载方法
+     */
+    private static Map<String, Overloads> indexService(String serviceName) {
+        Class<?> serviceClass = ClassNameResolver.resolve(serviceName);
+        // 服务名来自请求，只接受接口，避免借任意类的方法签名登记类型
+        if (!serviceClass.isInterface()) {
+            throw new RuntimeException("服务名不是接口 " + serviceName);
+        }
+        Map<String, List<Method>> grouped = new HashMap<>();
+        for (Method method : serviceClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            grouped.computeIfAbsent(method.getName(), key -> new ArrayList<>()).add(method);
+            for (Type parameterType : method.getGenericParameterTypes()) {
+                registerType(parameterType);
+            }
+            registerType(method.getGenericReturnType());
+        }
+        Map<String, Overloads> methods = new HashMap<>();
+        grouped.forEach((name, list) -> {
+            // 重载方法按参数类型排序，两端顺序一致
+            list.sort(Comparator.comparing(method -> Arrays.toString(method.getParameterTypes())));
+            methods.put(name, new Overloads(list.toArray(new Method[0])));
+        });
+        return methods;
+    }
+
+    /**
+     * 登记类型（包括数组元素、泛型参数和字段类型），登记后可以按类型 ID 或类名读取
+     *
+     * @param type 类型
+     */
+    public static void registerType(Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (ID_BY_TYPE.containsKey(clazz)) {
+                return;
+            }
+            long id = typeId(clazz.getName());
+            Class<?> existing = TYPE_BY_ID.putIfAbsent(id, clazz);
+            if (existing != null && existing != clazz) {
+                throw new RuntimeException("类型 ID 冲突 " + existing.getName() + " " + clazz.getName());
+            }
+            ID_BY_TYPE.put(clazz, id);
+            if (clazz.isArray()) {
+                registerType(clazz.getComponentType());
+            } else if (!clazz.isPrimitive() && !clazz.isInterface() && !clazz.isEnum() && !isJdkType(clazz)) {
+                for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                            registerType(field.getGenericType());
+                        }
+                    }
+                }
+            }
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            registerType(parameterizedType.getRawType());
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                registerType(argument);
+            }
+        } else if (type instanceof GenericArrayType) {
+            registerType(((GenericArrayType) type).getGenericComponentType());
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                registerType(bound);
+            }
+        } else if (type instanceof TypeVariable) {
+            for (Type bound : ((TypeVariable<?>) type).getBounds()) {
+                registerType(bound);
+            }
+        }
+    }
+
+    /**
+     * 写入类型引用：固定编号类型写编号，本条消息中已出现过的类型写类型表序号，
+     * 否则写类名哈希（已登记）或类名（未登记），并登记到本条消息的类型表
+     *
+     * @param output 输出
+     * @param clazz  类型
+     */
+    public static void writeType(CompactOutput output, Class<?> clazz) {
+        if (clazz == null) {
+            output.writeVarInt(TYPE_NULL);
+            return;
+        }
+        Integer builtinIndex = BUILTIN_INDEX.get(clazz);
+        if (builtinIndex != null) {
+            output.writeVarInt(BUILTIN_START + builtinIndex);
+            return;
+        }
+        int tableIndex = output.typeIndex(clazz);
+        if (tableIndex >= 0) {
+            output.writeVarInt(TABLE_START + tableIndex);
+            return;
+        }
+        Long id = ID_BY_TYPE.get(clazz);
+        if (id != null) {
+            output.writeVarInt(TYPE_HASH);
+            output.writeFixedLong(id);
+        } else {
+            output.writeVarInt(TYPE_NAME);
+            output.writeString(clazz.getName());
+        }
+        output.addType(clazz);
+    }
+
+    /**
+     * 读取类型引用
+     *
+     * @param input 输入
+     * @return 类型
+     */
+    public static Class<?> readType(CompactInput input) {
+        int tag = input.readVarInt();
+        if (tag >= TABLE_START) {
+            return input.getType(tag - TABLE_START);
+        }
+        if (tag >= BUILTIN_START) {
+            return BUILTIN_TYPES[tag - BUILTIN_START];
+        }
+        Class<?> clazz;
+        switch (tag) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_HASH:
+                long id = input.readFixedLong();
+                clazz = TYPE_BY_ID.get(id);
+                if (clazz == null) {
+                    throw new RuntimeException("未登记的类型 ID " + id + "，请确认两端使用相同的服务接口");
+                }
+                break;
+            case TYPE_NAME:
+                String className = input.readString();
+                clazz = ClassNameResolver.resolve(className);
+                if (!isAllowed(clazz)) {
+                    throw new RuntimeException("未登记的类型 " + className + "，请通过 CompactTypes.registerType 登记");
+                }
+                break;
+            default:
+                throw new RuntimeException("类型标记错误 " + tag);
+        }
+        input.addType(clazz);
+        return clazz;
+    }
+
+    /**
+     * 是否允许按类名读取：已登记的类型、异常，或父类 / 接口为已登记应用类型的运行时子类
+     *
+     * @param clazz 类型
+     * @return 是否允许
+     */
+    static boolean isAllowed(Class<?> clazz) {
+        if (ID_BY_TYPE.containsKey(clazz) || ALLOWED_TYPES.contains(clazz)) {
+            return true;
+        }
+        boolean allowed = clazz.isArray() ? isAllowed(clazz.getComponentType())
+                : Throwable.class.isAssignableFrom(clazz) || hasRegisteredSupertype(clazz);
+        if (allowed) {
+            ALLOWED_TYPES.add(clazz);
+        }
+        return allowed;
+    }
+
+    /**
+     * 父类或接口中是否有已登记的应用类型（Object、List 等 JDK 类型不算）
+     *
+     * @param clazz 类型
+     * @return 是否有
+     */
+    private static boolean hasRegisteredSupertype(Class<?> clazz) {
+        List<Class<?>> supertypes = new ArrayList<>(Arrays.asList(clazz.getInterfaces()));
+        if (clazz.getSuperclass() != null) {
+            supertypes.add(clazz.getSuperclass());
+        }
+        for (Class<?> supertype : supertypes) {
+            if (!isJdkType(supertype) && ID_BY_TYPE.containsKey(supertype) || hasRegisteredSupertype(supertype)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否为 JDK 自带类型（不反射其字段）
+     *
+     * @param clazz 类型
+     * @return 是否为 JDK 类型
+     */
+    static boolean isJdkType(Class<?> clazz) {
+        String name = clazz.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.");
+    }
+
+    /**
+     * 类名的 FNV-1a 64 位哈希
+     *
+     * @param className 类名
+     * @return 类型 ID
+     */
+    private static long typeId(String className) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : className.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
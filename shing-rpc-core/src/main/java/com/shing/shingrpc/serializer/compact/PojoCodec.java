@@ -0,0 +1,320 @@
+package com.shing.shingrpc.serializer.compact;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * POJO 编解码器：按固定字段顺序（父类在前，同一类中按字段名排序）依次写字段值，不写字段名和类名。
+ * 字段通过 MethodHandle 读写，int / long / boolean / double 字段不装箱。也支持 record（按组件顺序，经规范构造器创建）。
+ *
+ * @author shing
+ */
+class PojoCodec<T> implements CompactCodec<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<T> type;
+
+    private FieldCodec[] fields;
+
+    /**
+     * 无参构造器 ()Object
+     */
+    private MethodHandle constructor;
+
+    /**
+     * record 规范构造器 (Object[])Object
+     */
+    private MethodHandle recordConstructor;
+
+    PojoCodec(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * 生成字段编解码器（与构造分开，字段类型可以引用自身）
+     */
+    void init() {
+        try {
+            if (type.isRecord()) {
+                initRecord();
+                return;
+            }
+            List<Field> fieldList = new ArrayList<>();
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                hierarchy.add(0, c);
+            }
+            for (Class<?> c : hierarchy) {
+                List<Field> declaredFields = new ArrayList<>();
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        declaredFields.add(field);
+                    }
+                }
+                declaredFields.sort(Comparator.comparing(Field::getName));
+                fieldList.addAll(declaredFields);
+            }
+            FieldCodec[] fieldCodecs = new FieldCodec[fieldList.size()];
+            for (int i = 0; i < fieldCodecs.length; i++) {
+                Field field = fieldList.get(i);
+                field.setAccessible(true);
+                fieldCodecs[i] = FieldCodec.of(field.getType(), LOOKUP.unreflectGetter(field), LOOKUP.unreflectSetter(field),
+                        field.getGenericType());
+            }
+            Constructor<T> noArgConstructor;
+            try {
+                noArgConstructor = type.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("紧凑序列化需要无参构造器 " + type.getName());
+            }
+            noArgConstructor.setAccessible(true);
+            this.constructor = LOOKUP.unreflectConstructor(noArgConstructor).asType(MethodType.methodType(Object.class));
+            this.fields = fieldCodecs;
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("无法访问字段 " + type.getName(), e);
+        }
+    }
+
+    private void initRecord() throws IllegalAccessException {
+        RecordComponent[] components = type.getRecordComponents();
+        FieldCodec[] fieldCodecs = new FieldCodec[components.length];
+        Class<?>[] componentTypes = new Class[components.length];
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            componentTypes[i] = component.getType();
+            component.getAccessor().setAccessible(true);
+            fieldCodecs[i] = FieldCodec.of(component.getType(), LOOKUP.unreflect(component.getAccessor()), null,
+                    component.getGenericType());
+        }
+        try {
+            Constructor<T> canonicalConstructor = type.getDeclaredConstructor(componentTypes);
+            canonicalConstructor.setAccessible(true);
+            this.recordConstructor = LOOKUP.unreflectConstructor(canonicalConstructor)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("record 规范构造器不存在 " + type.getName(), e);
+        }
+        this.fields = fieldCodecs;
+    }
+
+    @Override
+    public void write(CompactOutput output, T value) {
+        try {
+            for (FieldCodec field : fields) {
+                field.write(output, value);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("序列化失败 " + type.getName(), e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read(CompactInput input) {
+        try {
+            if (recordConstructor != null) {
+                Object[] values = new Object[fields.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = fields[i].readValue(input);
+                }
+                return (T) (Object) recordConstructor.invokeExact(values);
+            }
+            Object instance = (Object) constructor.invokeExact();
+            for (FieldCodec field : fields) {
+                field.read(input, instance);
+            }
+            return (T) instance;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("反序列化失败 " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 单个字段的编解码
+     */
+    private abstract static class FieldCodec {
+
+        static FieldCodec of(Class<?> fieldType, MethodHandle getter, MethodHandle setter, java.lang.reflect.Type genericType) {
+            if (fieldType == int.class) {
+                return new IntField(getter, setter);
+            }
+            if (fieldType == long.class) {
+                return new LongField(getter, setter);
+            }
+            if (fieldType == boolean.class) {
+                return new BooleanField(getter, setter);
+            }
+            if (fieldType == double.class) {
+                return new DoubleField(getter, setter);
+            }
+            return new ObjectField(getter, setter, CompactCodecs.getNullableCodec(genericType));
+        }
+
+        abstract void write(CompactOutput output, Object instance) throws Throwable;
+
+        abstract void read(CompactInput input, Object instance) throws Throwable;
+
+        /**
+         * 只读取值（record 使用）
+         */
+        abstract Object readValue(CompactInput input);
+
+        static MethodHandle adapt(MethodHandle handle, MethodType type) {
+            return handle == null ? null : handle.asType(type);
+        }
+    }
+
+    private static class IntField extends FieldCodec {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        IntField(MethodHandle getter, MethodHandle setter) {
+            this.getter = adapt(getter, MethodType.methodType(int.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, int.class));
+        }
+
+        @Override
+        void write(CompactOutput output, Object instance) throws Throwable {
+            output.writeInt((int) getter.invokeExact(instance));
+        }
+
+        @Override
+        void read(CompactInput input, Object instance) throws Throwable {
+            setter.invokeExact(instance, input.readInt());
+        }
+
+        @Override
+        Object readValue(CompactInput input) {
+            return input.readInt();
+        }
+    }
+
+    private static class LongField extends FieldCodec {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        LongField(MethodHandle getter, MethodHandle setter) {
+            this.getter = adapt(getter, MethodType.methodType(long.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, long.class));
+        }
+
+        @Override
+        void write(CompactOutput output, Object instance) throws Throwable {
+            output.writeLong((long) getter.invokeExact(instance));
+        }
+
+        @Override
+        void read(CompactInput input, Object instance) throws Throwable {
+            setter.invokeExact(instance, input.readLong());
+        }
+
+        @Override
+        Object readValue(CompactInput input) {
+            return input.readLong();
+        }
+    }
+
+    private static class BooleanField extends FieldCodec {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        BooleanField(MethodHandle getter, MethodHandle setter) {
+            this.getter = adapt(getter, MethodType.methodType(boolean.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, boolean.class));
+        }
+
+        @Override
+        void write(CompactOutput output, Object instance) throws Throwable {
+            output.writeBoolean((boolean) getter.invokeExact(instance));
+        }
+
+        @Override
+        void read(CompactInput input, Object instance) throws Throwable {
+            setter.invokeExact(instance, input.readBoolean());
+        }
+
+        @Override
+        Object readValue(CompactInput input) {
+            return input.readBoolean();
+        }
+    }
+
+    private static class DoubleField extends FieldCodec {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        DoubleField(MethodHandle getter, MethodHandle setter) {
+            this.getter = adapt(getter, MethodType.methodType(double.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, double.class));
+        }
+
+        @Override
+        void write(CompactOutput output, Object instance) throws Throwable {
+            output.writeDouble((double) getter.invokeExact(instance));
+        }
+
+        @Override
+        void read(CompactInput input, Object instance) throws Throwable {
+            setter.invokeExact(instance, input.readDouble());
+        }
+
+        @Override
+        Object readValue(CompactInput input) {
+            return input.readDouble();
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class ObjectField extends FieldCodec {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        private final CompactCodec codec;
+
+        ObjectField(MethodHandle getter, MethodHandle setter, CompactCodec<?> codec) {
+            this.getter = adapt(getter, MethodType.methodType(Object.class, Object.class));
+            this.setter = adapt(setter, MethodType.methodType(void.class, Object.class, Object.class));
+            this.codec = codec;
+        }
+
+        @Override
+        void write(CompactOutput output, Object instance) throws Throwable {
+            codec.write(output, (Object) getter.invokeExact(instance));
+        }
+
+        @Override
+        void read(CompactInput input, Object instance) throws Throwable {
+            setter.invokeExact(instance, codec.read(input));
+        }
+
+        @Override
+        Object readValue(CompactInput input) {
+            return codec.read(input);
+        }
+    }
+}
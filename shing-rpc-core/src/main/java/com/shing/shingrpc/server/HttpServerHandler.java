@@ -4,6 +4,8 @@ import com.shing.shingrpc.RpcApplication;
 import com.shing.shingrpc.model.RpcRequest;
 import com.shing.shingrpc.model.RpcResponse;
 import com.shing.shingrpc.registry.LocalRegistry;
+import com.shing.shingrpc.registry.LocalService;
+import com.shing.shingrpc.registry.ServiceMethod;
 import com.shing.shingrpc.serializer.JdkSerializer;
 import com.shing.shingrpc.serializer.Serializer;
 import com.shing.shingrpc.serializer.SerializerFactory;
@@ -13,7 +15,6 @@ import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
 
 /**
  * HTTP 请求处理
@@ -51,13 +52,19 @@ public class HttpServerHandler implements Handler<HttpServerRequest> {
             }
 
             try {
-                // 获取要调用的服务实现类，通过反射调用
-                Class<?> implClass = LocalRegistry.getService(rpcRequest.getServiceName());
-                Method method = implClass.getMethod(rpcRequest.getMethodName(), rpcRequest.getParameterTypes());
-                Object result = method.invoke(implClass.newInstance(), rpcRequest.getArgs());
+                // 获取要调用的本地服务，从分派表中查找方法并调用
+                LocalService localService = LocalRegistry.getLocalService(rpcRequest.getServiceName());
+                if (localService == null) {
+                    throw new RuntimeException("未找到服务 " + rpcRequest.getServiceName());
+                }
+                ServiceMethod serviceMethod = localService.getMethod(rpcRequest.getMethodName(), rpcRequest.getParameterTypes());
+                if (serviceMethod == null) {
+                    throw new RuntimeException("未找到服务方法 " + rpcRequest.getServiceName() + "#" + rpcRequest.getMethodName());
+                }
+                Object result = localService.invoke(serviceMethod, rpcRequest.getArgs());
                 // 封装返回结果
                 rpcResponse.setData(result);
-                rpcResponse.setDataType(method.getReturnType());
+                rpcResponse.setDataType(serviceMethod.getReturnType());
                 rpcResponse.setMessage("ok");
             } catch (Exception e) {
                 e.printStackTrace();
@@ -0,0 +1,17 @@
+package com.shing.shingrpc.server.dispatcher;
+
+/**
+ * 调用派发器接口，决定服务端在哪个线程上执行服务方法。
+ *
+ * @author shing
+ */
+public interface Dispatcher {
+
+    /**
+     * 派发一次服务调用
+     *
+     * @param task 服务调用任务（包括执行服务方法并写回响应）
+     * @throws java.util.concurrent.RejectedExecutionException 派发器已满，无法接受新任务
+     */
+    void dispatch(Runnable task);
+}
@@ -0,0 +1,38 @@
+package com.shing.shingrpc.server.dispatcher;
+
+import com.shing.shingrpc.spi.SpiLoader;
+
+import java.util.Map;
+
+/**
+ * 调用派发器工厂（工厂模式，用于获取派发器对象）
+ *
+ * @author shing
+ */
+public class DispatcherFactory {
+
+    /**
+     * 已加载的派发器：键名 => 实现类
+     */
+    private static final Map<String, Class<?>> KEY_CLASS_MAP = SpiLoader.load(Dispatcher.class);
+
+    /**
+     * 派发器键名是否存在（不创建实例）
+     *
+     * @param key 派发器键名
+     * @return 是否存在
+     */
+    public static boolean contains(String key) {
+        return key != null && KEY_CLASS_MAP.containsKey(key);
+    }
+
+    /**
+     * 获取实例
+     *
+     * @param key 派发器键名
+     * @return 派发器实例
+     */
+    public static Dispatcher getInstance(String key) {
+        return SpiLoader.getInstance(Dispatcher.class, key);
+    }
+}
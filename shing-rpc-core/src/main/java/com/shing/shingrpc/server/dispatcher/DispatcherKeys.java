@@ -0,0 +1,24 @@
+package com.shing.shingrpc.server.dispatcher;
+
+/**
+ * 调用派发器键名常量
+ *
+ * @author shing
+ */
+public interface DispatcherKeys {
+
+    /**
+     * 直接在事件循环线程上执行，适用于不阻塞的轻量方法
+     */
+    String EVENT_LOOP = "eventLoop";
+
+    /**
+     * 在有界业务线程池中执行
+     */
+    String WORKER = "worker";
+
+    /**
+     * 每个请求一个虚拟线程（JDK 21+）
+     */
+    String VIRTUAL = "virtual";
+}
@@ -0,0 +1,15 @@
+package com.shing.shingrpc.server.dispatcher;
+
+/**
+ * 事件循环派发器，直接在当前（事件循环）线程上执行。
+ * 没有线程切换开销，但方法一旦阻塞会拖慢同一事件循环上的所有连接。
+ *
+ * @author shing
+ */
+public class EventLoopDispatcher implements Dispatcher {
+
+    @Override
+    public void dispatch(Runnable task) {
+        task.run();
+    }
+}
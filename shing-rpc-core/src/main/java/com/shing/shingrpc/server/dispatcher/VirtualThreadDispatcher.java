@@ -0,0 +1,43 @@
+package com.shing.shingrpc.server.dispatcher;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程派发器，每个请求一个虚拟线程（JDK 21+）。
+ * 运行在不支持虚拟线程的 JDK 上时退化为共享的业务线程池派发器（与 worker 派发器是同一个实例，不另建线程池）。
+ *
+ * @author shing
+ */
+@Slf4j
+public class VirtualThreadDispatcher implements Dispatcher {
+
+    private final ExecutorService executor;
+
+    private final Dispatcher fallbackDispatcher;
+
+    public VirtualThreadDispatcher() {
+        ExecutorService virtualExecutor = null;
+        try {
+            // 框架以 JDK 17 编译，通过反射获取虚拟线程执行器
+            virtualExecutor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("当前 JDK 不支持虚拟线程，改用业务线程池派发");
+        }
+        this.executor = virtualExecutor;
+        this.fallbackDispatcher = virtualExecutor == null ? DispatcherFactory.getInstance(DispatcherKeys.WORKER) : null;
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        if (executor == null) {
+            fallbackDispatcher.dispatch(task);
+            return;
+        }
+        executor.execute(task);
+    }
+}
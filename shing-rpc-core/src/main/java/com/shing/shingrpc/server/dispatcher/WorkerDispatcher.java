@@ -0,0 +1,35 @@
+package com.shing.shingrpc.server.dispatcher;
+
+import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.config.TcpServerConfig;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 业务线程池派发器，在有界线程池中执行，队列满时拒绝新请求。
+ *
+ * @author shing
+ */
+public class WorkerDispatcher implements Dispatcher {
+
+    private final ThreadPoolExecutor executor;
+
+    public WorkerDispatcher() {
+        TcpServerConfig tcpServerConfig = RpcApplication.getRpcConfig().getTcpServerConfig();
+        int workerThreads = tcpServerConfig.getWorkerThreads();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(tcpServerConfig.getWorkerQueueCapacity()),
+                new DefaultThreadFactory("shing-rpc-worker", true),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        executor.execute(task);
+    }
+}
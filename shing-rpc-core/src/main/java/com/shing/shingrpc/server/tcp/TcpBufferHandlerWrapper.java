@@ -1,59 +1,108 @@
 package com.shing.shingrpc.server.tcp;
 
+import com.shing.shingrpc.RpcApplication;
 import com.shing.shingrpc.protocol.ProtocolConstant;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.parsetools.RecordParser;
 
 
 /**
- * 装饰者模式（使用 recordParser 对原有的 buffer 处理能力进行增强）
+ * 装饰者模式（对原有的 buffer 处理能力进行增强，按 消息头 + 消息体 切分出完整的协议帧）
+ * 一次读取中的多个完整帧直接从输入 buffer 上切片（slice）交给下游，不复制数据；
+ * 只有跨读取的半包才会复制到暂存 buffer 中，后续数据直接追加到暂存 buffer，每个字节最多复制一次。
  *
  * @author shing
  */
 public class TcpBufferHandlerWrapper implements Handler<Buffer> {
-    private final RecordParser recordParser;
 
-    public TcpBufferHandlerWrapper(Handler<io.vertx.core.buffer.Buffer> bufferHandler) {
-        recordParser = initRecordParser(bufferHandler);
+    /**
+     * 完整帧处理器
+     */
+    private final Handler<Buffer> bufferHandler;
+
+    /**
+     * 帧错误处理器（如帧长度超出限制），为 null 时直接抛出异常
+     */
+    private final Handler<Throwable> errorHandler;
+
+    /**
+     * 帧最大长度（消息头 + 消息体）
+     */
+    private final int maxFrameLength;
+
+    /**
+     * 上次读取剩余的半包数据
+     */
+    private Buffer pendingBuffer;
+
+    /**
+     * 是否已发生帧错误，之后的数据不再处理
+     */
+    private boolean failed;
+
+    public TcpBufferHandlerWrapper(Handler<Buffer> bufferHandler) {
+        this(bufferHandler, null);
+    }
+
+    public TcpBufferHandlerWrapper(Handler<Buffer> bufferHandler, Handler<Throwable> errorHandler) {
+        this.bufferHandler = bufferHandler;
+        this.errorHandler = errorHandler;
+        this.maxFrameLength = RpcApplication.getRpcConfig().getMaxFrameLength();
     }
 
     @Override
     public void handle(Buffer buffer) {
+        if (failed) {
+            return;
+        }
+        // 有半包时把新数据拼接到后面，否则直接在输入 buffer 上切帧
+        Buffer data = buffer;
+        if (pendingBuffer != null) {
+            pendingBuffer.appendBuffer(buffer);
+            data = pendingBuffer;
+            pendingBuffer = null;
+        }
 
-    }
+        int offset = 0;
+        int length = data.length();
+        while (length - offset >= ProtocolConstant.MESSAGE_HEADER_LENGTH) {
+            // 读取消息体长度
+            int bodyLength = data.getInt(offset + 13);
+            if (bodyLength < 0 || bodyLength > maxFrameLength - ProtocolConstant.MESSAGE_HEADER_LENGTH) {
+                fail(new RuntimeException("消息长度超出限制 " + bodyLength + ", 最大帧长度 " + maxFrameLength));
+                return;
+            }
+            int frameLength = ProtocolConstant.MESSAGE_HEADER_LENGTH + bodyLength;
+            if (length - offset < frameLength) {
+                break;
+            }
+            // 已拼接为完整帧，执行处理
+            bufferHandler.handle(data.slice(offset, offset + frameLength));
+            offset += frameLength;
+        }
 
-    private RecordParser initRecordParser(Handler<io.vertx.core.buffer.Buffer> bufferHandler) {
-        // 构造 parser
-        RecordParser parser = RecordParser.newFixed(ProtocolConstant.MESSAGE_HEADER_LENGTH);
-
-        parser.setOutput(new Handler<io.vertx.core.buffer.Buffer>() {
-            // 初始化
-            int size = -1;
-            // 一次完整的读取（头 + 体）
-            Buffer resultBuffer = Buffer.buffer();
-
-            @Override
-            public void handle(io.vertx.core.buffer.Buffer buffer) {
-                if (-1 == size) {
-                    // 读取消息体长度
-                    size = buffer.getInt(13);
-                    parser.fixedSizeMode(size);
-                    // 写入头信息到结果
-                    resultBuffer.appendBuffer(buffer);
-                } else {
-                    // 写入体信息到结果
-                    resultBuffer.appendBuffer(buffer);
-                    // 已拼接为完整 Buffer，执行处理
-                    bufferHandler.handle(resultBuffer);
-                    // 重置一轮
-                    parser.fixedSizeMode(ProtocolConstant.MESSAGE_HEADER_LENGTH);
-                    size = -1;
-                    resultBuffer = Buffer.buffer();
-                }
+        if (offset < length) {
+            if (offset == 0 && data != buffer) {
+                // 暂存的半包仍未拼成完整帧，继续在其后追加，避免每次读取都复制整个半包
+                pendingBuffer = data;
+            } else {
+                // 剩余的半包复制出来，等待后续数据
+                pendingBuffer = data.getBuffer(offset, length);
             }
-        });
+        }
+    }
 
-        return parser;
+    /**
+     * 帧错误处理
+     *
+     * @param e 错误
+     */
+    private void fail(RuntimeException e) {
+        failed = true;
+        pendingBuffer = null;
+        if (errorHandler == null) {
+            throw e;
+        }
+        errorHandler.handle(e);
     }
 }
@@ -0,0 +1,185 @@
+package com.shing.shingrpc.server.tcp;
+
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import com.shing.shingrpc.protocol.ProtocolMessage;
+import com.shing.shingrpc.protocol.ProtocolMessageDecoder;
+import com.shing.shingrpc.protocol.ProtocolMessageEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import io.vertx.core.net.NetSocket;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP 长连接，由 {@link TcpConnectionPool} 统一创建和回收。
+ * 同一连接上可并发发送多个请求（多路复用），响应通过消息头中的 requestId 与请求匹配。
+ *
+ * @author shing
+ */
+@Slf4j
+public class TcpConnection {
+
+    /**
+     * 请求 ID 生成器（全局递增，保证同一连接上不重复）
+     */
+    private static final AtomicLong REQUEST_ID_GENERATOR = new AtomicLong();
+
+    /**
+     * 底层套接字
+     */
+    private final NetSocket socket;
+
+    /**
+     * 共享的超时时间轮
+     */
+    private final Timer timeoutTimer;
+
+    /**
+     * 在途请求表：requestId => 等待中的响应
+     */
+    private final Map<Long, CompletableFuture<RpcResponse>> inFlightRequests = new ConcurrentHashMap<>();
+
+    /**
+     * 健康状态，连接关闭或发生异常后置为 false，不再被选用
+     */
+    @Getter
+    private volatile boolean healthy = true;
+
+    /**
+     * 最近一次活跃（发送请求或收到响应）时间
+     */
+    @Getter
+    private volatile long lastActiveTime = System.currentTimeMillis();
+
+    TcpConnection(NetSocket socket, Timer timeoutTimer) {
+        this.socket = socket;
+        this.timeoutTimer = timeoutTimer;
+        // 接收响应，按 requestId 找到对应的在途请求
+        socket.handler(new TcpBufferHandlerWrapper(buffer -> {
+            lastActiveTime = System.currentTimeMillis();
+            ProtocolMessage<RpcResponse> rpcResponseProtocolMessage;
+            try {
+                rpcResponseProtocolMessage = (ProtocolMessage<RpcResponse>) ProtocolMessageDecoder.decode(buffer);
+            } catch (Exception e) {
+                // 无法解析的响应无法匹配到请求，连接状态已不可信
+                log.error("协议消息解码错误 {}", socket.remoteAddress(), e);
+                markUnhealthy(new RuntimeException("协议消息解码错误", e));
+                socket.close();
+                return;
+            }
+            long requestId = rpcResponseProtocolMessage.getHeader().getRequestId();
+            CompletableFuture<RpcResponse> responseFuture = inFlightRequests.remove(requestId);
+            if (responseFuture == null) {
+                log.warn("未找到 requestId={} 对应的请求，响应已丢弃", requestId);
+                return;
+            }
+            responseFuture.complete(rpcResponseProtocolMessage.getBody());
+        }, e -> {
+            // 帧长度非法，后续数据无法再正确切分
+            log.error("协议帧错误 {}", socket.remoteAddress(), e);
+            markUnhealthy(e);
+            socket.close();
+        }));
+        socket.closeHandler(v -> markUnhealthy(new RuntimeException("连接已关闭")));
+        socket.exceptionHandler(e -> {
+            log.error("TCP 连接异常 {}", socket.remoteAddress(), e);
+            markUnhealthy(e);
+            socket.close();
+        });
+    }
+
+    /**
+     * 发送请求（分配 requestId 并登记到在途请求表）
+     * 超时由共享时间轮检查，到期后从在途请求表移除并以 TimeoutException 失败。
+     *
+     * @param protocolMessage 请求协议消息
+     * @param timeoutMillis   超时时间（单位毫秒）
+     * @return 响应结果
+     */
+    CompletableFuture<RpcResponse> request(ProtocolMessage<RpcRequest> protocolMessage, long timeoutMillis) {
+        CompletableFuture<RpcResponse> responseFuture = new CompletableFuture<>();
+        if (!healthy) {
+            responseFuture.completeExceptionally(new RuntimeException("连接不可用"));
+            return responseFuture;
+        }
+        long requestId = REQUEST_ID_GENERATOR.incrementAndGet();
+        protocolMessage.getHeader().setRequestId(requestId);
+        inFlightRequests.put(requestId, responseFuture);
+        // 登记后再次检查，避免与连接关闭并发导致请求无人处理
+        if (!healthy && inFlightRequests.remove(requestId) != null) {
+            responseFuture.completeExceptionally(new RuntimeException("连接不可用"));
+            return responseFuture;
+        }
+        Timeout timeout = timeoutTimer.newTimeout(t -> {
+            CompletableFuture<RpcResponse> expiredFuture = inFlightRequests.remove(requestId);
+            if (expiredFuture != null) {
+                expiredFuture.completeExceptionally(new TimeoutException(
+                        String.format("调用超时 %dms, requestId=%d, remote=%s", timeoutMillis, requestId, socket.remoteAddress())));
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        // 提前完成（收到响应或连接断开）时取消超时任务，释放时间轮中的槽位
+        responseFuture.whenComplete((rpcResponse, e) -> timeout.cancel());
+        lastActiveTime = System.currentTimeMillis();
+        try {
+            // 池化直接内存，写入完成后释放
+            ByteBuf byteBuf = ProtocolMessageEncoder.encodePooled(protocolMessage);
+            socket.write(BufferImpl.buffer(byteBuf), ar -> {
+                byteBuf.release();
+                // 写入失败（如连接已断开）时请求不会有响应，直接失败而不是等到超时
+                if (ar.failed()) {
+                    CompletableFuture<RpcResponse> failedFuture = inFlightRequests.remove(requestId);
+                    if (failedFuture != null) {
+                        failedFuture.completeExceptionally(ar.cause());
+                    }
+                }
+            });
+        } catch (IOException e) {
+            inFlightRequests.remove(requestId);
+            responseFuture.completeExceptionally(new RuntimeException("协议消息编码错误", e));
+        }
+        return responseFuture;
+    }
+
+    /**
+     * 标记为不健康，并让所有在途请求失败
+     *
+     * @param cause 原因
+     */
+    private void markUnhealthy(Throwable cause) {
+        healthy = false;
+        for (Long requestId : inFlightRequests.keySet()) {
+            CompletableFuture<RpcResponse> responseFuture = inFlightRequests.remove(requestId);
+            if (responseFuture != null) {
+                responseFuture.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * 关闭连接
+     */
+    void close() {
+        healthy = false;
+        socket.close();
+    }
+
+    /**
+     * 获取在途请求数
+     *
+     * @return 在途请求数
+     */
+    public int getInFlightCount() {
+        return inFlightRequests.size();
+    }
+}
@@ -0,0 +1,234 @@
+package com.shing.shingrpc.server.tcp;
+
+import com.shing.shingrpc.config.TcpClientConfig;
+import io.netty.util.Timer;
+import io.vertx.core.net.NetClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 单个服务节点（host:port）的 TCP 连接池。
+ * 连接支持多路复用，请求不独占连接：每次选择在途请求最少的健康连接，
+ * 只有当所有连接的在途请求都达到阈值且未达最大连接数时才新建连接；
+ * 定时回收空闲超时的连接，但保留不少于最小连接数的连接。
+ * 连接池长时间未被使用（如服务节点已下线，服务发现不再返回它）或连续建连失败时整体关闭，由调用方移除，不再补齐连接。
+ *
+ * @author shing
+ */
+@Slf4j
+public class TcpConnectionPool {
+
+    /**
+     * 连续建连失败达到该次数后不再补齐连接，没有可用连接时关闭连接池
+     */
+    static final int MAX_CONNECT_FAILURES = 3;
+
+    private final String host;
+
+    private final int port;
+
+    private final NetClient netClient;
+
+    private final TcpClientConfig tcpClientConfig;
+
+    /**
+     * 共享的超时时间轮
+     */
+    private final Timer timeoutTimer;
+
+    /**
+     * 已建立的连接
+     */
+    private final List<TcpConnection> connections = new CopyOnWriteArrayList<>();
+
+    /**
+     * 正在建立的连接
+     */
+    private final List<CompletableFuture<TcpConnection>> pendingConnects = new ArrayList<>();
+
+    /**
+     * 连接池是否已关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 最近一次获取连接的时间
+     */
+    private volatile long lastAcquireTime = System.currentTimeMillis();
+
+    /**
+     * 连续建连失败次数，建连成功后清零
+     */
+    private int connectFailures;
+
+    public TcpConnectionPool(String host, int port, NetClient netClient, TcpClientConfig tcpClientConfig, Timer timeoutTimer) {
+        this.host = host;
+        this.port = port;
+        this.netClient = netClient;
+        this.tcpClientConfig = tcpClientConfig;
+        this.timeoutTimer = timeoutTimer;
+    }
+
+    /**
+     * 选择一个连接用于发送请求
+     *
+     * @return 可用连接，连接池已关闭时返回 null（由调用方重新创建连接池）
+     */
+    public CompletableFuture<TcpConnection> acquire() {
+        // 先记录使用时间再检查关闭状态，与 evictIdle 中的先检查使用时间再关闭配合，保证不会从刚关闭的连接池获取连接
+        lastAcquireTime = System.currentTimeMillis();
+        if (closed) {
+            return null;
+        }
+        // 快速路径：已有连接负载未达阈值，直接复用
+        TcpConnection leastLoaded = selectLeastLoaded();
+        if (leastLoaded != null && leastLoaded.getInFlightCount() < tcpClientConfig.getMaxInFlightPerConnection()) {
+            return CompletableFuture.completedFuture(leastLoaded);
+        }
+        synchronized (this) {
+            // 移除已失效的连接，腾出名额
+            connections.removeIf(connection -> !connection.isHealthy());
+            if (leastLoaded == null) {
+                leastLoaded = selectLeastLoaded();
+            }
+            if (connections.size() + pendingConnects.size() < tcpClientConfig.getMaxConnections()) {
+                CompletableFuture<TcpConnection> connectFuture = connect();
+                // 已有可用连接时不等待新连接建立，新连接供后续请求使用
+                return leastLoaded != null ? CompletableFuture.completedFuture(leastLoaded) : connectFuture;
+            }
+            if (leastLoaded != null) {
+                return CompletableFuture.completedFuture(leastLoaded);
+            }
+            // 连接数已达上限但都在建立中，等待其中一个建立完成
+            return pendingConnects.get((int) (Thread.currentThread().getId() % pendingConnects.size()));
+        }
+    }
+
+    /**
+     * 回收空闲超时和不健康的连接，并将连接数补齐到最小连接数。
+     * 连接池空闲超时（期间未获取过连接且没有在途请求）或连续建连失败且没有可用连接时关闭连接池。
+     *
+     * @return 连接池是否已关闭（调用方应将其移除）
+     */
+    public boolean evictIdle() {
+        if (closed) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            boolean poolIdle = now - lastAcquireTime > tcpClientConfig.getIdleTimeout()
+                    && pendingConnects.isEmpty()
+                    && connections.stream().allMatch(connection -> connection.getInFlightCount() == 0);
+            boolean unreachable = connectFailures >= MAX_CONNECT_FAILURES
+                    && pendingConnects.isEmpty()
+                    && connections.stream().noneMatch(TcpConnection::isHealthy);
+            if (poolIdle || unreachable) {
+                log.info("关闭{}的连接池 {}:{}", poolIdle ? "空闲" : "无法连接", host, port);
+                close();
+                return true;
+            }
+            for (TcpConnection connection : connections) {
+                boolean idleTimeout = connection.getInFlightCount() == 0
+                        && now - connection.getLastActiveTime() > tcpClientConfig.getIdleTimeout();
+                if (!connection.isHealthy() || (idleTimeout && connections.size() > tcpClientConfig.getMinConnections())) {
+                    connections.remove(connection);
+                    connection.close();
+                }
+            }
+            // 预热到最小连接数（连续建连失败时不再补齐，等待请求触发建连）
+            if (connectFailures < MAX_CONNECT_FAILURES) {
+                int toCreate = tcpClientConfig.getMinConnections() - connections.size() - pendingConnects.size();
+                for (int i = 0; i < toCreate; i++) {
+                    connect();
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 连接池是否已关闭
+     *
+     * @return 是否已关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 当前已建立的连接数
+     *
+     * @return 连接数
+     */
+    int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * 关闭连接池及所有连接
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            for (TcpConnection connection : connections) {
+                connection.close();
+            }
+            connections.clear();
+        }
+    }
+
+    /**
+     * 选择在途请求最少的健康连接
+     *
+     * @return 连接，没有健康连接时返回 null
+     */
+    private TcpConnection selectLeastLoaded() {
+        TcpConnection leastLoaded = null;
+        int leastInFlight = Integer.MAX_VALUE;
+        for (TcpConnection connection : connections) {
+            if (!connection.isHealthy()) {
+                continue;
+            }
+            int inFlight = connection.getInFlightCount();
+            if (inFlight < leastInFlight) {
+                leastLoaded = connection;
+                leastInFlight = inFlight;
+            }
+        }
+        return leastLoaded;
+    }
+
+    /**
+     * 建立新连接（需持有锁调用）
+     *
+     * @return 新连接
+     */
+    private CompletableFuture<TcpConnection> connect() {
+        CompletableFuture<TcpConnection> connectionFuture = new CompletableFuture<>();
+        pendingConnects.add(connectionFuture);
+        netClient.connect(port, host, result -> {
+            TcpConnection connection = result.succeeded() ? new TcpConnection(result.result(), timeoutTimer) : null;
+            synchronized (this) {
+                pendingConnects.remove(connectionFuture);
+                connectFailures = connection != null ? 0 : connectFailures + 1;
+                if (connection != null && !closed) {
+                    connections.add(connection);
+                }
+            }
+            if (connection != null) {
+                if (closed) {
+                    connection.close();
+                }
+                connectionFuture.complete(connection);
+                return;
+            }
+            log.error("Failed to connect to TCP server {}:{}", host, port, result.cause());
+            connectionFuture.completeExceptionally(new RuntimeException("连接服务端失败 " + host + ":" + port, result.cause()));
+        });
+        return connectionFuture;
+    }
+}
@@ -1,5 +1,7 @@
 package com.shing.shingrpc.server.tcp;
 
+import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.config.TcpServerConfig;
 import com.shing.shingrpc.model.RpcRequest;
 import com.shing.shingrpc.model.RpcResponse;
 import com.shing.shingrpc.protocol.ProtocolMessage;
@@ -7,18 +9,29 @@ import com.shing.shingrpc.protocol.ProtocolMessageDecoder;
 import com.shing.shingrpc.protocol.ProtocolMessageEncoder;
 import com.shing.shingrpc.protocol.ProtocolMessageTypeEnum;
 import com.shing.shingrpc.registry.LocalRegistry;
+import com.shing.shingrpc.registry.LocalService;
+import com.shing.shingrpc.registry.ServiceMethod;
+import com.shing.shingrpc.server.dispatcher.Dispatcher;
+import com.shing.shingrpc.server.dispatcher.DispatcherFactory;
+import io.netty.buffer.ByteBuf;
 import io.vertx.core.Handler;
-import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
 import io.vertx.core.net.NetSocket;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 处理TCP服务器的连接请求，负责接收请求、处理请求并发送响应。
+ * 解码在事件循环线程上完成，服务方法按配置的派发器（事件循环 / 业务线程池 / 虚拟线程）执行。
  *
  * @author shing
  */
+@Slf4j
 public class TcpServerHandler implements Handler<NetSocket> {
     /**
      * 处理接收到的NetSocket连接。
@@ -34,40 +47,158 @@ public class TcpServerHandler implements Handler<NetSocket> {
             try {
                 protocolMessage = (ProtocolMessage<RpcRequest>) ProtocolMessageDecoder.decode(buffer);
             } catch (IOException e) {
-                throw new RuntimeException("协议消息解码错误");
+                throw new RuntimeException("协议消息解码错误", e);
             }
             RpcRequest rpcRequest = protocolMessage.getBody();
+            ProtocolMessage.Header header = protocolMessage.getHeader();
 
-            // 处理 TCP 请求
-            // 构建响应结果对象
-            RpcResponse rpcResponse = new RpcResponse();
+            // 按服务 / 方法选择派发器执行调用
+            String dispatcherKey = getDispatcherKey(rpcRequest);
+            Dispatcher dispatcher;
             try {
-                // 通过服务名称获取服务实现类，使用反射调用相应方法
-                Class<?> implClass = LocalRegistry.getService(rpcRequest.getServiceName());
-                Method method = implClass.getMethod(rpcRequest.getMethodName(), rpcRequest.getParameterTypes());
-                Object result = method.invoke(implClass.newInstance(), rpcRequest.getArgs());
-                // 设置方法返回结果到响应对象
-                rpcResponse.setData(result);
-                rpcResponse.setDataType(method.getReturnType());
-                rpcResponse.setMessage("ok");
-            } catch (Exception e) {
-                e.printStackTrace();
-                // 设置异常信息到响应对象
-                rpcResponse.setMessage(e.getMessage());
-                rpcResponse.setException(e);
+                dispatcher = DispatcherFactory.getInstance(dispatcherKey);
+            } catch (RuntimeException e) {
+                // 派发器不存在（如通过自定义配置绕过了启动校验），返回错误响应，避免客户端一直等到超时
+                log.error("派发器不存在 {}", dispatcherKey, e);
+                doErrorResponse(socket, header, "派发器不存在 " + dispatcherKey, e);
+                return;
             }
-
-            // 编码RPC响应并发送给客户端
-            ProtocolMessage.Header header = protocolMessage.getHeader();
-            header.setType((byte) ProtocolMessageTypeEnum.RESPONSE.getKey());
-            ProtocolMessage<RpcResponse> responseProtocolMessage = new ProtocolMessage<>(header, rpcResponse);
             try {
-                Buffer encode = ProtocolMessageEncoder.encode(responseProtocolMessage);
-                socket.write(encode);
-            } catch (IOException e) {
-                throw new RuntimeException("协议消息编码错误");
+                dispatcher.dispatch(() -> doInvoke(socket, header, rpcRequest));
+            } catch (RejectedExecutionException e) {
+                doErrorResponse(socket, header, "服务端繁忙，请求被拒绝", e);
             }
+        }, e -> {
+            // 帧长度非法，后续数据无法再正确切分，直接断开连接
+            log.error("协议帧错误 {}", socket.remoteAddress(), e);
+            socket.close();
         });
         socket.handler(bufferHandlerWrapper);
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取派发器键名，优先级：方法级 > 服务级 > 全局
+     *
+     * @param rpcRequest RPC请求对象
+     * @return 派发器键名
+     */
+    private String getDispatcherKey(RpcRequest rpcRequest) {
+        TcpServerConfig tcpServerConfig = RpcApplication.getRpcConfig().getTcpServerConfig();
+        Map<String, String> serviceDispatchers = tcpServerConfig.getServiceDispatchers();
+        if (serviceDispatchers != null && !serviceDispatchers.isEmpty()) {
+            String dispatcher = serviceDispatchers.get(rpcRequest.getServiceName() + "#" + rpcRequest.getMethodName());
+            if (dispatcher == null) {
+                dispatcher = serviceDispatchers.get(rpcRequest.getServiceName());
+            }
+            if (dispatcher != null) {
+                return dispatcher;
+            }
+        }
+        return tcpServerConfig.getDispatcher();
+    }
+
+    /**
+     * 执行服务方法并发送响应
+     *
+     * @param socket     客户端连接
+     * @param header     请求消息头
+     * @param rpcRequest RPC请求对象
+     */
+    private void doInvoke(NetSocket socket, ProtocolMessage.Header header, RpcRequest rpcRequest) {
+        // 处理 TCP 请求
+        // 构建响应结果对象
+        RpcResponse rpcResponse = new RpcResponse();
+        try {
+            // 通过服务名称获取本地服务，从分派表中查找方法并调用
+            LocalService localService = LocalRegistry.getLocalService(rpcRequest.getServiceName());
+            if (localService == null) {
+                throw new RuntimeException("未找到服务 " + rpcRequest.getServiceName());
+            }
+            ServiceMethod serviceMethod = localService.getMethod(rpcRequest.getMethodName(), rpcRequest.getParameterTypes());
+            if (serviceMethod == null) {
+                throw new RuntimeException("未找到服务方法 " + rpcRequest.getServiceName() + "#" + rpcRequest.getMethodName());
+            }
+            Object result = localService.invoke(serviceMethod, rpcRequest.getArgs());
+            // 异步实现：等待结果完成后再响应，不阻塞当前线程
+            if (result instanceof CompletionStage) {
+                ((CompletionStage<?>) result).whenComplete((data, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        rpcResponse.setMessage(cause.getMessage());
+                        rpcResponse.setException(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+                    } else {
+                        rpcResponse.setData(data);
+                        rpcResponse.setDataType(data == null ? Object.class : data.getClass());
+                        rpcResponse.setMessage("ok");
+                    }
+                    doResponse(socket, header, rpcResponse);
+                });
+                return;
+            }
+            // 设置方法返回结果到响应对象
+            rpcResponse.setData(result);
+            rpcResponse.setDataType(serviceMethod.getReturnType());
+            rpcResponse.setMessage("ok");
+        } catch (Exception e) {
+            e.printStackTrace();
+            // 设置异常信息到响应对象
+            rpcResponse.setMessage(e.getMessage());
+            rpcResponse.setException(e);
+        }
+        doResponse(socket, header, rpcResponse);
+    }
+
+    /**
+     * 发送错误响应
+     *
+     * @param socket  客户端连接
+     * @param header  请求消息头
+     * @param message 错误信息
+     * @param e       异常
+     */
+    private void doErrorResponse(NetSocket socket, ProtocolMessage.Header header, String message, Exception e) {
+        RpcResponse rpcResponse = new RpcResponse();
+        rpcResponse.setMessage(message);
+        rpcResponse.setException(e);
+        doResponse(socket, header, rpcResponse);
+    }
+
+    /**
+     * 编码RPC响应并发送给客户端（沿用请求的消息头，保证 requestId 一致）。
+     * 响应编码失败（如返回值无法序列化）时改为发送只包含错误信息的失败响应，客户端无需等到超时
+     *
+     * @param socket      客户端连接
+     * @param header      请求消息头
+     * @param rpcResponse 响应结果
+     */
+    private void doResponse(NetSocket socket, ProtocolMessage.Header header, RpcResponse rpcResponse) {
+        header.setType((byte) ProtocolMessageTypeEnum.RESPONSE.getKey());
+        try {
+            write(socket, new ProtocolMessage<>(header, rpcResponse));
+        } catch (Exception e) {
+            log.error("协议消息编码错误 requestId={}", header.getRequestId(), e);
+            // 原始异常及其 cause 可能同样无法序列化，只保留错误信息
+            RpcResponse errorResponse = new RpcResponse();
+            errorResponse.setMessage("协议消息编码错误 " + e.getMessage());
+            errorResponse.setException(new RuntimeException(errorResponse.getMessage()));
+            try {
+                write(socket, new ProtocolMessage<>(header, errorResponse));
+            } catch (Exception ex) {
+                log.error("错误响应编码失败 requestId={}", header.getRequestId(), ex);
+            }
+        }
+    }
+
+    /**
+     * 编码协议消息并写入连接
+     *
+     * @param socket          客户端连接
+     * @param protocolMessage 响应协议消息
+     * @throws IOException 编码失败
+     */
+    private void write(NetSocket socket, ProtocolMessage<RpcResponse> protocolMessage) throws IOException {
+        // 池化直接内存，写入完成后释放
+        ByteBuf byteBuf = ProtocolMessageEncoder.encodePooled(protocolMessage);
+        socket.write(BufferImpl.buffer(byteBuf), ar -> byteBuf.release());
+    }
+}
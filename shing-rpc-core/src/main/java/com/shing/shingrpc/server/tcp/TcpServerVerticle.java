@@ -0,0 +1,41 @@
+package com.shing.shingrpc.server.tcp;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetServerOptions;
+
+/**
+ * TCP 服务端 Verticle。
+ * 部署多个实例时每个实例绑定到不同的事件循环，Vert.x 会让它们共享同一监听端口，
+ * 新连接在各实例之间轮询分配，从而把连接处理分摊到多个 CPU 核上。
+ *
+ * @author shing
+ */
+public class TcpServerVerticle extends AbstractVerticle {
+
+    /**
+     * 监听端口
+     */
+    private final int port;
+
+    public TcpServerVerticle(int port) {
+        this.port = port;
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        NetServer server = vertx.createNetServer(new NetServerOptions()
+                .setTcpNoDelay(true)
+                .setTcpKeepAlive(true));
+        // 每个连接的请求交给 TcpServerHandler 解码、调用并响应
+        server.connectHandler(new TcpServerHandler());
+        server.listen(port, result -> {
+            if (result.succeeded()) {
+                startPromise.complete();
+            } else {
+                startPromise.fail(result.cause());
+            }
+        });
+    }
+}
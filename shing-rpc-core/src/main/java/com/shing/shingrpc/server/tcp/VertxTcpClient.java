@@ -1,27 +1,54 @@
 package com.shing.shingrpc.server.tcp;
 
 import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.config.RpcConfig;
+import com.shing.shingrpc.config.TcpClientConfig;
 import com.shing.shingrpc.model.RpcRequest;
 import com.shing.shingrpc.model.RpcResponse;
 import com.shing.shingrpc.model.ServiceMetaInfo;
 import com.shing.shingrpc.protocol.*;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.vertx.core.Vertx;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetClient;
-import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.NetClientOptions;
 
-import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Vertx TCP 请求客户端
  *
  * 用于通过TCP协议向指定的服务端发送RPC请求，并获取响应。
+ * 全局共享一个 Vertx 实例和 NetClient，每个服务节点（host:port）维护一个长连接池，
+ * 连接上可同时承载多个在途请求。
  * @author shing
  */
 public class VertxTcpClient {
 
+    /**
+     * 共享的 Vertx 实例（懒加载）
+     */
+    private static volatile Vertx vertx;
+
+    /**
+     * 共享的 TCP 客户端
+     */
+    private static NetClient netClient;
+
+    /**
+     * 共享的超时检查时间轮（所有在途请求共用一个，避免每个请求一个定时任务）
+     */
+    private static HashedWheelTimer timeoutTimer;
+
+    /**
+     * 连接池：host:port => 连接池
+     */
+    private static final Map<String, TcpConnectionPool> CONNECTION_POOL_MAP = new ConcurrentHashMap<>();
+
     /**
      * 发送RPC请求并获取响应
      * @param rpcRequest RPC请求对象
@@ -31,52 +58,130 @@ public class VertxTcpClient {
      * @throws ExecutionException 如果获取CompletableFuture结果时发生异常则抛出此异常
      */
     public static RpcResponse doRequest(RpcRequest rpcRequest, ServiceMetaInfo serviceMetaInfo) throws InterruptedException, ExecutionException {
-        // 创建Vertx实例和NetClient客户端
-        Vertx vertx = Vertx.vertx();
-        NetClient netClient = vertx.createNetClient();
-        CompletableFuture<RpcResponse> responseFuture = new CompletableFuture<>();
-
-        // 尝试连接到服务端
-        netClient.connect(serviceMetaInfo.getServicePort(), serviceMetaInfo.getServiceHost(), result -> {
-            if (!result.succeeded()) {
-                System.err.println("Failed to connect to TCP server");
-                return;
+        return doRequestAsync(rpcRequest, serviceMetaInfo).get();
+    }
+
+    /**
+     * 异步发送RPC请求，不阻塞调用线程
+     *
+     * @param rpcRequest RPC请求对象
+     * @param serviceMetaInfo 服务元信息，包含服务的主机地址和端口号
+     * @return 收到响应时完成的 CompletableFuture（在 Vert.x 事件循环线程上完成，回调中不要执行阻塞操作）
+     */
+    public static CompletableFuture<RpcResponse> doRequestAsync(RpcRequest rpcRequest, ServiceMetaInfo serviceMetaInfo) {
+        // 构造协议消息
+        ProtocolMessage<RpcRequest> protocolMessage = new ProtocolMessage<>();
+        ProtocolMessage.Header header = new ProtocolMessage.Header();
+        header.setMagic(ProtocolConstant.PROTOCOL_MAGIC);
+        header.setVersion(ProtocolConstant.PROTOCOL_VERSION);
+        header.setSerializer((byte) ProtocolMessageSerializerEnum.getEnumByValue(RpcApplication.getRpcConfig().getSerializer()).getKey());
+        header.setType((byte) ProtocolMessageTypeEnum.REQUEST.getKey());
+        protocolMessage.setHeader(header);
+        protocolMessage.setBody(rpcRequest);
+
+        // 从连接池选择连接，多个请求共享连接，响应按 requestId 匹配
+        long timeoutMillis = getTimeout(rpcRequest);
+        return acquireConnection(serviceMetaInfo)
+                .thenCompose(connection -> connection.request(protocolMessage, timeoutMillis));
+    }
+
+    /**
+     * 从服务节点的连接池获取连接，连接池刚被回收关闭时重新创建连接池
+     *
+     * @param serviceMetaInfo 服务元信息
+     * @return 可用连接
+     */
+    private static CompletableFuture<TcpConnection> acquireConnection(ServiceMetaInfo serviceMetaInfo) {
+        while (true) {
+            CompletableFuture<TcpConnection> connectionFuture = getConnectionPool(serviceMetaInfo).acquire();
+            if (connectionFuture != null) {
+                return connectionFuture;
             }
-            NetSocket socket = result.result();
-
-            // 构造协议消息并发送请求
-            ProtocolMessage<RpcRequest> protocolMessage = new ProtocolMessage<>();
-            ProtocolMessage.Header header = new ProtocolMessage.Header();
-            header.setMagic(ProtocolConstant.PROTOCOL_MAGIC);
-            header.setVersion(ProtocolConstant.PROTOCOL_VERSION);
-            header.setSerializer((byte) ProtocolMessageSerializerEnum.getEnumByValue(RpcApplication.getRpcConfig().getSerializer()).getKey());
-            header.setType((byte) ProtocolMessageTypeEnum.REQUEST.getKey());
-
-            // 编码请求并发送至服务端
-            try {
-                Buffer encodeBuffer = ProtocolMessageEncoder.encode(protocolMessage);
-                socket.write(encodeBuffer);
-            } catch (IOException e) {
-                throw new RuntimeException("协议消息编码错误");
+        }
+    }
+
+    /**
+     * 获取调用超时时间，优先级：方法级 > 服务级 > 全局
+     *
+     * @param rpcRequest RPC请求对象
+     * @return 超时时间（单位毫秒）
+     */
+    private static long getTimeout(RpcRequest rpcRequest) {
+        RpcConfig rpcConfig = RpcApplication.getRpcConfig();
+        Map<String, Long> serviceTimeouts = rpcConfig.getServiceTimeouts();
+        if (serviceTimeouts != null && !serviceTimeouts.isEmpty()) {
+            Long timeout = serviceTimeouts.get(rpcRequest.getServiceName() + "#" + rpcRequest.getMethodName());
+            if (timeout == null) {
+                timeout = serviceTimeouts.get(rpcRequest.getServiceName());
+            }
+            if (timeout != null) {
+                return timeout;
             }
+        }
+        return rpcConfig.getTimeout();
+    }
 
-            // 设置接收响应的处理逻辑
-            TcpBufferHandlerWrapper bufferHandlerWrapper = new TcpBufferHandlerWrapper(buffer -> {
-                try {
-                    // 解码接收到的响应
-                    ProtocolMessage<RpcResponse> rpcResponseProtocolMessage = (ProtocolMessage<RpcResponse>) ProtocolMessageDecoder.decode(buffer);
-                    responseFuture.complete(rpcResponseProtocolMessage.getBody());
-                } catch (IOException e) {
-                    throw new RuntimeException("协议消息解码错误");
-                }
-            });
-            socket.handler(bufferHandlerWrapper);
-        });
+    /**
+     * 获取服务节点对应的连接池
+     *
+     * @param serviceMetaInfo 服务元信息
+     * @return 连接池
+     */
+    private static TcpConnectionPool getConnectionPool(ServiceMetaInfo serviceMetaInfo) {
+        initClient();
+        String host = serviceMetaInfo.getServiceHost();
+        int port = serviceMetaInfo.getServicePort();
+        TcpClientConfig tcpClientConfig = RpcApplication.getRpcConfig().getTcpClientConfig();
+        String key = host + ":" + port;
+        TcpConnectionPool connectionPool = CONNECTION_POOL_MAP.get(key);
+        if (connectionPool != null && !connectionPool.isClosed()) {
+            return connectionPool;
+        }
+        return CONNECTION_POOL_MAP.compute(key, (k, existing) -> existing != null && !existing.isClosed()
+                ? existing : new TcpConnectionPool(host, port, netClient, tcpClientConfig, timeoutTimer));
+    }
 
-        // 等待响应完成并返回
-        RpcResponse rpcResponse = responseFuture.get();
+    /**
+     * 初始化共享的 Vertx 实例和 TCP 客户端（双检锁）
+     */
+    private static void initClient() {
+        if (vertx == null) {
+            synchronized (VertxTcpClient.class) {
+                if (vertx == null) {
+                    TcpClientConfig tcpClientConfig = RpcApplication.getRpcConfig().getTcpClientConfig();
+                    Vertx newVertx = Vertx.vertx();
+                    netClient = newVertx.createNetClient(new NetClientOptions()
+                            .setConnectTimeout(tcpClientConfig.getConnectTimeout())
+                            .setTcpNoDelay(true)
+                            .setTcpKeepAlive(true));
+                    timeoutTimer = new HashedWheelTimer(new DefaultThreadFactory("shing-rpc-timeout", true),
+                            10, TimeUnit.MILLISECONDS, 512);
+                    // 定时回收空闲连接，移除已关闭的连接池（节点长时间未被调用或无法连接）
+                    newVertx.setPeriodic(tcpClientConfig.getIdleCheckInterval(),
+                            id -> CONNECTION_POOL_MAP.entrySet().removeIf(entry -> entry.getValue().evictIdle()));
+                    // JVM 退出时释放连接
+                    Runtime.getRuntime().addShutdownHook(new Thread(VertxTcpClient::destroy));
+                    vertx = newVertx;
+                }
+            }
+        }
+    }
 
-        return rpcResponse;
+    /**
+     * 关闭所有连接池并释放 Vertx 资源
+     */
+    public static void destroy() {
+        synchronized (VertxTcpClient.class) {
+            CONNECTION_POOL_MAP.values().forEach(TcpConnectionPool::close);
+            CONNECTION_POOL_MAP.clear();
+            if (vertx != null) {
+                vertx.close();
+                timeoutTimer.stop();
+                vertx = null;
+                netClient = null;
+                timeoutTimer = null;
+            }
+        }
     }
 
 }
@@ -90,8 +90,9 @@ public class SpiLoader {
                 throw new RuntimeException(errorMsg, e);
             }*/
             // 将SPI Loader 改成了使用单例双检索实现了懒加载
-            if (!instanceCache.containsKey(implClassName)) {
-                synchronized (SpiLoader.class) {
+            synchronized (SpiLoader.class) {
+                // 加锁后再次检查，并发首次获取时只创建一个实例（如派发器的线程池）
+                if (!instanceCache.containsKey(implClassName)) {
                     try {
                         instanceCache.put(implClassName, implClass.newInstance());
                     } catch (InstantiationException | IllegalAccessException e) {
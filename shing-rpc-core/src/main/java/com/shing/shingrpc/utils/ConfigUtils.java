@@ -3,6 +3,9 @@ package com.shing.shingrpc.utils;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.setting.dialect.Props;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 配置工具类
  *
@@ -40,4 +43,32 @@ public class ConfigUtils {
         Props props = new Props(configFileBuilder.toString());
         return props.toBean(tClass, prefix);
     }
+
+    /**
+     * 将配置文件加载出的 Map 展开为单层 Map。
+     * 配置文件中 Map 的键含有 "."（如服务的全限定名）时会被加载为嵌套 Map，这里按 "." 重新拼接为完整的键，
+     * 值统一转为字符串
+     *
+     * @param map 配置中的 Map
+     * @return 展开后的 Map
+     */
+    public static Map<String, String> flattenMap(Map<?, ?> map) {
+        Map<String, String> flatMap = new LinkedHashMap<>();
+        if (map != null) {
+            flattenMap("", map, flatMap);
+        }
+        return flatMap;
+    }
+
+    private static void flattenMap(String prefix, Map<?, ?> map, Map<String, String> flatMap) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String key = prefix + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                flattenMap(key + ".", (Map<?, ?>) value, flatMap);
+            } else if (value != null) {
+                flatMap.put(key, value.toString());
+            }
+        }
+    }
 }
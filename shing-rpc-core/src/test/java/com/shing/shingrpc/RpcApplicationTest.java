@@ -0,0 +1,42 @@
+package com.shing.shingrpc;
+
+import com.shing.shingrpc.config.RpcConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RPC 框架配置规整测试
+ *
+ * @author shing
+ */
+public class RpcApplicationTest {
+
+    @Test
+    public void normalizeServiceTimeouts() {
+        RpcConfig rpcConfig = new RpcConfig();
+        Map<String, Object> timeouts = new HashMap<>();
+        timeouts.put("UserService#getUser", "500");
+        rpcConfig.setServiceTimeouts((Map) Collections.singletonMap("com", timeouts));
+
+        RpcApplication.normalizeServiceConfig(rpcConfig);
+        Assert.assertEquals(Long.valueOf(500), rpcConfig.getServiceTimeouts().get("com.UserService#getUser"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void invalidServiceTimeoutFailsLoudly() {
+        RpcConfig rpcConfig = new RpcConfig();
+        rpcConfig.setServiceTimeouts((Map) Collections.singletonMap("com.UserService", "5s"));
+        RpcApplication.normalizeServiceConfig(rpcConfig);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void unknownDispatcherFailsLoudly() {
+        RpcConfig rpcConfig = new RpcConfig();
+        rpcConfig.getTcpServerConfig().setServiceDispatchers((Map) Collections.singletonMap("com.UserService", "wroker"));
+        RpcApplication.normalizeServiceConfig(rpcConfig);
+    }
+}
@@ -0,0 +1,119 @@
+package com.shing.shingrpc.proxy;
+
+import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.RpcContext;
+import com.shing.shingrpc.config.RegistryConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import com.shing.shingrpc.registry.LocalRegistry;
+import com.shing.shingrpc.registry.Registry;
+import com.shing.shingrpc.registry.RegistryFactory;
+import com.shing.shingrpc.registry.RegistryKeys;
+import com.shing.shingrpc.server.tcp.VertxTcpServer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务代理本地回环测试（进程内注册中心）
+ *
+ * @author shing
+ */
+public class ServiceProxyTest {
+
+    private static final int PORT = 18090;
+
+    private static String originalRegistry;
+
+    private static boolean originalMock;
+
+    private static Registry registry;
+
+    private static ServiceMetaInfo serviceMetaInfo;
+
+    public interface GreetService {
+
+        String greet(String name);
+
+        CompletableFuture<String> greetAsync(String name);
+    }
+
+    public static class GreetServiceImpl implements GreetService {
+
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        @Override
+        public CompletableFuture<String> greetAsync(String name) {
+            return CompletableFuture.completedFuture("hello " + name);
+        }
+    }
+
+    /**
+     * 没有提供者的服务
+     */
+    public interface MissingService {
+
+        String greet(String name);
+
+        CompletableFuture<String> greetAsync(String name);
+    }
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        // 默认配置文件开启了 mock，这里需要真实的远程调用
+        originalMock = RpcApplication.getRpcConfig().isMock();
+        RpcApplication.getRpcConfig().setMock(false);
+        RegistryConfig registryConfig = RpcApplication.getRpcConfig().getRegistryConfig();
+        originalRegistry = registryConfig.getRegistry();
+        registryConfig.setRegistry(RegistryKeys.MEMORY);
+        RegistryConfig memoryRegistryConfig = new RegistryConfig();
+        memoryRegistryConfig.setRegistry(RegistryKeys.MEMORY);
+        registry = RegistryFactory.getInstance(RegistryKeys.MEMORY);
+        registry.init(memoryRegistryConfig);
+
+        LocalRegistry.register(GreetService.class.getName(), GreetServiceImpl.class);
+        new VertxTcpServer().doStart(PORT);
+        serviceMetaInfo = new ServiceMetaInfo();
+        serviceMetaInfo.setServiceName(GreetService.class.getName());
+        serviceMetaInfo.setServiceHost("localhost");
+        serviceMetaInfo.setServicePort(PORT);
+        registry.register(serviceMetaInfo);
+    }
+
+    @AfterClass
+    public static void destroy() {
+        registry.unRegister(serviceMetaInfo);
+        RpcApplication.getRpcConfig().getRegistryConfig().setRegistry(originalRegistry);
+        RpcApplication.getRpcConfig().setMock(originalMock);
+    }
+
+    @Test
+    public void asyncCalls() throws Exception {
+        GreetService greetService = ServiceProxyFactory.getProxy(GreetService.class);
+        Assert.assertEquals("hello a", greetService.greet("a"));
+        Assert.assertEquals("hello b", greetService.greetAsync("b").get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("hello c", RpcContext.async(() -> greetService.greet("c")).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void asyncCallsWithoutProviderReturnFailedFuture() {
+        MissingService missingService = ServiceProxyFactory.getProxy(MissingService.class);
+        // 同步调用直接抛出异常
+        Assert.assertThrows(RuntimeException.class, () -> missingService.greet("a"));
+        // 异步调用不抛出异常，失败通过返回的 CompletableFuture 传递
+        assertFailed(missingService.greetAsync("b"));
+        assertFailed(RpcContext.async(() -> missingService.greet("c")));
+    }
+
+    private static void assertFailed(CompletableFuture<String> future) {
+        ExecutionException e = Assert.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("暂无服务地址", e.getCause().getMessage());
+    }
+}
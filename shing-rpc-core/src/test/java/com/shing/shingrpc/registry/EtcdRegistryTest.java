@@ -0,0 +1,90 @@
+package com.shing.shingrpc.registry;
+
+import com.shing.shingrpc.config.RegistryConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * etcd 注册中心不可用时的服务发现测试（不需要启动 etcd）
+ *
+ * @author shing
+ */
+public class EtcdRegistryTest {
+
+    /**
+     * 没有服务监听的地址
+     */
+    private static final String UNAVAILABLE_ADDRESS = "http://127.0.0.1:1";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(timeout = 20000)
+    public void discoveryFallsBackToSnapshotWhenUnavailable() {
+        File file = new File(temporaryFolder.getRoot(), "registry-snapshot.json");
+        ServiceMetaInfo node = new ServiceMetaInfo();
+        node.setServiceName("userService");
+        node.setServiceHost("localhost");
+        node.setServicePort(8080);
+        RegistryServiceCache cache = new RegistryServiceCache();
+        cache.enableSnapshot(file.getPath(), "etcd@" + UNAVAILABLE_ADDRESS);
+        cache.writeCache(node.getServiceKey(), Collections.singletonList(node), 1);
+        cache.closeSnapshot();
+
+        RegistryConfig registryConfig = registryConfig();
+        registryConfig.setSnapshotFile(file.getPath());
+        EtcdRegistry registry = new EtcdRegistry();
+        registry.init(registryConfig);
+        try {
+            // 未开启 staleWhileRevalidate，等待注册中心超时后使用快照兜底
+            List<ServiceMetaInfo> serviceMetaInfoList = registry.serviceDiscovery(node.getServiceKey());
+            Assert.assertEquals(Collections.singletonList(node), serviceMetaInfoList);
+        } finally {
+            registry.destroy();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void discoveryFailsWithoutLastKnownNodes() {
+        EtcdRegistry registry = new EtcdRegistry();
+        registry.init(registryConfig());
+        try {
+            Assert.assertThrows(RuntimeException.class, () -> registry.serviceDiscovery("userService:1.0"));
+        } finally {
+            registry.destroy();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void destroyReleasesResourcesWhenRevokeFails() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "registry-snapshot.json");
+        RegistryConfig registryConfig = registryConfig();
+        registryConfig.setSnapshotFile(file.getPath());
+        EtcdRegistry registry = new EtcdRegistry();
+        registry.init(registryConfig);
+        // 模拟已注册过节点：持有租约，但注册中心不可用，撤销租约会超时失败
+        Field leaseId = EtcdRegistry.class.getDeclaredField("leaseId");
+        leaseId.setAccessible(true);
+        leaseId.setLong(registry, 1L);
+
+        // 撤销失败不抛出异常，仍然保存快照并释放资源
+        registry.destroy();
+        Assert.assertTrue(file.isFile());
+    }
+
+    private static RegistryConfig registryConfig() {
+        RegistryConfig registryConfig = new RegistryConfig();
+        registryConfig.setRegistry("etcd");
+        registryConfig.setAddress(UNAVAILABLE_ADDRESS);
+        registryConfig.setTimeout(1000L);
+        return registryConfig;
+    }
+}
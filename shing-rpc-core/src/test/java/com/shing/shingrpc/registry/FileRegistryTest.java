@@ -0,0 +1,107 @@
+package com.shing.shingrpc.registry;
+
+import com.shing.shingrpc.config.RegistryConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 文件注册中心测试
+ *
+ * @author shing
+ */
+public class FileRegistryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final FileRegistry provider = new FileRegistry();
+
+    private final FileRegistry consumer = new FileRegistry();
+
+    @Before
+    public void init() {
+        RegistryConfig registryConfig = new RegistryConfig();
+        registryConfig.setRegistry(RegistryKeys.FILE);
+        registryConfig.setAddress(temporaryFolder.getRoot().getPath());
+        registryConfig.setTtl(600L);
+        provider.init(registryConfig);
+        consumer.init(registryConfig);
+    }
+
+    @After
+    public void destroy() {
+        provider.destroy();
+        consumer.destroy();
+    }
+
+    private static ServiceMetaInfo node(int port) {
+        ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
+        serviceMetaInfo.setServiceName("fileService");
+        serviceMetaInfo.setServiceHost("localhost");
+        serviceMetaInfo.setServicePort(port);
+        return serviceMetaInfo;
+    }
+
+    /**
+     * 等待服务节点满足条件（目录监听事件异步到达）
+     */
+    private List<ServiceMetaInfo> await(String serviceKey, Predicate<List<ServiceMetaInfo>> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<ServiceMetaInfo> serviceMetaInfoList = consumer.serviceDiscovery(serviceKey);
+        while (!condition.test(serviceMetaInfoList) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            serviceMetaInfoList = consumer.serviceDiscovery(serviceKey);
+        }
+        return serviceMetaInfoList;
+    }
+
+    @Test
+    public void registerDiscoverAndWatch() throws Exception {
+        ServiceMetaInfo node1 = node(8080);
+        ServiceMetaInfo node2 = node(8081);
+        String serviceKey = node1.getServiceKey();
+        provider.register(node1);
+        Assert.assertEquals(Collections.singletonList(node1), consumer.serviceDiscovery(serviceKey));
+
+        provider.register(node2);
+        Assert.assertEquals(2, await(serviceKey, list -> list.size() == 2).size());
+        provider.unRegister(node1);
+        Assert.assertEquals(Collections.singletonList(node2), await(serviceKey, list -> list.size() == 1));
+
+        // 提供者心跳续期，超过存活时间后节点仍然存在
+        Thread.sleep(1000);
+        Assert.assertEquals(Collections.singletonList(node2), consumer.serviceDiscovery(serviceKey));
+    }
+
+    @Test
+    public void expiredNodeIsRemoved() throws Exception {
+        ServiceMetaInfo node = node(8082);
+        String serviceKey = node.getServiceKey();
+        provider.register(node);
+        Assert.assertEquals(Collections.singletonList(node), consumer.serviceDiscovery(serviceKey));
+
+        // 模拟提供者宕机：节点文件留在目录中，但不再续期
+        Path nodeFile;
+        try (Stream<Path> files = Files.walk(temporaryFolder.getRoot().toPath())) {
+            nodeFile = files.filter(file -> file.toString().endsWith(".json")).findFirst().orElseThrow(AssertionError::new);
+        }
+        byte[] content = Files.readAllBytes(nodeFile);
+        provider.destroy();
+        Files.write(nodeFile, content);
+        Assert.assertEquals(Collections.singletonList(node), await(serviceKey, list -> list.size() == 1));
+        Assert.assertTrue(await(serviceKey, List::isEmpty).isEmpty());
+        Assert.assertFalse(Files.exists(nodeFile));
+    }
+}
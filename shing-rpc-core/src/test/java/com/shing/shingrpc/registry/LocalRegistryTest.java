@@ -0,0 +1,81 @@
+package com.shing.shingrpc.registry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 本地注册中心测试
+ *
+ * @author shing
+ */
+public class LocalRegistryTest {
+
+    public static class CounterService {
+
+        private int count;
+
+        public int increase() {
+            return ++count;
+        }
+
+        public int increase(int delta) {
+            return count += delta;
+        }
+    }
+
+    public interface GreetService {
+        String greet(String name);
+    }
+
+    public static class GreetServiceImpl implements GreetService {
+
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        public String internal() {
+            return "internal";
+        }
+    }
+
+    @Test
+    public void invokeWithScope() throws Exception {
+        LocalRegistry.register("singleton", CounterService.class, ServiceScope.SINGLETON);
+        LocalRegistry.register("prototype", CounterService.class, ServiceScope.PROTOTYPE);
+        LocalService singleton = LocalRegistry.getLocalService("singleton");
+        LocalService prototype = LocalRegistry.getLocalService("prototype");
+        ServiceMethod increase = singleton.getMethod("increase", new Class[0]);
+
+        Assert.assertEquals(1, singleton.invoke(increase, new Object[0]));
+        Assert.assertEquals(2, singleton.invoke(increase, new Object[0]));
+        // 无参方法的参数数组可以为 null
+        Assert.assertEquals(3, singleton.invoke(increase, null));
+        Assert.assertEquals(1, prototype.invoke(increase, new Object[0]));
+        Assert.assertEquals(1, prototype.invoke(increase, new Object[0]));
+    }
+
+    @Test
+    public void getMethodBySignature() {
+        LocalRegistry.register("counter", new CounterService());
+        LocalService localService = LocalRegistry.getLocalService("counter");
+        Assert.assertEquals(1, localService.getMethod("increase", new Class[]{int.class}).getParameterTypes().length);
+        Assert.assertNull(localService.getMethod("increase", new Class[]{String.class}));
+        Assert.assertNull(localService.getMethod("decrease", new Class[0]));
+    }
+
+    @Test
+    public void exposeOnlyServiceInterfaceMethods() throws Exception {
+        LocalRegistry.register(GreetService.class.getName(), GreetServiceImpl.class);
+        LocalService localService = LocalRegistry.getLocalService(GreetService.class.getName());
+        ServiceMethod greet = localService.getMethod("greet", new Class[]{String.class});
+        Assert.assertEquals("hello shing", localService.invoke(greet, new Object[]{"shing"}));
+        // 实现类上的其他公开方法和 Object 的方法不对外暴露
+        Assert.assertNull(localService.getMethod("internal", new Class[0]));
+        Assert.assertNull(localService.getMethod("hashCode", new Class[0]));
+        // 没有同名接口时暴露实现类的公开方法，同样不包括 Object 的方法
+        LocalService counter = new LocalService(CounterService.class, ServiceScope.SINGLETON);
+        Assert.assertNotNull(counter.getMethod("increase", new Class[0]));
+        Assert.assertNull(counter.getMethod("wait", new Class[0]));
+    }
+}
@@ -0,0 +1,77 @@
+package com.shing.shingrpc.registry;
+
+import com.shing.shingrpc.config.RegistryConfig;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 进程内注册中心测试
+ *
+ * @author shing
+ */
+public class MemoryRegistryTest {
+
+    private final MemoryRegistry provider = new MemoryRegistry();
+
+    private final MemoryRegistry consumer = new MemoryRegistry();
+
+    @Before
+    public void init() {
+        RegistryConfig registryConfig = new RegistryConfig();
+        registryConfig.setRegistry(RegistryKeys.MEMORY);
+        provider.init(registryConfig);
+        consumer.init(registryConfig);
+    }
+
+    @After
+    public void destroy() {
+        provider.destroy();
+        consumer.destroy();
+    }
+
+    private static ServiceMetaInfo node(String serviceName, int port) {
+        ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
+        serviceMetaInfo.setServiceName(serviceName);
+        serviceMetaInfo.setServiceHost("localhost");
+        serviceMetaInfo.setServicePort(port);
+        return serviceMetaInfo;
+    }
+
+    @Test
+    public void registerDiscoverAndWatch() {
+        ServiceMetaInfo node1 = node("memoryService", 8080);
+        ServiceMetaInfo node2 = node("memoryService", 8081);
+        String serviceKey = node1.getServiceKey();
+        provider.register(node1);
+        Assert.assertEquals(Collections.singletonList(node1), consumer.serviceDiscovery(serviceKey));
+
+        // 新增和删除节点后消费端缓存立即更新
+        provider.register(node2);
+        Assert.assertEquals(2, consumer.serviceDiscovery(serviceKey).size());
+        provider.unRegister(node1);
+        Assert.assertEquals(Collections.singletonList(node2), consumer.serviceDiscovery(serviceKey));
+    }
+
+    @Test
+    public void expiredNodeIsRemoved() throws Exception {
+        ServiceMetaInfo node = node("expiringService", 8080);
+        Assert.assertTrue(consumer.serviceDiscovery(node.getServiceKey()).isEmpty());
+
+        // 模拟提供者宕机：写入后不再续期
+        MemoryRegistryStore.getInstance().put(node, 200);
+        Assert.assertEquals(Collections.singletonList(node), consumer.serviceDiscovery(node.getServiceKey()));
+        long deadline = System.currentTimeMillis() + 3000;
+        List<ServiceMetaInfo> serviceMetaInfoList = consumer.serviceDiscovery(node.getServiceKey());
+        while (!serviceMetaInfoList.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            serviceMetaInfoList = consumer.serviceDiscovery(node.getServiceKey());
+        }
+        Assert.assertTrue(serviceMetaInfoList.isEmpty());
+    }
+}
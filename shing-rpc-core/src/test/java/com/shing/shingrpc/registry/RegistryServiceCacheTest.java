@@ -0,0 +1,116 @@
+package com.shing.shingrpc.registry;
+
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 注册中心服务缓存测试
+ *
+ * @author shing
+ */
+public class RegistryServiceCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ServiceMetaInfo node(String serviceName, int port) {
+        ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
+        serviceMetaInfo.setServiceName(serviceName);
+        serviceMetaInfo.setServiceHost("localhost");
+        serviceMetaInfo.setServicePort(port);
+        return serviceMetaInfo;
+    }
+
+    @Test
+    public void cachePerService() {
+        RegistryServiceCache cache = new RegistryServiceCache();
+        ServiceMetaInfo userNode = node("userService", 8080);
+        ServiceMetaInfo orderNode = node("orderService", 8081);
+        cache.writeCache(userNode.getServiceKey(), Collections.singletonList(userNode), 10);
+        cache.writeCache(orderNode.getServiceKey(), Collections.singletonList(orderNode), 10);
+
+        Assert.assertEquals(Collections.singletonList(userNode), cache.readCache(userNode.getServiceKey()));
+        Assert.assertEquals(Collections.singletonList(orderNode), cache.readCache(orderNode.getServiceKey()));
+        Assert.assertNull(cache.readCache("unknown:1.0"));
+
+        // 删除一个服务的节点不影响其他服务
+        cache.removeNode(userNode.getServiceKey(), userNode.getServiceNodeKey(), 11);
+        Assert.assertTrue(cache.readCache(userNode.getServiceKey()).isEmpty());
+        Assert.assertEquals(Collections.singletonList(orderNode), cache.readCache(orderNode.getServiceKey()));
+    }
+
+    @Test
+    public void incrementalUpdates() {
+        RegistryServiceCache cache = new RegistryServiceCache();
+        ServiceMetaInfo node1 = node("userService", 8080);
+        ServiceMetaInfo node2 = node("userService", 8081);
+        String serviceKey = node1.getServiceKey();
+
+        // 未缓存的服务忽略增量事件
+        cache.putNode(node1, 1);
+        Assert.assertNull(cache.readCache(serviceKey));
+
+        cache.writeCache(serviceKey, Collections.singletonList(node1), 10);
+        List<ServiceMetaInfo> snapshot = cache.readCache(serviceKey);
+        long version = cache.getVersion(serviceKey);
+
+        cache.putNode(node2, 11);
+        Assert.assertEquals(Arrays.asList(node1, node2), cache.readCache(serviceKey));
+        Assert.assertEquals(version + 1, cache.getVersion(serviceKey));
+        // 旧快照不受影响
+        Assert.assertEquals(Collections.singletonList(node1), snapshot);
+
+        // 早于当前版本的事件被忽略
+        cache.removeNode(serviceKey, node2.getServiceNodeKey(), 9);
+        Assert.assertEquals(2, cache.readCache(serviceKey).size());
+
+        cache.removeNode(serviceKey, node1.getServiceNodeKey(), 12);
+        Assert.assertEquals(Collections.singletonList(node2), cache.readCache(serviceKey));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotIsImmutable() {
+        RegistryServiceCache cache = new RegistryServiceCache();
+        ServiceMetaInfo node = node("userService", 8080);
+        cache.writeCache(node.getServiceKey(), Collections.singletonList(node), 0);
+        cache.readCache(node.getServiceKey()).clear();
+    }
+
+    @Test
+    public void snapshotFileSurvivesRestart() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "snapshot/registry-snapshot.json");
+        ServiceMetaInfo node = node("userService", 8080);
+        String serviceKey = node.getServiceKey();
+
+        RegistryServiceCache cache = new RegistryServiceCache();
+        cache.enableSnapshot(file.getPath(), "etcd@http://localhost:2379");
+        cache.writeCache(serviceKey, Collections.singletonList(node), 10);
+        // 清除缓存（如监听中断）后仍保留最近一次已知的节点
+        cache.clearCache(serviceKey);
+        Assert.assertNull(cache.readCache(serviceKey));
+        Assert.assertEquals(Collections.singletonList(node), cache.readLastKnown(serviceKey));
+        cache.closeSnapshot();
+        Assert.assertTrue(file.isFile());
+
+        // 重启后从快照文件加载
+        RegistryServiceCache restarted = new RegistryServiceCache();
+        restarted.enableSnapshot(file.getPath(), "etcd@http://localhost:2379");
+        Assert.assertNull(restarted.readCache(serviceKey));
+        Assert.assertEquals(Collections.singletonList(node), restarted.readLastKnown(serviceKey));
+        Assert.assertNull(restarted.readLastKnown("unknown:1.0"));
+        restarted.closeSnapshot();
+
+        // 切换到其他注册中心时不加载旧集群的节点
+        RegistryServiceCache otherCluster = new RegistryServiceCache();
+        otherCluster.enableSnapshot(file.getPath(), "etcd@http://10.0.0.1:2379");
+        Assert.assertNull(otherCluster.readLastKnown(serviceKey));
+    }
+}
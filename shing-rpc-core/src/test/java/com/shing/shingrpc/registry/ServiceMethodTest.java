@@ -0,0 +1,87 @@
+package com.shing.shingrpc.registry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * 服务方法直接调用器测试
+ *
+ * @author shing
+ */
+public class ServiceMethodTest {
+
+    /**
+     * 非 public 的实现类
+     */
+    static class CalculatorService {
+
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public long add(long a, long b) {
+            return a + b + 100;
+        }
+
+        public String add(String a, String b) {
+            return a + b;
+        }
+
+        public void check(String value) throws IOException {
+            if (value == null) {
+                throw new IOException("value is null");
+            }
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Test
+    public void overloads() throws Throwable {
+        CalculatorService calculatorService = new CalculatorService();
+        ServiceMethod addInt = new ServiceMethod(CalculatorService.class.getMethod("add", int.class, int.class));
+        ServiceMethod addLong = new ServiceMethod(CalculatorService.class.getMethod("add", long.class, long.class));
+        ServiceMethod addString = new ServiceMethod(CalculatorService.class.getMethod("add", String.class, String.class));
+        // 每个重载方法有独立的调用器，基本类型参数和返回值自动装箱拆箱
+        Assert.assertEquals(3, addInt.invoke(calculatorService, new Object[]{1, 2}));
+        Assert.assertEquals(103L, addLong.invoke(calculatorService, new Object[]{1L, 2L}));
+        Assert.assertEquals("ab", addString.invoke(calculatorService, new Object[]{"a", "b"}));
+        Assert.assertArrayEquals(new Class[]{long.class, long.class}, addLong.getParameterTypes());
+        Assert.assertEquals(long.class, addLong.getReturnType());
+    }
+
+    @Test
+    public void voidMethodReturnsNull() throws Throwable {
+        ServiceMethod check = new ServiceMethod(CalculatorService.class.getMethod("check", String.class));
+        Assert.assertNull(check.invoke(new CalculatorService(), new Object[]{"ok"}));
+    }
+
+    @Test
+    public void exceptionsAreNotWrapped() throws Exception {
+        CalculatorService calculatorService = new CalculatorService();
+        ServiceMethod check = new ServiceMethod(CalculatorService.class.getMethod("check", String.class));
+        ServiceMethod fail = new ServiceMethod(CalculatorService.class.getMethod("fail"));
+        // 服务方法抛出的原始异常直接抛出，不包装为 InvocationTargetException
+        IOException ioException = Assert.assertThrows(IOException.class, () -> check.invoke(calculatorService, new Object[]{null}));
+        Assert.assertEquals("value is null", ioException.getMessage());
+        Assert.assertThrows(IllegalStateException.class, () -> fail.invoke(calculatorService, null));
+
+        // 经过 LocalService 调用时同样保留原始异常
+        LocalService localService = new LocalService(calculatorService);
+        Assert.assertThrows(IOException.class,
+                () -> localService.invoke(localService.getMethod("check", new Class[]{String.class}), new Object[]{null}));
+        Assert.assertThrows(IllegalStateException.class,
+                () -> localService.invoke(localService.getMethod("fail", new Class[0]), new Object[0]));
+    }
+
+    @Test
+    public void wrongArgumentsFail() throws Exception {
+        ServiceMethod addInt = new ServiceMethod(CalculatorService.class.getMethod("add", int.class, int.class));
+        Assert.assertThrows(ClassCastException.class, () -> addInt.invoke(new CalculatorService(), new Object[]{"1", 2}));
+        Assert.assertThrows(IllegalArgumentException.class, () -> addInt.invoke(new CalculatorService(), new Object[]{1}));
+    }
+}
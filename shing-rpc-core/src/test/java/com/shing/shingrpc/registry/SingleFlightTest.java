@@ -0,0 +1,60 @@
+package com.shing.shingrpc.registry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发请求合并测试
+ *
+ * @author shing
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> loading = new CompletableFuture<>();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(singleFlight.execute("userService:1.0", () -> {
+                loads.incrementAndGet();
+                return loading;
+            }));
+        }
+        // 加载完成前的调用共享同一次加载
+        Assert.assertEquals(1, loads.get());
+        loading.complete("nodes");
+        for (CompletableFuture<String> result : results) {
+            Assert.assertEquals("nodes", result.get());
+        }
+
+        // 加载完成后再次调用会重新加载，不同 key 互不影响
+        singleFlight.execute("userService:1.0", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("nodes");
+        }).get();
+        singleFlight.execute("orderService:1.0", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("nodes");
+        }).get();
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void failureIsSharedAndNotCached() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> failed = singleFlight.execute("userService:1.0", () -> {
+            throw new RuntimeException("注册中心不可用");
+        });
+        Assert.assertTrue(failed.isCompletedExceptionally());
+        Assert.assertEquals("nodes", singleFlight.execute("userService:1.0",
+                () -> CompletableFuture.completedFuture("nodes")).get());
+    }
+}
@@ -0,0 +1,253 @@
+package com.shing.shingrpc.serializer;
+
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import com.shing.shingrpc.serializer.compact.CompactTypes;
+import lombok.Data;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑序列化器测试
+ *
+ * @author shing
+ */
+public class CompactSerializerTest {
+
+    private final Serializer serializer = new CompactSerializer();
+
+    public enum Status {
+        ACTIVE, DISABLED
+    }
+
+    @Data
+    public static class Order {
+        private long id;
+        private String remark;
+        private Status status;
+        private Integer priority;
+        private double amount;
+        private boolean paid;
+        private List<SerializerTest.User> users;
+        private Map<String, Integer> counts;
+        private Object extra;
+        private Order parent;
+    }
+
+    @Data
+    public static class Unregistered {
+        private String value;
+    }
+
+    public static class PayloadException extends RuntimeException {
+        private final Object payload;
+
+        public PayloadException(Object payload) {
+            super("payload");
+            this.payload = payload;
+        }
+    }
+
+    public interface UserService {
+        SerializerTest.User update(SerializerTest.User user, int version, long timestamp, String[] tags);
+    }
+
+    public interface OrderService {
+        List<Order> query(Order order, String keyword);
+
+        Order query(long id);
+
+        void remove(long id);
+    }
+
+    @Test
+    public void streamsRangesAndByteBuffers() throws Exception {
+        SerializerTest.User user = new SerializerTest.User();
+        user.setName("shing");
+        user.setAge(18);
+        byte[] bytes = serializer.serialize(user);
+        Assert.assertEquals(user, serializer.deserialize(bytes, SerializerTest.User.class));
+
+        // 写入输出流与字节数组结果一致
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(new byte[]{1, 2, 3});
+        serializer.serialize(user, outputStream);
+        byte[] streamBytes = outputStream.toByteArray();
+        Assert.assertArrayEquals(bytes, Arrays.copyOfRange(streamBytes, 3, streamBytes.length));
+
+        // 从数组区间、输入流、堆内和直接内存 ByteBuffer 读取
+        Assert.assertEquals(user, serializer.deserialize(streamBytes, 3, bytes.length, SerializerTest.User.class));
+        Assert.assertEquals(user, serializer.deserialize(new ByteArrayInputStream(bytes), SerializerTest.User.class));
+        Assert.assertEquals(user, serializer.deserialize(ByteBuffer.wrap(streamBytes, 3, bytes.length), SerializerTest.User.class));
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+        directBuffer.put(bytes).flip();
+        Assert.assertEquals(user, serializer.deserialize(directBuffer, SerializerTest.User.class));
+    }
+
+    @Test
+    public void pojoWithCollectionsAndSelfReference() throws Exception {
+        Order parent = new Order();
+        parent.setId(1);
+        Order order = new Order();
+        order.setId(-2);
+        order.setRemark("备注");
+        order.setStatus(Status.DISABLED);
+        order.setAmount(12.5);
+        order.setPaid(true);
+        SerializerTest.User user = new SerializerTest.User();
+        user.setName("shing");
+        user.setAge(18);
+        order.setUsers(Arrays.asList(user, null));
+        Map<String, Integer> counts = new HashMap<>();
+        counts.put("a", 1);
+        order.setCounts(counts);
+        order.setExtra(42L);
+        order.setParent(parent);
+
+        byte[] bytes = serializer.serialize(order);
+        Assert.assertEquals(order, serializer.deserialize(bytes, Order.class));
+        Assert.assertNull(serializer.deserialize(serializer.serialize(null), Order.class));
+    }
+
+    @Test
+    public void rpcMessagesUseServiceSignature() throws Exception {
+        Order order = new Order();
+        order.setId(7);
+        RpcRequest rpcRequest = RpcRequest.builder()
+                .serviceName(OrderService.class.getName())
+                .methodName("query")
+                .parameterTypes(new Class[]{Order.class, String.class})
+                .args(new Object[]{order, "keyword"})
+                .build();
+        byte[] bytes = serializer.serialize(rpcRequest);
+        // 不写参数类名
+        Assert.assertFalse(new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1).contains(String.class.getName()));
+        RpcRequest request = serializer.deserialize(bytes, RpcRequest.class);
+        Assert.assertArrayEquals(rpcRequest.getParameterTypes(), request.getParameterTypes());
+        Assert.assertArrayEquals(rpcRequest.getArgs(), request.getArgs());
+
+        RpcRequest overload = RpcRequest.builder()
+                .serviceName(OrderService.class.getName())
+                .methodName("query")
+                .parameterTypes(new Class[]{long.class})
+                .args(new Object[]{3L})
+                .build();
+        Assert.assertEquals(3L, serializer.deserialize(serializer.serialize(overload), RpcRequest.class).getArgs()[0]);
+
+        RpcResponse rpcResponse = RpcResponse.builder()
+                .dataType(List.class)
+                .data(Collections.singletonList(order))
+                .message("ok")
+                .build();
+        RpcResponse response = serializer.deserialize(serializer.serialize(rpcResponse), RpcResponse.class);
+        Assert.assertEquals(Collections.singletonList(order), response.getData());
+        Assert.assertEquals("ok", response.getMessage());
+
+        RpcResponse voidResponse = new RpcResponse();
+        voidResponse.setDataType(void.class);
+        voidResponse.setException(new IllegalStateException("失败"));
+        response = serializer.deserialize(serializer.serialize(voidResponse), RpcResponse.class);
+        Assert.assertNull(response.getData());
+        Assert.assertEquals("失败", response.getException().getMessage());
+    }
+
+    @Test
+    public void rpcRequestAndResponseKeepArgumentTypes() throws Exception {
+        SerializerTest.User user = new SerializerTest.User();
+        user.setName("shing");
+        user.setAge(18);
+        RpcRequest rpcRequest = RpcRequest.builder()
+                .serviceName(UserService.class.getName())
+                .methodName("update")
+                .parameterTypes(new Class[]{SerializerTest.User.class, int.class, long.class, String[].class})
+                .args(new Object[]{user, 1, 2L, new String[]{"a", "b"}})
+                .build();
+        RpcRequest request = serializer.deserialize(serializer.serialize(rpcRequest), RpcRequest.class);
+        Assert.assertEquals("update", request.getMethodName());
+        Assert.assertArrayEquals(rpcRequest.getParameterTypes(), request.getParameterTypes());
+        Assert.assertEquals(user, request.getArgs()[0]);
+        Assert.assertEquals(1, request.getArgs()[1]);
+        Assert.assertEquals(2L, request.getArgs()[2]);
+        Assert.assertArrayEquals(new String[]{"a", "b"}, (String[]) request.getArgs()[3]);
+
+        RpcResponse rpcResponse = RpcResponse.builder().data(user).dataType(SerializerTest.User.class).message("ok").build();
+        RpcResponse response = serializer.deserialize(serializer.serialize(rpcResponse), RpcResponse.class);
+        Assert.assertEquals(user, response.getData());
+        Assert.assertEquals("ok", response.getMessage());
+    }
+
+    @Test
+    public void typeReferencesAreCompact() throws Exception {
+        // 常用类型的类型引用只占 1 个字节：dataType + "ok" + "ok" + 无异常
+        RpcResponse rpcResponse = RpcResponse.builder().data("ok").dataType(String.class).message("ok").build();
+        Assert.assertEquals(1 + 2 + 2 + 1, serializer.serialize(rpcResponse).length);
+        Assert.assertTrue(serializer.serialize(rpcResponse).length < new KryoSerializer().serialize(rpcResponse).length);
+
+        // 同一条消息中再次出现的类型只写类型表序号（1 个字节），不再写 8 字节的类名哈希
+        CompactTypes.registerType(Order.class);
+        List<Object> orders = new ArrayList<>();
+        int previousLength = serializer.serialize(RpcResponse.builder().data(new ArrayList<>(orders)).dataType(List.class).build()).length;
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order();
+            order.setId(i);
+            orders.add(order);
+            int length = serializer.serialize(RpcResponse.builder().data(new ArrayList<>(orders)).dataType(List.class).build()).length;
+            int typeReferenceLength = length - previousLength - serializer.serialize(order).length;
+            Assert.assertEquals(i == 0 ? 9 : 1, typeReferenceLength);
+            previousLength = length;
+        }
+        RpcResponse response = serializer.deserialize(serializer.serialize(
+                RpcResponse.builder().data(orders).dataType(List.class).build()), RpcResponse.class);
+        Assert.assertEquals(orders, response.getData());
+    }
+
+    @Test
+    public void rejectsUnregisteredTypes() throws Exception {
+        // 按类名写入的类型在读取端必须已登记
+        Order order = new Order();
+        order.setExtra(new Unregistered());
+        byte[] bytes = serializer.serialize(order);
+        RuntimeException e = Assert.assertThrows(RuntimeException.class, () -> serializer.deserialize(bytes, Order.class));
+        Assert.assertTrue(e.getMessage().contains(Unregistered.class.getName()));
+
+        // 异常走 JDK 序列化，其中夹带的其他类型被过滤器拒绝
+        RpcResponse rpcResponse = new RpcResponse();
+        rpcResponse.setException(new PayloadException(new java.util.PriorityQueue<>(Collections.singletonList(1))));
+        byte[] responseBytes = serializer.serialize(rpcResponse);
+        e = Assert.assertThrows(RuntimeException.class, () -> serializer.deserialize(responseBytes, RpcResponse.class));
+        Assert.assertTrue(e.getCause() instanceof java.io.InvalidClassException);
+
+        // 不夹带其他类型的异常正常读取
+        rpcResponse.setException(new PayloadException(7L));
+        Assert.assertEquals(7L, ((PayloadException) serializer.deserialize(serializer.serialize(rpcResponse), RpcResponse.class)
+                .getException()).payload);
+    }
+
+    @Test
+    public void smallerThanKryo() throws Exception {
+        // 简单 POJO 与 Kryo 持平（都只写字段值），RpcRequest 省去了类名所以更小
+        SerializerTest.User user = new SerializerTest.User();
+        user.setName("shing");
+        user.setAge(18);
+        Serializer kryoSerializer = new KryoSerializer();
+        Assert.assertTrue(serializer.serialize(user).length <= kryoSerializer.serialize(user).length);
+
+        RpcRequest rpcRequest = RpcRequest.builder()
+                .serviceName(UserService.class.getName())
+                .methodName("update")
+                .parameterTypes(new Class[]{SerializerTest.User.class, int.class, long.class, String[].class})
+                .args(new Object[]{user, 1, 2L, new String[]{"a"}})
+                .build();
+        Assert.assertTrue(serializer.serialize(rpcRequest).length < kryoSerializer.serialize(rpcRequest).length);
+    }
+}
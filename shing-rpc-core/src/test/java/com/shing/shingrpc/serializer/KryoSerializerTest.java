@@ -0,0 +1,70 @@
+package com.shing.shingrpc.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import lombok.Data;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Kryo 序列化器预注册测试
+ *
+ * @author shing
+ */
+public class KryoSerializerTest {
+
+    @Data
+    public static class Order {
+        private String orderId;
+        private long amount;
+    }
+
+    @After
+    public void resetRegistrations() {
+        KryoSerializer.setRegistrations(null);
+    }
+
+    @Test
+    public void registrationIdsAreStable() {
+        KryoSerializer.setRegistrations(Collections.singletonList(Order.class.getName()));
+        Kryo first = KryoSerializer.newKryo();
+        Kryo second = KryoSerializer.newKryo();
+        // 框架类从 100 开始，用户类从 1000 开始，不同实例（即消费者和提供者）的 ID 一致
+        Assert.assertEquals(100, first.getRegistration(RpcRequest.class).getId());
+        Assert.assertEquals(101, first.getRegistration(RpcResponse.class).getId());
+        Assert.assertEquals(115, first.getRegistration(BigInteger.class).getId());
+        Assert.assertEquals(1000, first.getRegistration(Order.class).getId());
+        for (Class<?> type : new Class[]{RpcRequest.class, RpcResponse.class, BigInteger.class, Order.class}) {
+            Assert.assertEquals(first.getRegistration(type).getId(), second.getRegistration(type).getId());
+        }
+    }
+
+    @Test
+    public void registeredClassRoundTrip() throws Exception {
+        KryoSerializer.setRegistrations(Collections.singletonList(" " + Order.class.getName() + " "));
+        Order order = new Order();
+        order.setOrderId("order-1");
+        order.setAmount(100);
+        RpcResponse rpcResponse = new RpcResponse();
+        rpcResponse.setData(order);
+
+        KryoSerializer serializer = new KryoSerializer();
+        byte[] bytes = serializer.serialize(rpcResponse);
+        // 已注册的类只写 ID，不写类名
+        Assert.assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains(Order.class.getSimpleName()));
+        Assert.assertEquals(order, serializer.deserialize(bytes, RpcResponse.class).getData());
+    }
+
+    @Test
+    public void unknownClassFailsClearly() {
+        RuntimeException e = Assert.assertThrows(RuntimeException.class,
+                () -> KryoSerializer.setRegistrations(Collections.singletonList("com.shing.NotExists")));
+        Assert.assertEquals("Kryo 注册类不存在 com.shing.NotExists", e.getMessage());
+    }
+}
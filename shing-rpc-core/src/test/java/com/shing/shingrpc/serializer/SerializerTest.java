@@ -0,0 +1,131 @@
+package com.shing.shingrpc.serializer;
+
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import lombok.Data;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 序列化器测试（字节数组、输入输出流、ByteBuffer 视图）
+ *
+ * @author shing
+ */
+public class SerializerTest {
+
+    private static final List<Serializer> SERIALIZERS = Arrays.asList(
+            new JdkSerializer(), new HessianSerializer(), new Hessian2Serializer(), new KryoSerializer(),
+            new JacksonSerializer(), new FastjsonSerializer());
+
+    @Data
+    public static class User implements Serializable {
+        private String name;
+        private int age;
+    }
+
+    @Test
+    public void serializeAndDeserialize() throws Exception {
+        User user = new User();
+        user.setName("shing");
+        user.setAge(18);
+        for (Serializer serializer : SERIALIZERS) {
+            String name = serializer.getClass().getSimpleName();
+            byte[] bytes = serializer.serialize(user);
+            Assert.assertEquals(name, user, serializer.deserialize(bytes, User.class));
+
+            // 写入输出流与字节数组结果一致
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            outputStream.write(new byte[]{1, 2, 3});
+            serializer.serialize(user, outputStream);
+            byte[] streamBytes = outputStream.toByteArray();
+            Assert.assertArrayEquals(name, bytes, Arrays.copyOfRange(streamBytes, 3, streamBytes.length));
+
+            // 从数组区间、输入流、堆内和直接内存 ByteBuffer 读取
+            Assert.assertEquals(name, user, serializer.deserialize(streamBytes, 3, bytes.length, User.class));
+            Assert.assertEquals(name, user, serializer.deserialize(new ByteArrayInputStream(bytes), User.class));
+            Assert.assertEquals(name, user, serializer.deserialize(ByteBuffer.wrap(streamBytes, 3, bytes.length), User.class));
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+            directBuffer.put(bytes).flip();
+            Assert.assertEquals(name, user, serializer.deserialize(directBuffer, User.class));
+            Assert.assertEquals(name, bytes.length, directBuffer.remaining());
+        }
+    }
+
+    @Test
+    public void rpcRequestAndResponseKeepArgumentTypes() throws Exception {
+        User user = new User();
+        user.setName("shing");
+        user.setAge(18);
+        RpcRequest rpcRequest = RpcRequest.builder()
+                .serviceName("com.shing.UserService")
+                .methodName("update")
+                .parameterTypes(new Class[]{User.class, int.class, long.class, String[].class})
+                .args(new Object[]{user, 1, 2L, new String[]{"a", "b"}})
+                .build();
+        RpcResponse rpcResponse = RpcResponse.builder().data(user).dataType(User.class).message("ok").build();
+        for (Serializer serializer : SERIALIZERS) {
+            String name = serializer.getClass().getSimpleName();
+            RpcRequest request = serializer.deserialize(serializer.serialize(rpcRequest), RpcRequest.class);
+            Assert.assertEquals(name, "update", request.getMethodName());
+            Assert.assertArrayEquals(name, rpcRequest.getParameterTypes(), request.getParameterTypes());
+            Assert.assertEquals(name, user, request.getArgs()[0]);
+            Assert.assertEquals(name, 1, request.getArgs()[1]);
+            Assert.assertEquals(name, 2L, request.getArgs()[2]);
+            Assert.assertArrayEquals(name, new String[]{"a", "b"}, (String[]) request.getArgs()[3]);
+
+            RpcResponse response = serializer.deserialize(serializer.serialize(rpcResponse), RpcResponse.class);
+            Assert.assertEquals(name, user, response.getData());
+            Assert.assertEquals(name, "ok", response.getMessage());
+        }
+    }
+
+    @Test
+    public void jsonRequestArgsBeforeParameterTypes() throws Exception {
+        String json = "{\"args\":[{\"name\":\"shing\",\"age\":18},3],\"methodName\":\"update\","
+                + "\"parameterTypes\":[\"" + User.class.getName() + "\",\"int\"]}";
+        byte[] bytes = json.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        for (Serializer serializer : Arrays.asList(new JacksonSerializer(), new FastjsonSerializer())) {
+            RpcRequest request = serializer.deserialize(bytes, RpcRequest.class);
+            Assert.assertEquals(User.class, request.getArgs()[0].getClass());
+            Assert.assertEquals(3, request.getArgs()[1]);
+        }
+    }
+
+    @Test
+    public void jsonRejectsGadgetClassNames() {
+        String gadget = "com.sun.rowset.JdbcRowSetImpl";
+        List<String> requests = Arrays.asList(
+                "{\"methodName\":\"update\",\"parameterTypes\":[\"" + gadget + "\"],\"args\":[{\"dataSourceName\":\"x\"}]}",
+                "{\"methodName\":\"update\",\"parameterTypes\":[\"[L" + gadget + ";\"],\"args\":[[{\"dataSourceName\":\"x\"}]]}");
+        String response = "{\"dataType\":\"" + gadget + "\",\"data\":{\"dataSourceName\":\"x\"}}";
+        for (Serializer serializer : Arrays.asList(new JacksonSerializer(), new FastjsonSerializer())) {
+            for (String json : requests) {
+                assertRejected(serializer, json, RpcRequest.class);
+            }
+            assertRejected(serializer, response, RpcResponse.class);
+        }
+    }
+
+    private static void assertRejected(Serializer serializer, String json, Class<?> type) {
+        try {
+            serializer.deserialize(json.getBytes(java.nio.charset.StandardCharsets.UTF_8), type);
+        } catch (Exception e) {
+            // 必须是类型校验拒绝，而不是创建对象之后的其他错误
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                String message = String.valueOf(cause.getMessage());
+                if (message.contains("autoType is not support") || message.contains("security reasons")) {
+                    return;
+                }
+            }
+            throw new AssertionError(serializer.getClass().getSimpleName() + " 拒绝原因不符 " + json, e);
+        }
+        Assert.fail(serializer.getClass().getSimpleName() + " 未拒绝 " + json);
+    }
+}
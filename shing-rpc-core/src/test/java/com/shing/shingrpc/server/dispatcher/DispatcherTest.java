@@ -0,0 +1,62 @@
+package com.shing.shingrpc.server.dispatcher;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用派发器测试
+ *
+ * @author shing
+ */
+public class DispatcherTest {
+
+    @Test
+    public void eventLoopRunsOnCallerThread() {
+        Thread[] runThread = new Thread[1];
+        DispatcherFactory.getInstance(DispatcherKeys.EVENT_LOOP).dispatch(() -> runThread[0] = Thread.currentThread());
+        Assert.assertSame(Thread.currentThread(), runThread[0]);
+    }
+
+    @Test
+    public void workerRunsOnWorkerThread() throws Exception {
+        CompletableFuture<String> threadName = new CompletableFuture<>();
+        DispatcherFactory.getInstance(DispatcherKeys.WORKER).dispatch(() -> threadName.complete(Thread.currentThread().getName()));
+        Assert.assertTrue(threadName.get(5, TimeUnit.SECONDS).startsWith("shing-rpc-worker"));
+    }
+
+    @Test
+    public void virtualRunsOffCallerThread() throws Exception {
+        // 不支持虚拟线程的 JDK 上退化为业务线程池，同样不在调用线程上执行
+        CompletableFuture<Thread> runThread = new CompletableFuture<>();
+        DispatcherFactory.getInstance(DispatcherKeys.VIRTUAL).dispatch(() -> runThread.complete(Thread.currentThread()));
+        Assert.assertNotSame(Thread.currentThread(), runThread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void virtualFallbackSharesWorkerPool() throws Exception {
+        CompletableFuture<String> workerThreadName = new CompletableFuture<>();
+        DispatcherFactory.getInstance(DispatcherKeys.WORKER).dispatch(() -> workerThreadName.complete(Thread.currentThread().getName()));
+        CompletableFuture<String> virtualThreadName = new CompletableFuture<>();
+        new VirtualThreadDispatcher().dispatch(() -> virtualThreadName.complete(Thread.currentThread().getName()));
+        // 支持虚拟线程的 JDK 上不退化，无需检查
+        Assume.assumeTrue(virtualThreadName.get(5, TimeUnit.SECONDS).startsWith("shing-rpc-worker"));
+        // 同一线程池的线程名前缀（含线程池编号）相同，说明没有另建线程池
+        Assert.assertEquals(poolName(workerThreadName.get(5, TimeUnit.SECONDS)), poolName(virtualThreadName.get()));
+    }
+
+    @Test
+    public void unknownKey() {
+        Assert.assertTrue(DispatcherFactory.contains(DispatcherKeys.WORKER));
+        Assert.assertFalse(DispatcherFactory.contains("wroker"));
+        Assert.assertFalse(DispatcherFactory.contains(null));
+        Assert.assertThrows(RuntimeException.class, () -> DispatcherFactory.getInstance("wroker"));
+    }
+
+    private static String poolName(String threadName) {
+        return threadName.substring(0, threadName.lastIndexOf('-'));
+    }
+}
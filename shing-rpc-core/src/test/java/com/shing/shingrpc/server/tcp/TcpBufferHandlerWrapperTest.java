@@ -0,0 +1,73 @@
+package com.shing.shingrpc.server.tcp;
+
+import com.shing.shingrpc.protocol.ProtocolConstant;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 协议帧切分测试
+ *
+ * @author shing
+ */
+public class TcpBufferHandlerWrapperTest {
+
+    @Test
+    public void handleMultipleFramesAndHalfPacket() {
+        List<Buffer> frames = new ArrayList<>();
+        TcpBufferHandlerWrapper wrapper = new TcpBufferHandlerWrapper(frames::add);
+
+        Buffer data = Buffer.buffer()
+                .appendBuffer(buildFrame("a"))
+                .appendBuffer(buildFrame("bb"))
+                .appendBuffer(buildFrame("ccc"));
+        // 一次读取包含两个完整帧和第三个帧的前半部分
+        int split = data.length() - 2;
+        wrapper.handle(data.getBuffer(0, split));
+        Assert.assertEquals(2, frames.size());
+        wrapper.handle(data.getBuffer(split, data.length()));
+        Assert.assertEquals(3, frames.size());
+        Assert.assertEquals("ccc", frames.get(2).getString(ProtocolConstant.MESSAGE_HEADER_LENGTH, frames.get(2).length()));
+    }
+
+    @Test(timeout = 10000)
+    public void handleLargeFrameInSmallChunks() {
+        List<Buffer> frames = new ArrayList<>();
+        TcpBufferHandlerWrapper wrapper = new TcpBufferHandlerWrapper(frames::add);
+
+        // 8 MB 的帧按 1 KB 分多次到达，半包每次都整体复制时需要复制约 32 GB
+        byte[] body = new byte[8 * 1024 * 1024];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        Buffer frame = Buffer.buffer(new byte[ProtocolConstant.MESSAGE_HEADER_LENGTH]);
+        frame.setInt(13, body.length);
+        frame.appendBytes(body).appendBuffer(buildFrame("next"));
+        int chunkSize = 1024;
+        for (int start = 0; start < frame.length(); start += chunkSize) {
+            wrapper.handle(frame.getBuffer(start, Math.min(start + chunkSize, frame.length())));
+        }
+        Assert.assertEquals(2, frames.size());
+        Assert.assertArrayEquals(body, frames.get(0).getBytes(ProtocolConstant.MESSAGE_HEADER_LENGTH, frames.get(0).length()));
+        Assert.assertEquals("next", frames.get(1).getString(ProtocolConstant.MESSAGE_HEADER_LENGTH, frames.get(1).length()));
+    }
+
+    @Test
+    public void rejectOversizedFrame() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpBufferHandlerWrapper wrapper = new TcpBufferHandlerWrapper(buffer -> Assert.fail(), errors::add);
+        Buffer header = Buffer.buffer(new byte[ProtocolConstant.MESSAGE_HEADER_LENGTH]);
+        header.setInt(13, Integer.MAX_VALUE);
+        wrapper.handle(header);
+        Assert.assertEquals(1, errors.size());
+    }
+
+    private static Buffer buildFrame(String body) {
+        Buffer frame = Buffer.buffer(new byte[ProtocolConstant.MESSAGE_HEADER_LENGTH]);
+        frame.setInt(13, body.length());
+        return frame.appendString(body);
+    }
+}
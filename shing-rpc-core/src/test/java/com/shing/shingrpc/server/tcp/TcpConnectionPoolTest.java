@@ -0,0 +1,165 @@
+package com.shing.shingrpc.server.tcp;
+
+import com.shing.shingrpc.config.TcpClientConfig;
+import io.netty.util.HashedWheelTimer;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetSocket;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * TCP 连接池测试：最小 / 最大连接数、空闲回收、不健康连接替换和无法连接时关闭
+ *
+ * @author shing
+ */
+public class TcpConnectionPoolTest {
+
+    private static final int PORT = 18091;
+
+    /**
+     * 没有服务监听的端口
+     */
+    private static final int UNAVAILABLE_PORT = 18092;
+
+    private static Vertx vertx;
+
+    private static NetClient netClient;
+
+    private static HashedWheelTimer timeoutTimer;
+
+    /**
+     * 服务端已接受的连接
+     */
+    private static final List<NetSocket> SERVER_SOCKETS = new CopyOnWriteArrayList<>();
+
+    private TcpClientConfig tcpClientConfig;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        vertx = Vertx.vertx();
+        NetServer netServer = vertx.createNetServer().connectHandler(socket -> {
+            SERVER_SOCKETS.add(socket);
+            socket.closeHandler(v -> SERVER_SOCKETS.remove(socket));
+        });
+        netServer.listen(PORT).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        netClient = vertx.createNetClient();
+        timeoutTimer = new HashedWheelTimer();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        timeoutTimer.stop();
+        vertx.close();
+    }
+
+    @Before
+    public void setUp() {
+        tcpClientConfig = new TcpClientConfig();
+        tcpClientConfig.setMinConnections(2);
+        tcpClientConfig.setMaxConnections(3);
+        tcpClientConfig.setIdleTimeout(60000L);
+    }
+
+    @Test
+    public void warmUpToMinAndCapAtMax() throws Exception {
+        TcpConnectionPool pool = new TcpConnectionPool("localhost", PORT, netClient, tcpClientConfig, timeoutTimer);
+        try {
+            // 定时检查时预热到最小连接数
+            Assert.assertFalse(pool.evictIdle());
+            awaitTrue(() -> pool.getConnectionCount() == 2);
+
+            // 所有连接都达到在途请求阈值时新建连接，但不超过最大连接数
+            tcpClientConfig.setMaxInFlightPerConnection(0);
+            for (int i = 0; i < 10; i++) {
+                pool.acquire().get(5, TimeUnit.SECONDS);
+            }
+            awaitTrue(() -> pool.getConnectionCount() == 3);
+            Thread.sleep(200);
+            Assert.assertEquals(3, pool.getConnectionCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void evictIdleConnectionsAndIdlePool() throws Exception {
+        tcpClientConfig.setMinConnections(1);
+        tcpClientConfig.setIdleTimeout(300L);
+        tcpClientConfig.setMaxInFlightPerConnection(0);
+        TcpConnectionPool pool = new TcpConnectionPool("localhost", PORT, netClient, tcpClientConfig, timeoutTimer);
+        for (int i = 0; i < 3; i++) {
+            pool.acquire().get(5, TimeUnit.SECONDS);
+        }
+        awaitTrue(() -> pool.getConnectionCount() == 3);
+
+        // 连接池仍在使用，空闲连接回收到最小连接数
+        Thread.sleep(400);
+        tcpClientConfig.setMaxInFlightPerConnection(256);
+        pool.acquire().get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(pool.evictIdle());
+        Assert.assertEquals(1, pool.getConnectionCount());
+
+        // 连接池长时间未被使用，整体关闭，不再补齐连接
+        Thread.sleep(400);
+        Assert.assertTrue(pool.evictIdle());
+        Assert.assertTrue(pool.isClosed());
+        Assert.assertEquals(0, pool.getConnectionCount());
+        Assert.assertNull(pool.acquire());
+        awaitTrue(SERVER_SOCKETS::isEmpty);
+    }
+
+    @Test
+    public void replaceUnhealthyConnection() throws Exception {
+        tcpClientConfig.setMinConnections(1);
+        TcpConnectionPool pool = new TcpConnectionPool("localhost", PORT, netClient, tcpClientConfig, timeoutTimer);
+        try {
+            TcpConnection connection = pool.acquire().get(5, TimeUnit.SECONDS);
+            awaitTrue(() -> !SERVER_SOCKETS.isEmpty());
+
+            // 服务端断开连接后连接不再被选用，定时检查时移除并补齐
+            SERVER_SOCKETS.forEach(NetSocket::close);
+            awaitTrue(() -> !connection.isHealthy());
+            Assert.assertFalse(pool.evictIdle());
+            awaitTrue(() -> pool.getConnectionCount() == 1);
+            TcpConnection replacement = pool.acquire().get(5, TimeUnit.SECONDS);
+            Assert.assertNotSame(connection, replacement);
+            Assert.assertTrue(replacement.isHealthy());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void closeUnreachablePool() throws Exception {
+        TcpConnectionPool pool = new TcpConnectionPool("localhost", UNAVAILABLE_PORT, netClient, tcpClientConfig, timeoutTimer);
+        for (int i = 0; i < TcpConnectionPool.MAX_CONNECT_FAILURES; i++) {
+            CompletableFuture<TcpConnection> connectionFuture = pool.acquire();
+            Assert.assertThrows(ExecutionException.class, () -> connectionFuture.get(5, TimeUnit.SECONDS));
+        }
+        // 连续建连失败后不再补齐连接，连接池关闭
+        Assert.assertTrue(pool.evictIdle());
+        Assert.assertTrue(pool.isClosed());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("等待超时");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.shing.shingrpc.server.tcp;
+
+import com.shing.shingrpc.RpcApplication;
+import com.shing.shingrpc.model.RpcRequest;
+import com.shing.shingrpc.model.RpcResponse;
+import com.shing.shingrpc.model.ServiceMetaInfo;
+import com.shing.shingrpc.registry.LocalRegistry;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * TCP 服务端与客户端本地回环测试
+ *
+ * @author shing
+ */
+public class VertxTcpServerTest {
+
+    private static final int PORT = 18089;
+
+    public static class EchoService {
+        public String echo(String message) {
+            return "echo:" + message;
+        }
+
+        public String slow(String message) throws InterruptedException {
+            Thread.sleep(1000);
+            return "slow:" + message;
+        }
+
+        public Object unserializable(String message) {
+            // Object 未实现 Serializable，响应无法编码
+            return new Object();
+        }
+    }
+
+    @BeforeClass
+    public static void startServer() {
+        RpcApplication.getRpcConfig().getTcpServerConfig().setInstances(2);
+        LocalRegistry.register(EchoService.class.getName(), EchoService.class);
+        new VertxTcpServer().doStart(PORT);
+    }
+
+    @Test
+    public void doRequest() throws Exception {
+        RpcResponse rpcResponse = VertxTcpClient.doRequest(buildRequest("hello"), buildServiceMetaInfo());
+        Assert.assertEquals("echo:hello", rpcResponse.getData());
+    }
+
+    @Test
+    public void doRequestConcurrently() {
+        // 并发请求复用连接，响应按 requestId 匹配，不会串号
+        List<CompletableFuture<RpcResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(VertxTcpClient.doRequestAsync(buildRequest(String.valueOf(i)), buildServiceMetaInfo()));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Assert.assertEquals("echo:" + i, futures.get(i).join().getData());
+        }
+    }
+
+    @Test
+    public void methodTimeoutOverridesDefault() throws Exception {
+        // 方法级超时优先于全局超时
+        Map<String, Long> serviceTimeouts = RpcApplication.getRpcConfig().getServiceTimeouts();
+        String key = EchoService.class.getName() + "#slow";
+        serviceTimeouts.put(key, 200L);
+        try {
+            CompletableFuture<RpcResponse> slowFuture = VertxTcpClient.doRequestAsync(buildRequest("slow", "hello"), buildServiceMetaInfo());
+            try {
+                slowFuture.get(5, TimeUnit.SECONDS);
+                Assert.fail("方法级超时未生效");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            // 其他方法仍使用全局超时
+            Assert.assertEquals("echo:hello", VertxTcpClient.doRequest(buildRequest("hello"), buildServiceMetaInfo()).getData());
+        } finally {
+            serviceTimeouts.remove(key);
+        }
+    }
+
+    @Test
+    public void startFailurePropagates() {
+        // 端口已被占用时启动失败并抛出异常
+        Assert.assertThrows(RuntimeException.class, () -> new VertxTcpServer().doStart(PORT));
+    }
+
+    @Test
+    public void unknownDispatcherReturnsError() throws Exception {
+        // 派发器不存在时返回错误响应，而不是让客户端等到超时
+        Map<String, String> serviceDispatchers = RpcApplication.getRpcConfig().getTcpServerConfig().getServiceDispatchers();
+        String key = EchoService.class.getName() + "#echo";
+        serviceDispatchers.put(key, "wroker");
+        try {
+            RpcResponse rpcResponse = VertxTcpClient.doRequestAsync(buildRequest("hello"), buildServiceMetaInfo()).get(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(rpcResponse.getException());
+            Assert.assertTrue(rpcResponse.getMessage().contains("wroker"));
+        } finally {
+            serviceDispatchers.remove(key);
+        }
+    }
+
+    @Test
+    public void responseEncodeFailureReturnsError() throws Exception {
+        // 返回值无法序列化时返回错误响应，而不是让客户端等到超时
+        RpcResponse rpcResponse = VertxTcpClient.doRequestAsync(buildRequest("unserializable", "hello"), buildServiceMetaInfo())
+                .get(5, TimeUnit.SECONDS);
+        Assert.assertNull(rpcResponse.getData());
+        Assert.assertNotNull(rpcResponse.getException());
+        Assert.assertTrue(rpcResponse.getMessage().startsWith("协议消息编码错误"));
+    }
+
+    private static RpcRequest buildRequest(String message) {
+        return buildRequest("echo", message);
+    }
+
+    private static RpcRequest buildRequest(String methodName, String message) {
+        return RpcRequest.builder()
+                .serviceName(EchoService.class.getName())
+                .methodName(methodName)
+                .parameterTypes(new Class[]{String.class})
+                .args(new Object[]{message})
+                .build();
+    }
+
+    private static ServiceMetaInfo buildServiceMetaInfo() {
+        ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
+        serviceMetaInfo.setServiceHost("localhost");
+        serviceMetaInfo.setServicePort(PORT);
+        return serviceMetaInfo;
+    }
+}
@@ -0,0 +1,35 @@
+package com.shing.shingrpc.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 配置工具类测试
+ *
+ * @author shing
+ */
+public class ConfigUtilsTest {
+
+    @Test
+    public void flattenMap() {
+        // rpc.serviceTimeouts.com.shing.UserService#getUser=500 加载后是按 "." 拆开的嵌套 Map
+        Map<String, Object> userService = new HashMap<>();
+        userService.put("UserService#getUser", "500");
+        userService.put("UserService", 1000L);
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("com", Collections.singletonMap("shing", userService));
+        config.put("OrderService", "2000");
+
+        Map<String, String> flatMap = ConfigUtils.flattenMap(config);
+        Assert.assertEquals(3, flatMap.size());
+        Assert.assertEquals("500", flatMap.get("com.shing.UserService#getUser"));
+        Assert.assertEquals("1000", flatMap.get("com.shing.UserService"));
+        Assert.assertEquals("2000", flatMap.get("OrderService"));
+        Assert.assertTrue(ConfigUtils.flattenMap(null).isEmpty());
+    }
+}
@@ -10,17 +10,27 @@ import com.shing.shingrpc.registry.RegistryFactory;
 import com.shing.shingrpc.springboot.starter.annotation.RpcService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Rpc服务提供者启动器。该类实现了Spring BeanPostProcessor接口，
  * 用于在Spring应用程序启动时，扫描标记了@RpcService注解的服务类，
  * 并将这些服务注册到本地及远程的服务注册中心。
+ * 远程注册在所有单例初始化完成后批量进行，而不是每个 Bean 各自往返一次注册中心。
  *
  * @author shing
  */
 @Slf4j
-public class RpcProviderBootstrap implements BeanPostProcessor {
+public class RpcProviderBootstrap implements BeanPostProcessor, SmartInitializingSingleton {
+
+    /**
+     * 待注册到注册中心的服务
+     */
+    private final List<ServiceMetaInfo> serviceMetaInfoList = new ArrayList<>();
 
     /**
      * 处理Spring Bean初始化后的逻辑，扫描并注册Rpc服务。
@@ -45,26 +55,38 @@ public class RpcProviderBootstrap implements BeanPostProcessor {
             String serviceName = interfaceClass.getName();
             String serviceVersion = rpcService.serviceVersion();
             // 2. 执行服务注册
-            // 首先在本地注册表中注册服务
-            LocalRegistry.register(serviceName, beanClass);
+            // 首先在本地注册表中注册服务（直接使用 Spring 管理的 Bean 实例）
+            LocalRegistry.register(serviceName, bean);
 
-            // 然后根据全局配置，将服务注册到指定的服务注册中心
+            // 然后记录服务元信息，等所有单例初始化完成后统一注册到注册中心
             final RpcConfig rpcConfig = RpcApplication.getRpcConfig();
-            RegistryConfig registryConfig = rpcConfig.getRegistryConfig();
-            Registry registry = RegistryFactory.getInstance(registryConfig.getRegistry());
             ServiceMetaInfo serviceMetaInfo = new ServiceMetaInfo();
             serviceMetaInfo.setServiceName(serviceName);
             serviceMetaInfo.setServiceVersion(serviceVersion);
             serviceMetaInfo.setServiceHost(rpcConfig.getServerHost());
             serviceMetaInfo.setServicePort(rpcConfig.getServerPort());
-            try {
-                registry.register(serviceMetaInfo);
-            } catch (Exception e) {
-                // 注册失败时抛出运行时异常
-                throw new RuntimeException(serviceName + " 服务注册失败", e);
-            }
+            serviceMetaInfoList.add(serviceMetaInfo);
         }
         return BeanPostProcessor.super.postProcessAfterInitialization(bean, beanName);
     }
+
+    /**
+     * 所有单例初始化完成后，将收集到的服务批量注册到注册中心。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (serviceMetaInfoList.isEmpty()) {
+            return;
+        }
+        RegistryConfig registryConfig = RpcApplication.getRpcConfig().getRegistryConfig();
+        Registry registry = RegistryFactory.getInstance(registryConfig.getRegistry());
+        try {
+            registry.registerBatch(serviceMetaInfoList);
+        } catch (Exception e) {
+            // 注册失败时抛出运行时异常
+            throw new RuntimeException("服务注册失败", e);
+        }
+        log.info("已注册 {} 个服务到注册中心", serviceMetaInfoList.size());
+    }
 }
 